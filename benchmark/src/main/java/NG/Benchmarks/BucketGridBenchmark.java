@@ -0,0 +1,78 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BucketGrid3i;
+import NG.DataStructures.Generic.AABBi;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures point and range queries on a {@link BucketGrid3i} filled with boxes of random sizes.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BucketGridBenchmark {
+    private static final int NR_OF_QUERIES = 1024; // power of two
+    private static final int MAX_BOX_SIZE = 4;
+
+    @Param({"5"})
+    public int bucketSize;
+
+    @Param({"1000", "20000"})
+    public int nrOfElements;
+
+    @Param({"64"})
+    public int gridSize;
+
+    private BucketGrid3i<Integer> grid;
+    private int[] points;
+    private AABBi[] ranges;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SceneGenerator.SEED);
+        grid = new BucketGrid3i<>(bucketSize);
+
+        for (int i = 0; i < nrOfElements; i++) {
+            grid.add(i, randomBox(random, MAX_BOX_SIZE));
+        }
+
+        points = new int[NR_OF_QUERIES * 3];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextInt(gridSize);
+        }
+
+        ranges = new AABBi[NR_OF_QUERIES];
+        for (int i = 0; i < NR_OF_QUERIES; i++) {
+            ranges[i] = randomBox(random, 2 * bucketSize);
+        }
+    }
+
+    private AABBi randomBox(Random random, int maxSize) {
+        int x = random.nextInt(gridSize - maxSize);
+        int y = random.nextInt(gridSize - maxSize);
+        int z = random.nextInt(gridSize - maxSize);
+        return new AABBi(
+                x, y, z,
+                x + random.nextInt(maxSize), y + random.nextInt(maxSize), z + random.nextInt(maxSize)
+        );
+    }
+
+    @Benchmark
+    public Integer pointQuery() {
+        int i = 3 * (next++ & (NR_OF_QUERIES - 1));
+        return grid.get(points[i], points[i + 1], points[i + 2]);
+    }
+
+    @Benchmark
+    public int rangeQuery() {
+        return grid.get(ranges[next++ & (NR_OF_QUERIES - 1)]).size();
+    }
+}
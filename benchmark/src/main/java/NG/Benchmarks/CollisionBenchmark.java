@@ -0,0 +1,91 @@
+package NG.Benchmarks;
+
+import NG.CollisionDetection.CollisionDetection;
+import NG.Entities.Entity;
+import NG.Entities.MovingEntity;
+import NG.Tools.Logger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a game tick of {@link CollisionDetection}: moving all entities, and resolving the collisions between tanks
+ * and a swarm of projectiles flying towards the center of the field.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final float FIELD_SIZE = 100f;
+    private static final float SHOT_SPEED = 50f;
+    private static final float DELTA_TIME = 1f / 60;
+
+    @Param({"16", "64"})
+    public int nrOfTanks;
+
+    @Param({"8", "64"})
+    public int nrOfBricks;
+
+    @Param({"0", "256"})
+    public int nrOfProjectiles;
+
+    private CollisionDetection collisions;
+    private List<Entity> entities;
+    private float gameTime;
+
+    /** the scene is rebuilt every iteration, such that every iteration starts with all projectiles in flight */
+    @Setup(Level.Iteration)
+    public void setup() {
+        Logger.setLoggingLevel(Logger.ERROR);
+        Random random = new Random(SceneGenerator.SEED);
+
+        entities = new ArrayList<>();
+        entities.addAll(SceneGenerator.tanks(nrOfTanks, nrOfBricks, FIELD_SIZE, random));
+        entities.addAll(SceneGenerator.projectileSwarm(
+                SceneGenerator.emptyGame(), nrOfProjectiles, FIELD_SIZE, SHOT_SPEED, random
+        ));
+
+        collisions = new CollisionDetection(Collections.emptyList());
+        collisions.addEntities(entities);
+        gameTime = 0;
+        collisions.processCollisions(gameTime);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        collisions.cleanup();
+    }
+
+    @Benchmark
+    public int tick() {
+        float previousTime = gameTime;
+        gameTime += DELTA_TIME;
+
+        for (Entity entity : entities) {
+            entity.preUpdate(gameTime, DELTA_TIME);
+        }
+
+        collisions.processCollisions(gameTime);
+
+        for (Entity entity : entities) {
+            entity.postUpdate();
+        }
+
+        // only the states of the last tick are kept, as in a running game
+        for (Entity entity : entities) {
+            if (entity instanceof MovingEntity) {
+                ((MovingEntity) entity).disposeStatesUntil(previousTime);
+            }
+        }
+
+        return entities.size();
+    }
+}
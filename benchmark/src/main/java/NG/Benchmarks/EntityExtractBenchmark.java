@@ -0,0 +1,53 @@
+package NG.Benchmarks;
+
+import NG.Entities.Entity;
+import NG.Rendering.EntityDrawList;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the extract phase of a frame: culling a field of constructions against the view of a camera, as done by
+ * {@link EntityDrawList#extract}. This does not require a window or graphics context.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EntityExtractBenchmark {
+    private static final float FIELD_SIZE = 500f;
+    private static final int NR_OF_BRICKS = 3;
+
+    @Param({"16", "256", "4096"})
+    public int nrOfEntities;
+
+    private List<Entity> entities;
+    private Matrix4f viewProjection;
+    private EntityDrawList drawList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SceneGenerator.SEED);
+        entities = new ArrayList<>(SceneGenerator.tanks(nrOfEntities, NR_OF_BRICKS, FIELD_SIZE, random));
+
+        // looking along the x-axis from the center of the field
+        viewProjection = new Matrix4f()
+                .setPerspective((float) Math.toRadians(60), 16f / 9f, 0.1f, FIELD_SIZE)
+                .lookAt(0, 0, 10, 1, 0, 10, 0, 0, 1);
+
+        drawList = new EntityDrawList();
+    }
+
+    @Benchmark
+    public int extract() {
+        drawList.extract(entities, 0, viewProjection, true);
+        return drawList.size();
+    }
+}
@@ -0,0 +1,73 @@
+package NG.Benchmarks;
+
+import NG.DataStructures.Interpolation.StateInterpolator;
+import NG.DataStructures.Vector3fx;
+import NG.Entities.MutableState;
+import NG.Entities.State;
+import NG.Tools.Vectors;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in a {@link StateInterpolator} holding the states of a number of ticks, at random times between
+ * the first and the last state, as done when rendering and when resolving collisions.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InterpolationBenchmark {
+    private static final int NR_OF_LOOKUPS = 1024; // power of two
+    private static final float DELTA_TIME = 1f / 60;
+
+    @Param({"2", "16", "128"})
+    public int nrOfStates;
+
+    private StateInterpolator interpolator;
+    private float[] lookupTimes;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SceneGenerator.SEED);
+        Vector3f position = new Vector3f();
+        Quaternionf rotation = new Quaternionf();
+
+        interpolator = new StateInterpolator(createState(0, position, rotation, random), 0);
+        for (int i = 1; i < nrOfStates; i++) {
+            interpolator.add(createState(i * DELTA_TIME, position, rotation, random), i * DELTA_TIME);
+        }
+
+        float lastTime = (nrOfStates - 1) * DELTA_TIME;
+        lookupTimes = new float[NR_OF_LOOKUPS];
+        for (int i = 0; i < NR_OF_LOOKUPS; i++) {
+            lookupTimes[i] = random.nextFloat() * lastTime;
+        }
+    }
+
+    /** creates a state that continues from the given position and rotation, which are updated */
+    private static State createState(float time, Vector3f position, Quaternionf rotation, Random random) {
+        Vector3f velocity = Vectors.randomOrb(random).mul(10);
+        position.add(velocity.x * DELTA_TIME, velocity.y * DELTA_TIME, velocity.z * DELTA_TIME);
+        rotation.rotateZ(random.nextFloat() * 0.1f);
+
+        return new MutableState(time, new Vector3fx(position), velocity, new Quaternionf(rotation));
+    }
+
+    @Benchmark
+    public State getInterpolated() {
+        return interpolator.getInterpolated(lookupTimes[next++ & (NR_OF_LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public State getDerivative() {
+        return interpolator.getDerivative(lookupTimes[next++ & (NR_OF_LOOKUPS - 1)]);
+    }
+}
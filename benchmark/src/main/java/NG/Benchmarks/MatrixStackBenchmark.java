@@ -0,0 +1,97 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BlockSubGrid;
+import NG.Blocks.BlocksConstruction;
+import NG.Blocks.Types.AbstractPiece;
+import NG.Entities.Entity;
+import NG.Rendering.MatrixStack.AbstractSGL;
+import NG.Rendering.MeshLoading.Mesh;
+import NG.Rendering.Shaders.ShaderProgram;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the matrix stack operations of drawing a cube of pieces, and of collecting its shape points. The draw
+ * traversal follows {@link AbstractPiece#draw(NG.Rendering.MatrixStack.SGL, Entity, float)}, but does not render
+ * meshes, such that it does not require a window or graphics context.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MatrixStackBenchmark {
+    /** the number of pieces along each side of the cube */
+    @Param({"10"})
+    public int cubeSize;
+
+    private BlocksConstruction construction;
+    private BlockSubGrid grid;
+    private HeadlessGL gl;
+    private List<Vector3f> shapePoints;
+
+    @Setup
+    public void setup() {
+        construction = SceneGenerator.blockCube(cubeSize);
+        grid = construction.getSubgridModificator().getGrid();
+        gl = new HeadlessGL();
+        shapePoints = new ArrayList<>();
+    }
+
+    /** performs the matrix operations of drawing the grid of the construction */
+    @Benchmark
+    public float drawTraversal() {
+        gl.pushMatrix();
+        gl.translateRotate(construction.getStateAt(0));
+        gl.translate(grid.getStructurePosition());
+        gl.rotate(grid.getStructureRotation());
+
+        for (AbstractPiece piece : grid) {
+            piece.doLocal(gl, 0, () -> {
+                for (Vector3ic conn : piece.getType().getMaleConnections()) {
+                    gl.pushMatrix();
+                    gl.translate(conn.x(), conn.y(), conn.z());
+                    gl.render(null, null);
+                    gl.popMatrix();
+                }
+                gl.render(null, null);
+            });
+        }
+
+        gl.popMatrix();
+        return gl.checksum;
+    }
+
+    @Benchmark
+    public List<Vector3f> shapePoints() {
+        return construction.getShapePoints(shapePoints, 0);
+    }
+
+    /** an SGL that only reads the model matrix on every render call */
+    private static class HeadlessGL extends AbstractSGL {
+        private float checksum = 0;
+
+        @Override
+        public void render(Mesh object, Entity sourceEntity) {
+            checksum += getModelMatrix().m30();
+        }
+
+        @Override
+        public ShaderProgram getShader() {
+            return null;
+        }
+
+        @Override
+        public Matrix4fc getViewProjectionMatrix() {
+            return null;
+        }
+    }
+}
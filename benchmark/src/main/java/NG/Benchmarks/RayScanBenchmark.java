@@ -0,0 +1,101 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BlockSubGrid;
+import NG.CollisionDetection.BoundingBox;
+import NG.CollisionDetection.Collision;
+import NG.Shapes.CustomShape;
+import NG.Shapes.Shape;
+import NG.Tools.GridRayScanner;
+import org.joml.AABBf;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the intersection of rays with a sparse block grid, and with a procedural terrain split into a grid of
+ * shapes, both traversed by a {@link GridRayScanner}. The score is the time of a single ray.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RayScanBenchmark {
+    private static final int NR_OF_RAYS = 4096; // power of two
+    private static final int TERRAIN_SIZE = 128;
+    private static final float TERRAIN_HEIGHT = 20f;
+    private static final float CHUNK_SIZE = 8f;
+
+    @Param({"16", "32"})
+    public int gridSize;
+
+    private BlockSubGrid blockGrid;
+    private float[] gridRays;
+
+    private GridRayScanner terrainScanner;
+    private Shape[][][] terrainChunks;
+    private float[] terrainRays;
+
+    private final Vector3f origin = new Vector3f();
+    private final Vector3f direction = new Vector3f();
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SceneGenerator.SEED);
+
+        blockGrid = SceneGenerator.blockGrid(gridSize, 1 / 8f, random);
+        BoundingBox gridBounds = blockGrid.getStructureHitbox();
+        gridRays = SceneGenerator.rays(gridBounds, NR_OF_RAYS, random);
+
+        Map<Vector3i, CustomShape> chunks = SceneGenerator.terrain(TERRAIN_SIZE, 1f, TERRAIN_HEIGHT, SceneGenerator.SEED)
+                .splitToShapes(CHUNK_SIZE, true);
+
+        Vector3i min = new Vector3i(Integer.MAX_VALUE);
+        Vector3i max = new Vector3i(Integer.MIN_VALUE);
+        for (Vector3i coord : chunks.keySet()) {
+            min.set(Math.min(min.x, coord.x), Math.min(min.y, coord.y), Math.min(min.z, coord.z));
+            max.set(Math.max(max.x, coord.x), Math.max(max.y, coord.y), Math.max(max.z, coord.z));
+        }
+        max.add(1, 1, 1);
+
+        terrainChunks = new Shape[max.x - min.x][max.y - min.y][max.z - min.z];
+        chunks.forEach((c, shape) -> terrainChunks[c.x - min.x][c.y - min.y][c.z - min.z] = shape.toShape());
+
+        GridRayScanner.Intersectable target = (o, d, x, y, z) -> {
+            Shape shape = terrainChunks[x - min.x][y - min.y][z - min.z];
+            return shape == null ? Collision.NONE : shape.getIntersection(o, d);
+        };
+        terrainScanner = new GridRayScanner(min, max, v -> v.div(CHUNK_SIZE), target);
+
+        AABBf terrainBounds = new AABBf(
+                min.x * CHUNK_SIZE, min.y * CHUNK_SIZE, min.z * CHUNK_SIZE,
+                max.x * CHUNK_SIZE, max.y * CHUNK_SIZE, max.z * CHUNK_SIZE
+        );
+        terrainRays = SceneGenerator.rays(terrainBounds, NR_OF_RAYS, random);
+    }
+
+    private void nextRay(float[] rays) {
+        int i = 6 * (next++ & (NR_OF_RAYS - 1));
+        origin.set(rays[i], rays[i + 1], rays[i + 2]);
+        direction.set(rays[i + 3], rays[i + 4], rays[i + 5]);
+    }
+
+    @Benchmark
+    public Collision blockGrid() {
+        nextRay(gridRays);
+        return blockGrid.getIntersection(origin, direction, false);
+    }
+
+    @Benchmark
+    public Collision terrain() {
+        nextRay(terrainRays);
+        return terrainScanner.getIntersection(origin, direction, false);
+    }
+}
@@ -0,0 +1,262 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BasicBlocks;
+import NG.Blocks.BlockSubGrid;
+import NG.Blocks.BlocksConstruction;
+import NG.Blocks.Types.PieceType;
+import NG.CollisionDetection.Collision;
+import NG.Core.Game;
+import NG.Core.GameService;
+import NG.Core.Version;
+import NG.DataStructures.Generic.Color4f;
+import NG.DataStructures.Vector3fx;
+import NG.Entities.FixedState;
+import NG.Entities.MutableState;
+import NG.Entities.Projectiles.Projectile;
+import NG.InputHandling.Controllers.BoatBotController;
+import NG.Rendering.MatrixStack.SGL;
+import NG.Rendering.MeshLoading.Mesh;
+import NG.Rendering.MeshLoading.MeshFile;
+import NG.Storable;
+import NG.Tools.OpenSimplexNoise;
+import NG.Tools.Vectors;
+import org.joml.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.Math;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the scenes of the benchmarks. Every scene is determined by its parameters and a seed, such that the same
+ * scene is measured on every run and on every commit. None of the generated objects use OpenGL.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public final class SceneGenerator {
+    /** the seed of all benchmarks */
+    public static final long SEED = 1;
+
+    private SceneGenerator() {
+    }
+
+    /**
+     * creates constructions of stacked bricks, placed in a square field
+     * @param nrOfTanks  the number of constructions
+     * @param nrOfBricks the number of bricks of each construction
+     * @param fieldSize  the length of the sides of the field
+     * @param random     the source of positions and shapes
+     * @return the constructions
+     */
+    public static List<BlocksConstruction> tanks(int nrOfTanks, int nrOfBricks, float fieldSize, Random random) {
+        List<BlocksConstruction> tanks = new ArrayList<>(nrOfTanks);
+
+        for (int i = 0; i < nrOfTanks; i++) {
+            Vector3f position = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, 0).mul(fieldSize);
+            Quaternionf rotation = new Quaternionf().rotateZ(random.nextFloat() * (float) (2 * Math.PI));
+            tanks.add(tank(position, rotation, nrOfBricks, random));
+        }
+
+        return tanks;
+    }
+
+    /**
+     * creates a single construction of bricks, built layer by layer on a base of 4 by 4 studs. The construction has a
+     * controller without target.
+     * @param nrOfBricks the number of bricks
+     */
+    public static BlocksConstruction tank(Vector3fc position, Quaternionf rotation, int nrOfBricks, Random random) {
+        BlocksConstruction construction = new BlocksConstruction(new FixedState(position, rotation));
+        BlocksConstruction.GridModificator modificator = construction.getSubgridModificator();
+
+        for (int i = 0; i < nrOfBricks; i++) {
+            int x = random.nextInt(4);
+            int y = random.nextInt(4);
+            PieceType type = BasicBlocks.get(1 + random.nextInt(2), 1, 3);
+            modificator.add(type, new Vector3i(x, y, 3 * i), Color4f.WHITE);
+        }
+
+        construction.setController(new BoatBotController(construction, null));
+        return construction;
+    }
+
+    /**
+     * creates a construction of unit blocks that fill a cube
+     * @param size the number of blocks along each side
+     */
+    public static BlocksConstruction blockCube(int size) {
+        BlocksConstruction construction = new BlocksConstruction(new FixedState(new Vector3f(), new Quaternionf()));
+        BlocksConstruction.GridModificator modificator = construction.getSubgridModificator();
+        PieceType type = BasicBlocks.get(1, 1, 1);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int z = 0; z < size; z++) {
+                    modificator.add(type, new Vector3i(x, y, z), Color4f.WHITE);
+                }
+            }
+        }
+
+        return construction;
+    }
+
+    /**
+     * creates a grid with a random fraction of its cells filled with unit blocks
+     * @param size    the number of cells along each side
+     * @param density the fraction of cells that is filled
+     */
+    public static BlockSubGrid blockGrid(int size, float density, Random random) {
+        BlockSubGrid grid = new BlockSubGrid();
+        PieceType type = BasicBlocks.get(1, 1, 1);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int z = 0; z < size; z++) {
+                    if (random.nextFloat() >= density) continue;
+                    grid.add(type.getInstance(new Vector3i(x, y, z), 0, Color4f.WHITE));
+                }
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * creates projectiles flying from random points at the edge of the field towards its center
+     * @param game      the game of the projectiles, only used for rendering
+     * @param nrOfShots the number of projectiles
+     * @param fieldSize the length of the sides of the field
+     * @param speed     the speed of the projectiles
+     */
+    public static List<Projectile> projectileSwarm(Game game, int nrOfShots, float fieldSize, float speed, Random random) {
+        List<Projectile> swarm = new ArrayList<>(nrOfShots);
+
+        for (int i = 0; i < nrOfShots; i++) {
+            Vector3f position = Vectors.randomOrb(random).normalize().mul(fieldSize / 2);
+            position.z = Math.abs(position.z);
+            Vector3f velocity = new Vector3f(position).negate().normalize(speed);
+
+            MutableState state = new MutableState(0, new Vector3fx(position), velocity, new Quaternionf());
+            swarm.add(new Shell(game, state));
+        }
+
+        return swarm;
+    }
+
+    /** @return a game without any elements, for objects that require one but only use it for rendering */
+    public static Game emptyGame() {
+        return new GameService(new Version(0, 0), "benchmark", null);
+    }
+
+    /**
+     * creates a procedural terrain as a mesh of triangles, with heights of simplex noise
+     * @param size       the number of squares along each side
+     * @param squareSize the size of each square
+     * @param height     the difference between the lowest and highest point
+     * @param seed       the seed of the noise
+     */
+    public static MeshFile terrain(int size, float squareSize, float height, long seed) {
+        OpenSimplexNoise noise = new OpenSimplexNoise(seed);
+        List<Vector3fc> vertices = new ArrayList<>((size + 1) * (size + 1));
+
+        for (int x = 0; x <= size; x++) {
+            for (int y = 0; y <= size; y++) {
+                float z = (float) noise.eval(x * 0.1, y * 0.1) * height / 2;
+                vertices.add(new Vector3f(x * squareSize, y * squareSize, z));
+            }
+        }
+
+        List<Vector3fc> normals = new ArrayList<>();
+        List<Mesh.Face> faces = new ArrayList<>(2 * size * size);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int a = x * (size + 1) + y;
+                int b = a + 1;
+                int c = a + (size + 1);
+                int d = c + 1;
+
+                addTriangle(vertices, normals, faces, a, c, d);
+                addTriangle(vertices, normals, faces, a, d, b);
+            }
+        }
+
+        return new MeshFile("terrain", Collections.emptyList(), vertices, normals, faces, Collections.emptyList());
+    }
+
+    private static void addTriangle(
+            List<Vector3fc> vertices, List<Vector3fc> normals, List<Mesh.Face> faces, int a, int b, int c
+    ) {
+        Vector3fc pa = vertices.get(a);
+        Vector3f ab = new Vector3f(vertices.get(b)).sub(pa);
+        Vector3f ac = new Vector3f(vertices.get(c)).sub(pa);
+
+        normals.add(ab.cross(ac).normalize());
+        faces.add(new Mesh.Face(new int[]{a, b, c}, normals.size() - 1));
+    }
+
+    /**
+     * creates rays from outside the given bounds to random points inside it, long enough to exit on the other side.
+     * @return for each ray 6 values: origin x, y, z and direction x, y, z
+     */
+    public static float[] rays(AABBf bounds, int nrOfRays, Random random) {
+        float[] rays = new float[nrOfRays * 6];
+        Vector3f center = new Vector3f(bounds.minX + bounds.maxX, bounds.minY + bounds.maxY, bounds.minZ + bounds.maxZ)
+                .mul(0.5f);
+        float radius = new Vector3f(bounds.maxX, bounds.maxY, bounds.maxZ).distance(center) * 1.5f;
+
+        for (int i = 0; i < nrOfRays; i++) {
+            Vector3f origin = Vectors.randomOrb(random).normalize().mul(radius).add(center);
+            Vector3f target = new Vector3f(
+                    bounds.minX + random.nextFloat() * (bounds.maxX - bounds.minX),
+                    bounds.minY + random.nextFloat() * (bounds.maxY - bounds.minY),
+                    bounds.minZ + random.nextFloat() * (bounds.maxZ - bounds.minZ)
+            );
+            Vector3f direction = target.sub(origin).mul(2);
+
+            rays[i * 6] = origin.x;
+            rays[i * 6 + 1] = origin.y;
+            rays[i * 6 + 2] = origin.z;
+            rays[i * 6 + 3] = direction.x;
+            rays[i * 6 + 4] = direction.y;
+            rays[i * 6 + 5] = direction.z;
+        }
+
+        return rays;
+    }
+
+    /** a point-like projectile without a visual */
+    private static class Shell extends Projectile {
+        private static final float MASS = 1f;
+
+        Shell(Game game, MutableState spawnState) {
+            super(game, null, spawnState.time(), spawnState);
+        }
+
+        @Override
+        protected void drawProjectile(SGL gl, float renderTime) {
+        }
+
+        @Override
+        public float getMass() {
+            return MASS;
+        }
+
+        @Override
+        protected Vector3fx getCenterOfMass() {
+            return new Vector3fx(state.position());
+        }
+
+        @Override
+        public Collision getIntersection(Vector3fc origin, Vector3fc direction) {
+            return Collision.NONE;
+        }
+
+        @Override
+        public void writeToDataStream(DataOutputStream out) throws IOException {
+            Storable.write(out, state);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BlocksConstruction;
+import NG.Rendering.MeshLoading.MeshFile;
+import NG.Shapes.CustomShape;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the computation of the collision points of a construction, as done for every moving entity in every tick,
+ * and the splitting of a procedural terrain mesh into chunks, as done when loading a map.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+    private static final float CHUNK_SIZE = 8f;
+
+    @Param({"8", "64"})
+    public int nrOfBricks;
+
+    @Param({"64"})
+    public int terrainSize;
+
+    private BlocksConstruction tank;
+    private List<Vector3f> shapePoints;
+    private MeshFile terrain;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SceneGenerator.SEED);
+        tank = SceneGenerator.tank(new Vector3f(), new Quaternionf(), nrOfBricks, random);
+        shapePoints = new ArrayList<>();
+        terrain = SceneGenerator.terrain(terrainSize, 1f, 10f, SceneGenerator.SEED);
+    }
+
+    @Benchmark
+    public List<Vector3f> shapePoints() {
+        return tank.getShapePoints(shapePoints, 0);
+    }
+
+    @Benchmark
+    public HashMap<Vector3i, CustomShape> splitToShapes() {
+        return terrain.splitToShapes(CHUNK_SIZE, true);
+    }
+}
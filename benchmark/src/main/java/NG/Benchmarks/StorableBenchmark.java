@@ -0,0 +1,198 @@
+package NG.Benchmarks;
+
+import NG.Blocks.BasicBlocks;
+import NG.Blocks.BlocksConstruction;
+import NG.BufferReader;
+import NG.BufferWriter;
+import NG.DataStructures.Vector3fx;
+import NG.Entities.MutableState;
+import NG.Rendering.MeshLoading.MeshFile;
+import NG.Storable;
+import NG.StorableInputStream;
+import NG.StorableOutputStream;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing an object with {@link Storable#write(DataOutputStream, Storable)} and reading it back with {@link
+ * Storable#read(DataInputStream, Class)}, for a small object and for a construction of bricks. With {@code
+ * typeTable}, the {@link StorableOutputStream} and {@link StorableInputStream} of the codec registry are used instead of
+ * plain data streams.
+ * <p>
+ * The throughput of writing and reading a large {@link MeshFile} to and from a file is measured with data streams on
+ * file streams, with a {@link BufferWriter} and {@link BufferReader} on a file channel, and with a memory-mapped {@link
+ * BufferReader}. The number of bytes of each operation is counted, such that JMH reports the bytes per microsecond,
+ * which equals MB/s.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StorableBenchmark {
+    @State(Scope.Thread)
+    public static class RoundTrip {
+        @Param({"8", "64"})
+        public int nrOfBricks;
+
+        @Param({"false", "true"})
+        public boolean typeTable;
+
+        private MutableState state;
+        private BlocksConstruction tank;
+        private ByteArrayOutputStream buffer;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(SceneGenerator.SEED);
+            new BasicBlocks(); // registers the piece types for reading
+
+            state = new MutableState(1f, new Vector3fx(1, 2, 3), new Vector3f(4, 5, 6), new Quaternionf().rotateZ(1));
+            tank = SceneGenerator.tank(new Vector3f(), new Quaternionf(), nrOfBricks, random);
+            buffer = new ByteArrayOutputStream();
+        }
+
+        private <T extends Storable> T roundTrip(T object, Class<T> type) throws IOException, ClassNotFoundException {
+            buffer.reset();
+            DataOutputStream out = typeTable ? new StorableOutputStream(buffer) : new DataOutputStream(buffer);
+            Storable.write(out, object);
+            out.flush();
+
+            InputStream bytes = new ByteArrayInputStream(buffer.toByteArray());
+            DataInputStream in = typeTable ? new StorableInputStream(bytes) : new DataInputStream(bytes);
+            return Storable.read(in, type);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MeshIO {
+        @Param({"256"})
+        public int terrainSize;
+
+        /**
+         * stream: data streams on buffered file streams. channel: a buffer writer and reader on a file channel. mapped:
+         * reading a memory-mapped file, and writing a direct buffer to the file at once.
+         */
+        @Param({"stream", "channel", "mapped"})
+        public String io;
+
+        private MeshFile mesh;
+        private Path file;
+        private long fileSize;
+
+        @Setup
+        public void setup() throws IOException {
+            mesh = SceneGenerator.terrain(terrainSize, 1f, 10f, SceneGenerator.SEED);
+            file = Files.createTempFile("mesh", ".mesbi");
+
+            try (DataOutputStream out = new StorableOutputStream(BufferWriter.toFile(file))) {
+                mesh.writeToDataStream(out);
+            }
+            fileSize = Files.size(file);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        private void write() throws IOException {
+            switch (io) {
+                case "stream":
+                    OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(file.toFile()));
+                    try (DataOutputStream out = new DataOutputStream(fileOut)) {
+                        mesh.writeToDataStream(out);
+                    }
+                    break;
+
+                case "channel":
+                    try (DataOutputStream out = new StorableOutputStream(BufferWriter.toFile(file))) {
+                        mesh.writeToDataStream(out);
+                    }
+                    break;
+
+                case "mapped":
+                    BufferWriter writer = BufferWriter.direct((int) fileSize);
+                    mesh.writeToDataStream(new StorableOutputStream(writer));
+                    StandardOpenOption[] options = {StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+                    try (FileChannel channel = FileChannel.open(file, options)) {
+                        channel.write(writer.toBuffer());
+                    }
+                    break;
+
+                default:
+                    throw new IllegalArgumentException(io);
+            }
+        }
+
+        private MeshFile read() throws IOException {
+            switch (io) {
+                case "stream":
+                    InputStream fileIn = new BufferedInputStream(new FileInputStream(file.toFile()));
+                    try (DataInputStream in = new DataInputStream(fileIn)) {
+                        return new MeshFile(in);
+                    }
+
+                case "channel":
+                    try (DataInputStream in = new StorableInputStream(BufferReader.open(file))) {
+                        return new MeshFile(in);
+                    }
+
+                case "mapped":
+                    try (DataInputStream in = new StorableInputStream(BufferReader.map(file))) {
+                        return new MeshFile(in);
+                    }
+
+                default:
+                    throw new IllegalArgumentException(io);
+            }
+        }
+    }
+
+    /** counts the bytes written or read, which JMH reports per unit of time */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ByteCounter {
+        public long bytesPerOp;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerOp = 0;
+        }
+    }
+
+    @Benchmark
+    public MutableState roundTripState(RoundTrip roundTrip) throws IOException, ClassNotFoundException {
+        return roundTrip.roundTrip(roundTrip.state, MutableState.class);
+    }
+
+    @Benchmark
+    public BlocksConstruction roundTripConstruction(RoundTrip roundTrip) throws IOException, ClassNotFoundException {
+        return roundTrip.roundTrip(roundTrip.tank, BlocksConstruction.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void writeMesh(MeshIO meshIO, ByteCounter counter) throws IOException {
+        meshIO.write();
+        counter.bytesPerOp += meshIO.fileSize;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public MeshFile readMesh(MeshIO meshIO, ByteCounter counter) throws IOException {
+        MeshFile result = meshIO.read();
+        counter.bytesPerOp += meshIO.fileSize;
+        return result;
+    }
+}
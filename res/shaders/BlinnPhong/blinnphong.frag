@@ -30,6 +30,7 @@ struct DirectionalLight
     vec3 direction;
     float intensity;
     mat4 lightSpaceMatrix;
+    mat4 staticLightSpaceMatrix; // sampled with repeating coordinates
     // Shadow Maps
     bool shadowEnable;
 };
@@ -143,7 +144,7 @@ vec3 calcDirectionalLightComponents(DirectionalLight light) {
         vec3 component = vec3(0.0, 0.0, 0.0);
 
         float staticShadow = 1.0, dynamicShadow = 1.0;
-        staticShadow = calcShadow2D(light.lightSpaceMatrix, gVertexPosition, gVertexNormal, staticShadowMap);
+        staticShadow = calcShadow2D(light.staticLightSpaceMatrix, gVertexPosition, gVertexNormal, staticShadowMap);
         dynamicShadow = calcShadow2D(light.lightSpaceMatrix, gVertexPosition, gVertexNormal, dynamicShadowMap);
 
         if (staticShadow > 0 && dynamicShadow > 0) {
@@ -11,6 +11,7 @@ import NG.Entities.Entity;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Tools.GridRayScanner;
 import NG.Tools.Logger;
+import NG.Tools.Vectors;
 import org.joml.*;
 
 import java.lang.Math;
@@ -26,6 +27,12 @@ public class BlockSubGrid extends AbstractCollection<AbstractPiece> {
     private static final float TAU = (float) Math.PI * 2;
     protected BucketGrid3i<AbstractPiece> blocks;
     protected AABBi bounds;
+    /** scanner over the current bounds, or null if the bounds changed */
+    private GridRayScanner rayScanner = null;
+    /** ray queries are executed in parallel by the collision detection, hence one context per thread */
+    private static final ThreadLocal<BlockIntersections> rayContexts = ThreadLocal.withInitial(BlockIntersections::new);
+    /** the number of grid indices assigned to pieces */
+    private int nrOfIndices = 0;
     protected float totalMass = 0;
     private Vector3f centerOfMass = new Vector3f();
 
@@ -59,6 +66,8 @@ public class BlockSubGrid extends AbstractCollection<AbstractPiece> {
         AABBi hitBox = block.getHitBox();
 
         this.bounds.union(hitBox);
+        rayScanner = null;
+        block.setGridIndex(nrOfIndices++);
 
         Vector3f blockCOM = new Vector3f(hitBox.getMinimum())
                 .lerp(new Vector3f(hitBox.getMaximum()), 0.5f)
@@ -255,11 +264,33 @@ public class BlockSubGrid extends AbstractCollection<AbstractPiece> {
         dest.union(point3D);
     }
 
-    public GridRayScanner getRayScanner() {
-        return new GridRayScanner(
-                bounds.getMinimum(), bounds.getMaximum(),
-                v -> v, new BlockIntersections()
-        );
+    /**
+     * calculates the first intersection of the given ray with the blocks of this grid.
+     * @param origin     the origin of the ray in grid space
+     * @param direction  the direction of the ray in grid space
+     * @param isInfinite if false, only the line piece of origin to (origin + direction) is considered.
+     * @return the resulting collision, or {@link Collision#NONE} if no collision occurs
+     */
+    public Collision getIntersection(Vector3fc origin, Vector3fc direction, boolean isInfinite) {
+        if (!Vectors.isScalable(direction)) return Collision.NONE;
+        return rayContexts.get().query(this, origin, direction, isInfinite);
+    }
+
+    private GridRayScanner getRayScanner() {
+        GridRayScanner scanner = rayScanner;
+        if (scanner == null) {
+            scanner = new GridRayScanner(
+                    bounds.getMinimum(), bounds.getMaximum().add(1, 1, 1),
+                    BlockSubGrid::toCoordinate, null
+            );
+            rayScanner = scanner;
+        }
+        return scanner;
+    }
+
+    /** maps a point in grid space to exact block coordinates, where block (x, y, z) spans [x, x + 1) etc. */
+    private static Vector3f toCoordinate(Vector3f gridPosition) {
+        return gridPosition.div(BLOCK_SIZE).add(0.5f, 0.5f, 0);
     }
 
     @Override
@@ -285,6 +316,8 @@ public class BlockSubGrid extends AbstractCollection<AbstractPiece> {
         blocks = new BucketGrid3i<>(BUCKET_SIZE);
         totalMass = 0;
         bounds = new AABBi();
+        rayScanner = null;
+        nrOfIndices = 0;
     }
 
     @Override
@@ -302,20 +335,72 @@ public class BlockSubGrid extends AbstractCollection<AbstractPiece> {
         return rootPos.add(offset);
     }
 
-    protected class BlockIntersections implements GridRayScanner.Intersectable {
-        Set<AbstractPiece> seen = new HashSet<>();
-        private Vector3f blockLocalOrigin = new Vector3f();
+    /**
+     * A reusable ray query on a grid. Pieces that cover multiple cells are only tested once per ray, by marking them
+     * with the number of the current ray instead of collecting them in a set. Consecutive rays with the same direction
+     * share the mapping of that direction to block coordinates. The grid is only referenced during a query, such that
+     * a context does not keep grids alive. Each instance may only be used by one thread at a time.
+     */
+    private static final class BlockIntersections implements GridRayScanner.Intersectable {
+        /** the grid of the current query */
+        private BlockSubGrid grid;
+        private int[] visited = new int[0];
+        private int epoch = 0;
+        private final Vector3f blockLocalOrigin = new Vector3f();
+
+        private float lastX = Float.NaN;
+        private float lastY = Float.NaN;
+        private float lastZ = Float.NaN;
+        private float coordDirX;
+        private float coordDirY;
+        private float coordDirZ;
+
+        Collision query(BlockSubGrid grid, Vector3fc origin, Vector3fc direction, boolean isInfinite) {
+            if (direction.x() != lastX || direction.y() != lastY || direction.z() != lastZ) {
+                lastX = direction.x();
+                lastY = direction.y();
+                lastZ = direction.z();
+                coordDirX = lastX / BLOCK_BASE;
+                coordDirY = lastY / BLOCK_BASE;
+                coordDirZ = lastZ / BLOCK_HEIGHT;
+            }
+
+            if (visited.length < grid.nrOfIndices) {
+                visited = Arrays.copyOf(visited, Math.max(grid.nrOfIndices, visited.length * 2));
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                epoch = 1;
+            }
+
+            this.grid = grid;
+            try {
+                // the scanner rejects rays that miss the bounds of the grid before visiting any cell
+                return grid.getRayScanner().getIntersection(
+                        origin, direction,
+                        origin.x() / BLOCK_BASE + 0.5f, origin.y() / BLOCK_BASE + 0.5f, origin.z() / BLOCK_HEIGHT,
+                        coordDirX, coordDirY, coordDirZ,
+                        isInfinite, this
+                );
+
+            } finally {
+                this.grid = null;
+            }
+        }
 
         @Override
         public Collision getIntersection(Vector3fc origin, Vector3fc direction, int xCoord, int yCoord, int zCoord) {
-            AbstractPiece target = blocks.get(xCoord, yCoord, zCoord);
-            if (seen.contains(target)) return Collision.NONE;
-            seen.add(target);
+            AbstractPiece target = grid.blocks.get(xCoord, yCoord, zCoord);
+            if (target == null) return Collision.NONE;
+
+            int index = target.getGridIndex();
+            if (visited[index] == epoch) return Collision.NONE;
+            visited[index] = epoch;
 
             Vector3ic position = target.getPosition();
             blockLocalOrigin.set(position)
                     .mul(BLOCK_BASE, BLOCK_BASE, BLOCK_HEIGHT);
-            blockLocalOrigin = origin.sub(blockLocalOrigin, blockLocalOrigin);
+            origin.sub(blockLocalOrigin, blockLocalOrigin);
 
             return target.getIntersection(blockLocalOrigin, direction);
         }
@@ -1,8 +1,11 @@
 package NG.Blocks;
 
 import NG.Blocks.Types.AbstractPiece;
+import NG.Blocks.Types.BlockPiece;
 import NG.Blocks.Types.JointPiece;
 import NG.Blocks.Types.PieceType;
+import NG.Blocks.Types.PropellerPiece;
+import NG.BufferWriter;
 import NG.CollisionDetection.BoundingBox;
 import NG.CollisionDetection.Collision;
 import NG.DataStructures.Generic.Color4f;
@@ -14,22 +17,28 @@ import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.MatrixStack.ShadowMatrix;
 import NG.Settings.Settings;
 import NG.Storable;
+import NG.StorableOutputStream;
 import NG.Tools.BuoyancyComputation;
 import NG.Tools.Logger;
 import NG.Tools.Vectors;
 import org.joml.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.Math;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static NG.Blocks.BasicBlocks.BLOCK_WEIGHT;
-import static NG.Blocks.BlocksConstruction._ClassVersion.INITIAL;
+import static NG.Blocks.BlocksConstruction._ClassVersion.PIECE_TABLE;
 import static NG.Blocks.Types.AbstractPiece.BLOCK_VOLUME;
 
 /**
@@ -40,6 +49,16 @@ public class BlocksConstruction extends MovingEntity {
     private static final float WATER_RESIST_FACTOR = 10f;
     private static final float AIR_RESIST_FACTOR = 2f;
     private static final float STEERING_GYRO_FORCE = 100f;
+    /** shape points are queried in parallel by the collision detection, hence one matrix stack per thread */
+    private static final ThreadLocal<ShadowMatrix> SHAPE_MATRICES = ThreadLocal.withInitial(ShadowMatrix::new);
+    private static final int PIECE_BUFFER_CAPACITY = 1 << 12;
+    private static final Map<String, PieceReader> pieceReaders = new ConcurrentHashMap<>();
+
+    static {
+        registerPiece(BlockPiece.class, BlockPiece::new);
+        registerPiece(JointPiece.class, JointPiece::new);
+        registerPiece(PropellerPiece.class, PropellerPiece::new);
+    }
 
     private final boolean doPerBlockBuoyancy = false;
     private final boolean doRotation = false;
@@ -228,14 +247,15 @@ public class BlocksConstruction extends MovingEntity {
     @Override
     public Collision getIntersection(Vector3fc origin, Vector3fc direction) {
         Collision intersection = Collision.NONE;
+        Vector3f localOrg = new Vector3f();
+        Vector3f localDir = new Vector3f();
 
         for (BlockSubGrid subgrid : subgrids) {
             Quaternionf rotationInv = subgrid.getStructureRotation().invert();
-            Vector3fc localOrg = new Vector3f(origin).rotate(rotationInv);
-            Vector3fc localDir = new Vector3f(direction).rotate(rotationInv);
+            origin.rotate(rotationInv, localOrg);
+            direction.rotate(rotationInv, localDir);
 
-            Collision next = subgrid.getRayScanner()
-                    .getIntersection(localOrg, localDir, false);
+            Collision next = subgrid.getIntersection(localOrg, localDir, false);
 
             if (next.isEarlierThan(intersection)) {
                 intersection = next;
@@ -245,6 +265,42 @@ public class BlocksConstruction extends MovingEntity {
         return intersection;
     }
 
+    @Override
+    public Collision getIntersection(List<? extends Vector3fc> origins, List<? extends Vector3fc> ends) {
+        Collision intersection = Collision.NONE;
+        int nrOfLines = origins.size();
+        Vector3f localOrg = new Vector3f();
+        Vector3f localDir = new Vector3f();
+        Vector3f direction = new Vector3f();
+        Vector3f prevDirection = new Vector3f();
+
+        for (BlockSubGrid subgrid : subgrids) {
+            // the rotation of the subgrid is computed once for all lines
+            Quaternionf rotationInv = subgrid.getStructureRotation().invert();
+            prevDirection.set(Float.NaN);
+
+            for (int i = 0; i < nrOfLines; i++) {
+                Vector3fc origin = origins.get(i);
+                ends.get(i).sub(origin, direction);
+
+                // when all points move the same way, the direction is only rotated once
+                if (!direction.equals(prevDirection)) {
+                    prevDirection.set(direction);
+                    direction.rotate(rotationInv, localDir);
+                }
+                origin.rotate(rotationInv, localOrg);
+
+                Collision next = subgrid.getIntersection(localOrg, localDir, false);
+
+                if (next.isEarlierThan(intersection)) {
+                    intersection = next;
+                }
+            }
+        }
+
+        return intersection;
+    }
+
     public GridModificator getSubgridModificator() {
         assert !subgrids.isEmpty();
         return new GridModificator();
@@ -252,7 +308,8 @@ public class BlocksConstruction extends MovingEntity {
 
     @Override
     public List<Vector3f> getShapePoints(List<Vector3f> dest, float gameTime) {
-        ShadowMatrix sm = new ShadowMatrix();
+        ShadowMatrix sm = SHAPE_MATRICES.get();
+        sm.reset();
         int i = 0;
 
         for (BlockSubGrid grid : subgrids) {
@@ -295,20 +352,22 @@ public class BlocksConstruction extends MovingEntity {
     @Override
     public void writeToDataStream(DataOutputStream out) throws IOException {
         Storable.write(out, state);
-        Storable.writeEnum(out, INITIAL);
+        Storable.writeEnum(out, PIECE_TABLE);
 
         HashMap<PieceType, Integer> types = new HashMap<>();
+        HashMap<Class<?>, Integer> pieceClasses = new HashMap<>();
 
         // write the construction to buffer, while collecting type information
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        DataOutputStream bufferOut = new DataOutputStream(buffer);
+        BufferWriter buffer = BufferWriter.heap(PIECE_BUFFER_CAPACITY);
+        DataOutputStream bufferOut = new StorableOutputStream(buffer);
         bufferOut.writeInt(subgrids.size());
         for (BlockSubGrid s : subgrids) {
             Storable.writeQuaternionf(bufferOut, s.getStructureRotation());
 
             bufferOut.writeInt(s.blocks.size());
             for (AbstractPiece piece : s.blocks) {
-                Storable.writeClass(bufferOut, piece.getClass());
+                Integer classID = pieceClasses.computeIfAbsent(piece.getClass(), c -> pieceClasses.size());
+                bufferOut.writeShort(classID);
                 piece.writeToDataStream(bufferOut, types);
             }
         }
@@ -323,8 +382,17 @@ public class BlocksConstruction extends MovingEntity {
             out.writeUTF(type.name);
         }
 
-        // now write construction to out
-        buffer.writeTo(out);
+        Class<?>[] sortedClasses = new Class<?>[pieceClasses.size()];
+        pieceClasses.forEach((c, i) -> sortedClasses[i] = c);
+
+        out.writeInt(sortedClasses.length);
+        for (Class<?> pieceClass : sortedClasses) {
+            out.writeUTF(pieceClass.getName());
+        }
+
+        // now write construction to out, in a single transfer
+        ByteBuffer pieces = buffer.toBuffer();
+        out.write(pieces.array(), pieces.arrayOffset(), pieces.remaining());
     }
 
     public BlocksConstruction(DataInputStream in) throws IOException, ClassNotFoundException {
@@ -336,6 +404,7 @@ public class BlocksConstruction extends MovingEntity {
 
         switch (version) {
             case INITIAL:
+            case PIECE_TABLE:
                 for (int i = 0; i < nrOfTypes; i++) {
                     String manufacturer = in.readUTF();
                     String pieceName = in.readUTF();
@@ -360,6 +429,15 @@ public class BlocksConstruction extends MovingEntity {
                 throw new IOException("Entity version " + version);
         }
 
+        PieceReader[] classMap = null;
+        if (version == PIECE_TABLE) {
+            int nrOfClasses = in.readInt();
+            classMap = new PieceReader[nrOfClasses];
+            for (int i = 0; i < nrOfClasses; i++) {
+                classMap[i] = getPieceReader(in.readUTF());
+            }
+        }
+
         int nrOfGrids = in.readInt();
         subgrids = new ArrayList<>(nrOfGrids);
 
@@ -370,16 +448,9 @@ public class BlocksConstruction extends MovingEntity {
             int nrOfBlocks = in.readInt();
             for (int j = 0; j < nrOfBlocks; j++) {
 
-                AbstractPiece piece;
-                try {
-                    // not the most beautiful, but robust enough
-                    piece = Storable.readClass(in, AbstractPiece.class)
-                            .getConstructor(DataInputStream.class, PieceType[].class)
-                            .newInstance(in, typeMap);
-
-                } catch (ReflectiveOperationException ex) {
-                    throw new IOException(ex);
-                }
+                // INITIAL writes the class name of every piece
+                PieceReader reader = (classMap != null) ? classMap[in.readUnsignedShort()] : getPieceReader(in.readUTF());
+                AbstractPiece piece = reader.read(in, typeMap);
 
                 if (piece instanceof ForceGeneratingBlock) {
                     forceBlocks.add(new ForceBlock(piece, grid));
@@ -455,8 +526,61 @@ public class BlocksConstruction extends MovingEntity {
         }
     }
 
+    /**
+     * registers the reader of a type of piece, such that it can be read without reflection. Pieces that are not
+     * registered are read with their constructor that accepts a {@link DataInputStream} and a {@code PieceType[]}.
+     * @param type   the class of the piece
+     * @param reader a function that reads the piece, as written by {@link AbstractPiece#writeToDataStream(DataOutputStream,
+     *               Map)}
+     */
+    public static void registerPiece(Class<? extends AbstractPiece> type, PieceReader reader) {
+        pieceReaders.put(type.getName(), reader);
+    }
+
+    private static PieceReader getPieceReader(String className) throws IOException, ClassNotFoundException {
+        PieceReader reader = pieceReaders.get(className);
+        if (reader != null) return reader;
+
+        Class<?> foundClass = Class.forName(className);
+        if (!AbstractPiece.class.isAssignableFrom(foundClass)) {
+            throw new ClassCastException("Found " + foundClass + " which does not extend " + AbstractPiece.class);
+        }
+
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup()
+                    .findConstructor(foundClass, MethodType.methodType(void.class, DataInputStream.class, PieceType[].class));
+
+        } catch (ReflectiveOperationException ex) {
+            throw new IOException(ex);
+        }
+
+        reader = (in, typeMap) -> {
+            try {
+                return (AbstractPiece) constructor.invoke(in, typeMap);
+
+            } catch (IOException | RuntimeException | Error ex) {
+                throw ex;
+
+            } catch (Throwable ex) {
+                throw new IOException(ex);
+            }
+        };
+
+        pieceReaders.put(className, reader);
+        return reader;
+    }
+
+    /** reads a piece of a construction from a stream */
+    @FunctionalInterface
+    public interface PieceReader {
+        AbstractPiece read(DataInputStream in, PieceType[] typeMap) throws IOException;
+    }
+
     enum _ClassVersion {
         INITIAL,
+        /** piece classes are written once, and referred to by index */
+        PIECE_TABLE,
     }
 
     private static class ForceBlock {
@@ -4,6 +4,7 @@ import NG.Blocks.Types.PieceType;
 import NG.Blocks.Types.PieceTypeJoint;
 import NG.Blocks.Types.PieceTypePropeller;
 import NG.DataStructures.Generic.Pair;
+import NG.Rendering.MeshLoading.MeshCache;
 import NG.Rendering.MeshLoading.MeshFile;
 import NG.Shapes.Shape;
 import NG.Tools.Directory;
@@ -49,7 +50,7 @@ public class FilePieceTypeCollection implements PieceTypeCollection {
             MeshFile mesh;
             if (meshNode != null) {
                 String meshFile = meshNode.textValue();
-                mesh = MeshFile.loadFile(path.resolve(meshFile),
+                mesh = MeshCache.loadFile(path.resolve(meshFile),
                         new Vector3f(-BLOCK_BASE / 2, -BLOCK_BASE / 2, 0),
                         new Vector3f(SCALE, SCALE, SCALE)
                 );
@@ -65,10 +66,10 @@ public class FilePieceTypeCollection implements PieceTypeCollection {
             Shape shape;
             if (shapeNode != null) {
                 String shapeFile = shapeNode.textValue();
-                shape = MeshFile.loadFile(path.resolve(shapeFile),
+                shape = MeshCache.loadShape(path.resolve(shapeFile),
                         new Vector3f(-BLOCK_BASE / 2, -BLOCK_BASE / 2, 0),
                         new Vector3f(SCALE, SCALE, SCALE)
-                ).getShape();
+                );
 
                 if (size == null) {
                     AABBf bb = shape.getBoundingBox();
@@ -167,7 +168,7 @@ public class FilePieceTypeCollection implements PieceTypeCollection {
             MeshFile propMesh;
             if (propMeshNode != null) {
                 String meshFile = propMeshNode.textValue();
-                propMesh = MeshFile.loadFile(path.resolve(meshFile),
+                propMesh = MeshCache.loadFile(path.resolve(meshFile),
                         Vectors.O,
                         new Vector3f(SCALE, SCALE, SCALE)
                 );
@@ -9,12 +9,11 @@ import NG.Rendering.Material;
 import NG.Rendering.MatrixStack.MatrixStack;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.MeshLoading.Mesh;
-import NG.Rendering.MeshLoading.MeshFile;
-import NG.Rendering.Shaders.MaterialShader;
-import NG.Rendering.Shaders.ShaderProgram;
+import NG.Rendering.MeshLoading.MeshCache;
 import NG.Shapes.Shape;
 import NG.Storable;
 import NG.Tools.Directory;
+import NG.Tools.Vectors;
 import org.joml.*;
 
 import java.io.DataInputStream;
@@ -40,12 +39,13 @@ public abstract class AbstractPiece {
     /** volume of a scaled 1x1x1 block, in m^3 */
     public static final float BLOCK_VOLUME = BLOCK_BASE * BLOCK_BASE * BLOCK_HEIGHT;
 
-    private static final MeshFile STUD = MeshFile.loadFileRequired(Directory.meshes.getPath("stud.ply"));
     protected final Vector3i position;
     private AABBi hitbox = null;
     private static Mesh STUD_MESH = null;
     public Color4f color;
     protected byte rotation;
+    /** index of this piece in the grid that contains it, or -1 */
+    private int gridIndex = -1;
 
     AbstractPiece(Vector3ic position, int zRotation, Color4f color) {
         this.position = new Vector3i(position);
@@ -59,15 +59,12 @@ public abstract class AbstractPiece {
     public void draw(SGL gl, Entity entity, float renderTime) {
         if (color.alpha == 0) return;
 
-        ShaderProgram shader = gl.getShader();
-        if (shader instanceof MaterialShader) {
-            ((MaterialShader) shader).setMaterial(Material.PLASTIC, color);
-        }
+        gl.setMaterial(Material.PLASTIC, color);
 
         doLocal(gl, renderTime, () -> {
             // first render studs to preserve color (regarding sub-grids)
             if (RENDER_STUDS) {
-                if (STUD_MESH == null) STUD_MESH = STUD.getMesh();
+                if (STUD_MESH == null) STUD_MESH = loadStudMesh();
 
                 gl.translate(-BLOCK_BASE / 2, -BLOCK_BASE / 2, 0);
                 for (Vector3ic conn : getType().getMaleConnections()) {
@@ -83,6 +80,12 @@ public abstract class AbstractPiece {
         });
     }
 
+    /** loads the stud mesh on first use, instead of when this class is loaded */
+    private static Mesh loadStudMesh() {
+        return MeshCache.loadFileRequired(Directory.meshes.getPath("stud.ply"), Vectors.O, Vectors.Scaling.UNIFORM)
+                .getMesh();
+    }
+
     public void doLocal(MatrixStack gl, float renderTime, Runnable action) {
         gl.pushMatrix();
         {
@@ -239,6 +242,17 @@ public abstract class AbstractPiece {
         return position;
     }
 
+    /**
+     * @return the index assigned to this piece by the grid that contains it, or -1 if this piece is not in a grid
+     */
+    public int getGridIndex() {
+        return gridIndex;
+    }
+
+    public void setGridIndex(int gridIndex) {
+        this.gridIndex = gridIndex;
+    }
+
     public byte getRotationByte() {
         return rotation;
     }
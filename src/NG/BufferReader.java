@@ -0,0 +1,240 @@
+package NG;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads data from a {@link ByteBuffer}, as written by a {@link BufferWriter} or a {@link java.io.DataOutputStream}. The
+ * buffer either holds all data, for example a memory-mapped file, or is refilled from a channel when it runs empty.
+ * Arrays of floats and ints are copied in bulk, instead of one value at a time.
+ * <p>
+ * As this is an input stream, a {@link StorableInputStream} can be put on top of it. {@link
+ * Storable#readFloats(java.io.DataInputStream, float[], int, int)} and {@link Storable#readInts(java.io.DataInputStream,
+ * int[], int, int)} then read directly from the buffer of this reader.
+ * <p>
+ * This class is not thread-safe.
+ * @author Geert van Ieperen created on 19-10-2026.
+ * @see BufferWriter
+ */
+public class BufferReader extends InputStream {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final ByteBuffer buffer;
+    /** null if the buffer holds all data */
+    private final ReadableByteChannel channel;
+    private final boolean ownsChannel;
+
+    private BufferReader(ByteBuffer buffer, ReadableByteChannel channel, boolean ownsChannel) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+    }
+
+    /**
+     * reads the remaining bytes of the given buffer. The buffer is not copied, and its position is not changed.
+     */
+    public BufferReader(ByteBuffer data) {
+        this(data.slice(), null, false);
+    }
+
+    /**
+     * @param channel    the channel to read from. It is not closed when this reader is closed.
+     * @param bufferSize the number of bytes read from the channel at once
+     * @return a reader of the given channel
+     */
+    public static BufferReader fromChannel(ReadableByteChannel channel, int bufferSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+        buffer.flip();
+        return new BufferReader(buffer, channel, false);
+    }
+
+    /** @return a reader that reads the given file through a buffer. Closing the reader closes the file. */
+    public static BufferReader open(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_CAPACITY);
+        buffer.flip();
+        return new BufferReader(buffer, FileChannel.open(file, StandardOpenOption.READ), true);
+    }
+
+    /**
+     * memory-maps the given file. The file is not copied to the heap, and reading large arrays costs little more than a
+     * memory copy. The mapping may hold a lock on the file until it is garbage collected; files that are overwritten
+     * while the game runs should be read with {@link #open(Path)} instead.
+     * @return a reader of the complete file
+     */
+    public static BufferReader map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) throw new IOException("File is too large to map: " + fileSize + " bytes");
+
+            // the mapping remains valid after closing the channel
+            return new BufferReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize), null, false);
+        }
+    }
+
+    /**
+     * makes sure the buffer has at least the given number of bytes remaining, as far as the data allows
+     * @return false if the data ends before the given number of bytes
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return true;
+        if (channel == null) return false;
+
+        buffer.compact();
+        boolean isFilled;
+        try {
+            while (buffer.position() < bytes && buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            isFilled = buffer.position() >= bytes;
+
+        } finally {
+            buffer.flip();
+        }
+        return isFilled;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes)) throw new EOFException();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return fill(Byte.BYTES) ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!fill(1)) return -1;
+
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill(1)) {
+            int step = (int) Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    /** the mark remains valid as long as at most {@code readlimit} bytes are read */
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        try {
+            fill(readlimit);
+        } catch (IOException ignored) {
+            // the mark is invalidated when more data is read
+        }
+        buffer.mark();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        try {
+            buffer.reset();
+        } catch (InvalidMarkException ex) {
+            throw new IOException("Mark is not valid", ex);
+        }
+    }
+
+    public int getInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public float getFloat() throws IOException {
+        require(Float.BYTES);
+        return buffer.getFloat();
+    }
+
+    /**
+     * reads floats in bulk into the given range of the array
+     * @see BufferWriter#putFloats(float[], int, int)
+     */
+    public void getFloats(float[] dest, int offset, int length) throws IOException {
+        while (length > 0) {
+            require(Float.BYTES);
+            int n = Math.min(length, buffer.remaining() / Float.BYTES);
+            buffer.asFloatBuffer().get(dest, offset, n);
+            buffer.position(buffer.position() + n * Float.BYTES);
+
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * reads ints in bulk into the given range of the array
+     * @see BufferWriter#putInts(int[], int, int)
+     */
+    public void getInts(int[] dest, int offset, int length) throws IOException {
+        while (length > 0) {
+            require(Integer.BYTES);
+            int n = Math.min(length, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().get(dest, offset, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * reads the given number of bytes. If this reader holds all data, the result is a view on the data of this reader,
+     * otherwise the bytes are copied to a new buffer.
+     * @return a buffer with the next {@code length} bytes between position and limit
+     */
+    public ByteBuffer getSlice(int length) throws IOException {
+        if (channel == null) {
+            require(length);
+            ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            buffer.position(buffer.position() + length);
+            return slice;
+        }
+
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        while (copy.hasRemaining()) {
+            require(1);
+            int n = Math.min(copy.remaining(), buffer.remaining());
+            ByteBuffer part = buffer.duplicate();
+            part.limit(part.position() + n);
+            copy.put(part);
+            buffer.position(buffer.position() + n);
+        }
+        return copy.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel) channel.close();
+    }
+}
@@ -0,0 +1,203 @@
+package NG;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes data to a {@link ByteBuffer}, in the same byte order as a {@link java.io.DataOutputStream}. The buffer either
+ * grows to hold all data, or is drained into a channel when it is full. Arrays of floats and ints are copied in bulk,
+ * instead of one value at a time.
+ * <p>
+ * As this is an output stream, a {@link StorableOutputStream} can be put on top of it. {@link
+ * Storable#writeFloats(java.io.DataOutputStream, float[], int, int)} and {@link Storable#writeInts(java.io.DataOutputStream,
+ * int[], int, int)} then write directly to the buffer of this writer.
+ * <p>
+ * This class is not thread-safe.
+ * @author Geert van Ieperen created on 19-10-2026.
+ * @see BufferReader
+ */
+public class BufferWriter extends OutputStream {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    /** arrays smaller than this are written to other streams value by value */
+    static final int BULK_THRESHOLD = 16;
+    /** the number of values that are converted at once when writing arrays to other streams */
+    static final int BULK_BLOCK_SIZE = 2048;
+
+    private ByteBuffer buffer;
+    /** null if the buffer grows instead */
+    private final WritableByteChannel channel;
+    private final boolean ownsChannel;
+    private long drained = 0;
+
+    private BufferWriter(ByteBuffer buffer, WritableByteChannel channel, boolean ownsChannel) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+    }
+
+    /** @return a writer to a growing buffer on the heap. The result is available with {@link #toBuffer()} */
+    public static BufferWriter heap(int initialCapacity) {
+        return new BufferWriter(ByteBuffer.allocate(Math.max(initialCapacity, 16)), null, false);
+    }
+
+    /** @return a writer to a growing direct buffer. The result is available with {@link #toBuffer()} */
+    public static BufferWriter direct(int initialCapacity) {
+        return new BufferWriter(ByteBuffer.allocateDirect(Math.max(initialCapacity, 16)), null, false);
+    }
+
+    /**
+     * @param channel    the channel to write to. It is not closed when this writer is closed.
+     * @param bufferSize the number of bytes collected before writing to the channel
+     * @return a writer that writes all data to the given channel
+     */
+    public static BufferWriter toChannel(WritableByteChannel channel, int bufferSize) {
+        return new BufferWriter(ByteBuffer.allocateDirect(Math.max(bufferSize, 16)), channel, false);
+    }
+
+    /**
+     * @return a writer that writes to the given file, overwriting any existing file. Closing the writer closes the
+     * file.
+     */
+    public static BufferWriter toFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        );
+        return new BufferWriter(ByteBuffer.allocateDirect(DEFAULT_CAPACITY), channel, true);
+    }
+
+    /** makes sure the buffer has at least the given number of bytes remaining */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+
+        if (channel != null) {
+            drain();
+            if (buffer.remaining() >= bytes) return;
+        }
+
+        int newCapacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+        ByteBuffer newBuffer = buffer.isDirect() ? ByteBuffer.allocateDirect(newCapacity) : ByteBuffer.allocate(newCapacity);
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+    }
+
+    /** writes the contents of the buffer to the channel, and clears the buffer */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            drained += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        require(Byte.BYTES);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        put(ByteBuffer.wrap(b, off, len));
+    }
+
+    /** writes the remaining bytes of the given buffer */
+    public void put(ByteBuffer source) throws IOException {
+        if (channel == null) {
+            require(source.remaining());
+            buffer.put(source);
+            return;
+        }
+
+        while (source.hasRemaining()) {
+            if (!buffer.hasRemaining()) drain();
+
+            int n = Math.min(source.remaining(), buffer.remaining());
+            ByteBuffer part = source.duplicate();
+            part.limit(part.position() + n);
+            buffer.put(part);
+            source.position(source.position() + n);
+        }
+    }
+
+    public void putInt(int value) throws IOException {
+        require(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) throws IOException {
+        require(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void putFloat(float value) throws IOException {
+        require(Float.BYTES);
+        buffer.putFloat(value);
+    }
+
+    /**
+     * writes the given range of the array in bulk
+     * @see BufferReader#getFloats(float[], int, int)
+     */
+    public void putFloats(float[] source, int offset, int length) throws IOException {
+        if (channel == null) require(length * Float.BYTES);
+
+        while (length > 0) {
+            require(Float.BYTES);
+            int n = Math.min(length, buffer.remaining() / Float.BYTES);
+            buffer.asFloatBuffer().put(source, offset, n);
+            buffer.position(buffer.position() + n * Float.BYTES);
+
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * writes the given range of the array in bulk
+     * @see BufferReader#getInts(int[], int, int)
+     */
+    public void putInts(int[] source, int offset, int length) throws IOException {
+        if (channel == null) require(length * Integer.BYTES);
+
+        while (length > 0) {
+            require(Integer.BYTES);
+            int n = Math.min(length, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(source, offset, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /** @return the number of bytes written to this writer */
+    public long size() {
+        return drained + buffer.position();
+    }
+
+    /**
+     * @return a view of the data written so far, from position 0 to {@link #size()}
+     * @throws IllegalStateException if this writer writes to a channel
+     */
+    public ByteBuffer toBuffer() {
+        if (channel != null) throw new IllegalStateException("Data is written to a channel");
+        return buffer.duplicate().flip();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (channel != null) drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (ownsChannel) channel.close();
+    }
+}
@@ -1,50 +1,74 @@
 package NG.CollisionDetection;
 
-import NG.Camera.Camera;
 import NG.Core.Game;
 import NG.Core.GameTimer;
+import NG.Core.ServiceHandle;
 import NG.Entities.Entity;
 import NG.Entities.MovingEntity;
 import NG.InputHandling.ClickShader;
 import NG.InputHandling.MouseTools.MouseTool;
-import NG.Rendering.GLFWWindow;
+import NG.Rendering.EntityDrawList;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Settings.Settings;
 import NG.Storable;
 import NG.Tools.Vectors;
-import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3f;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Geert van Ieperen created on 17-8-2019.
  */
 public abstract class AbstractGameState implements GameState {
     private Game game;
+    private ServiceHandle<GameTimer> timer;
+    private ServiceHandle<Settings> settings;
+    /** the entities visible from the main view, prepared on worker threads */
+    private final EntityDrawList viewEntities = new EntityDrawList();
+    /** the entities visible from any other view, such as a shadow pass */
+    private final EntityDrawList otherEntities = new EntityDrawList();
+    private CompletableFuture<Void> preparation = CompletableFuture.completedFuture(null);
 
     @Override
     public void init(Game game) throws Exception {
         this.game = game;
+        this.timer = game.handle(GameTimer.class);
+        this.settings = game.handle(Settings.class);
+    }
+
+    @Override
+    public void prepareFrame(float renderTime, Matrix4fc viewProjection) {
+        preparation.join();
+
+        Collection<Entity> entities = entities();
+        Matrix4f view = new Matrix4f(viewProjection);
+        boolean doCulling = !settings.get().DEBUG;
+
+        preparation = CompletableFuture.runAsync(() -> viewEntities.extract(entities, renderTime, view, doCulling));
     }
 
     @Override
     public void drawEntities(SGL gl) {
-        float rendertime = game.get(GameTimer.class).getRendertime();
-        GLFWWindow window = game.get(GLFWWindow.class);
-        Matrix4f viewProjection = game.get(Camera.class)
-                .getViewProjection((float) window.getWidth() / window.getHeight());
-        FrustumIntersection fic = new FrustumIntersection().set(viewProjection, false);
-
-        entities().forEach(ety -> {
-            if (game.get(Settings.class).DEBUG || ety.getHitbox(rendertime).testFustrum(fic)) {
-                ety.draw(gl, rendertime);
-            }
-        });
+        float rendertime = timer.get().getRendertime();
+        Matrix4fc viewProjection = gl.getViewProjectionMatrix();
+        preparation.join();
+
+        EntityDrawList drawList = viewEntities;
+        if (!drawList.matches(rendertime, viewProjection)) {
+            // not prepared for this view, such as a shadow pass
+            drawList = otherEntities;
+            drawList.extract(entities(), rendertime, viewProjection, !settings.get().DEBUG);
+        }
+
+        for (int i = 0; i < drawList.size(); i++) {
+            drawList.get(i).draw(gl, rendertime);
+        }
     }
 
     @Override
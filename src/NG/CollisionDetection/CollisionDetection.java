@@ -8,6 +8,7 @@ import NG.DataStructures.Vector3fxc;
 import NG.Entities.Entity;
 import NG.Entities.MovingEntity;
 import NG.Tools.Logger;
+import NG.Tools.Metrics;
 import NG.Tools.Toolbox;
 import org.joml.AABBf;
 import org.joml.RayAabIntersection;
@@ -28,12 +29,16 @@ import static java.util.Comparator.comparing;
 public class CollisionDetection {
     private static final int MAX_COLLISION_ITERATIONS = 5;
     private static final int INSERTION_SORT_BOUND = 64;
+    /** minimum number of rays in a batch before the batch is divided over multiple threads */
+    private static final int RAY_BATCH_PARALLEL_BOUND = 256;
+    private static final int RAY_BATCH_TASK_SIZE = 64;
 
     private CollisionEntity[] xLowerSorted;
     private CollisionEntity[] yLowerSorted;
     private CollisionEntity[] zLowerSorted;
 
     private AveragingQueue avgCollisions;
+    private final Metrics.Histogram collisionPairs = Metrics.histogram("collision.pairs");
 
     private Collection<Entity> staticEntities;
     private Collection<Entity> dynamicEntities;
@@ -176,6 +181,8 @@ public class CollisionDetection {
 
         Collision aCollision = checkAtoB(alpha, b);
         Collision bCollision = checkAtoB(beta, a);
+        // the inverse of a non-collision has no normal
+        if (!aCollision.isCollision() && !bCollision.isCollision()) return false;
 
         Collision combined;
         if (aCollision.isEarlierThan(bCollision)) {
@@ -205,21 +212,8 @@ public class CollisionDetection {
      * origin + scalar * direction} lies on receiver.
      */
     private Collision checkAtoB(CollisionEntity moving, Entity receiver) {
-        List<Vector3f> prev = moving.prevPoints;
-        List<Vector3f> next = moving.nextPoints;
-
-        Collision first = Collision.SCALAR_ONE;
-        for (int i = 0; i < prev.size(); i++) {
-            Vector3f origin = next.get(i);
-            Vector3f direction = new Vector3f(prev.get(i)).sub(origin);
-            Collision intersection = receiver.getIntersection(origin, direction);
-
-            if (intersection.isEarlierThan(first)) {
-                first = intersection;
-            }
-        }
-
-        return first;
+        Collision first = receiver.getIntersection(moving.nextPoints, moving.prevPoints);
+        return first.isEarlierThan(Collision.SCALAR_ONE) ? first : Collision.SCALAR_ONE;
     }
 
     /**
@@ -257,6 +251,7 @@ public class CollisionDetection {
         ));
 
         avgCollisions.add(nrOfElts);
+        collisionPairs.record(nrOfElts);
         return allEntityPairs;
     }
 
@@ -308,6 +303,122 @@ public class CollisionDetection {
         return new Pair<>(suspect, fraction);
     }
 
+    /**
+     * calculates for each of the given rays the first entity it hits, equivalent to calling {@link
+     * #rayTrace(Vector3fc, Vector3fc, float)} for each ray. The bounds of the entities are collected once for the
+     * entire batch, and large batches are divided over the common fork-join pool.
+     * @param origins     the origins of the rays, as consecutive (x, y, z) triplets
+     * @param directions  the directions of the rays, as consecutive (x, y, z) triplets
+     * @param nrOfRays    the number of rays to check
+     * @param gameTime    the time of the query
+     * @param hitEntities receives for each ray the first entity hit by that ray, or null if no entity is hit
+     * @param fractions   receives for each ray the fraction t such that {@code origin + t * dir} gives the point of
+     *                    collision. Undefined if no entity is hit
+     */
+    public void rayTrace(
+            float[] origins, float[] directions, int nrOfRays, float gameTime, Entity[] hitEntities, float[] fractions
+    ) {
+        assert testInvariants();
+        assert origins.length >= nrOfRays * 3 && directions.length >= nrOfRays * 3;
+        assert hitEntities.length >= nrOfRays && fractions.length >= nrOfRays;
+
+        CollisionEntity[] elements = entityArray();
+        int nrOfEntities = elements.length;
+
+        // swept bounds of the broadphase followed by the hitbox at gameTime
+        float[] bounds = new float[nrOfEntities * 12];
+        Entity[] entities = new Entity[nrOfEntities];
+
+        for (int i = 0; i < nrOfEntities; i++) {
+            CollisionEntity elt = elements[i];
+            BoundingBox hitbox = elt.entity.getHitbox(gameTime);
+            int b = i * 12;
+
+            bounds[b] = elt.xLower();
+            bounds[b + 1] = elt.yLower();
+            bounds[b + 2] = elt.zLower();
+            bounds[b + 3] = elt.xUpper();
+            bounds[b + 4] = elt.yUpper();
+            bounds[b + 5] = elt.zUpper();
+            bounds[b + 6] = hitbox.minX;
+            bounds[b + 7] = hitbox.minY;
+            bounds[b + 8] = hitbox.minZ;
+            bounds[b + 9] = hitbox.maxX;
+            bounds[b + 10] = hitbox.maxY;
+            bounds[b + 11] = hitbox.maxZ;
+            entities[i] = elt.entity;
+        }
+
+        if (nrOfRays < RAY_BATCH_PARALLEL_BOUND) {
+            rayTrace(origins, directions, 0, nrOfRays, bounds, entities, hitEntities, fractions);
+
+        } else {
+            int nrOfTasks = (nrOfRays + RAY_BATCH_TASK_SIZE - 1) / RAY_BATCH_TASK_SIZE;
+            IntStream.range(0, nrOfTasks)
+                    .parallel()
+                    .forEach(t -> rayTrace(
+                            origins, directions,
+                            t * RAY_BATCH_TASK_SIZE, Math.min((t + 1) * RAY_BATCH_TASK_SIZE, nrOfRays),
+                            bounds, entities, hitEntities, fractions
+                    ));
+        }
+    }
+
+    /** traces the rays in [start, end) against the given packed bounds */
+    private static void rayTrace(
+            float[] origins, float[] directions, int start, int end, float[] bounds, Entity[] entities,
+            Entity[] hitEntities, float[] fractions
+    ) {
+        for (int r = start; r < end; r++) {
+            float ox = origins[r * 3];
+            float oy = origins[r * 3 + 1];
+            float oz = origins[r * 3 + 2];
+            float invX = 1f / directions[r * 3];
+            float invY = 1f / directions[r * 3 + 1];
+            float invZ = 1f / directions[r * 3 + 2];
+
+            float fraction = Float.MAX_VALUE;
+            Entity suspect = null;
+
+            for (int i = 0; i < entities.length; i++) {
+                int b = i * 12;
+                float swept = rayAabFraction(ox, oy, oz, invX, invY, invZ, bounds, b);
+                if (swept == Float.POSITIVE_INFINITY) continue;
+
+                float f = rayAabFraction(ox, oy, oz, invX, invY, invZ, bounds, b + 6);
+                if (f < fraction) {
+                    fraction = f;
+                    suspect = entities[i];
+                }
+            }
+
+            hitEntities[r] = suspect;
+            fractions[r] = fraction;
+        }
+    }
+
+    /**
+     * @return the fraction of the nearest intersection of the ray with the box at the given offset of bounds, clamped
+     * to 0 if the origin lies inside the box, or {@link Float#POSITIVE_INFINITY} if the ray does not hit.
+     * @see BoundingBox#intersectRay(Vector3fc, Vector3fc)
+     */
+    private static float rayAabFraction(
+            float ox, float oy, float oz, float invX, float invY, float invZ, float[] bounds, int offset
+    ) {
+        float tx1 = (bounds[offset] - ox) * invX;
+        float tx2 = (bounds[offset + 3] - ox) * invX;
+        float ty1 = (bounds[offset + 1] - oy) * invY;
+        float ty2 = (bounds[offset + 4] - oy) * invY;
+        float tz1 = (bounds[offset + 2] - oz) * invZ;
+        float tz2 = (bounds[offset + 5] - oz) * invZ;
+
+        float tNear = Math.max(Math.max(Math.min(tx1, tx2), Math.min(ty1, ty2)), Math.min(tz1, tz2));
+        float tFar = Math.min(Math.min(Math.max(tx1, tx2), Math.max(ty1, ty2)), Math.max(tz1, tz2));
+
+        if (tNear > tFar || tFar < 0) return Float.POSITIVE_INFINITY;
+        return Math.max(tNear, 0);
+    }
+
     private void mergeNewEntities(Collection<Entity> newEntities) {
         int nOfNewEntities = newEntities.size();
         if (nOfNewEntities <= 0) return;
@@ -7,6 +7,8 @@ import NG.Entities.MovingEntity;
 import NG.InputHandling.MouseTools.MouseToolListener;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Storable;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
 import java.util.Collection;
@@ -30,6 +32,16 @@ public interface GameState extends GameAspect, Storable, MouseToolListener {
      */
     void drawEntities(SGL gl);
 
+    /**
+     * starts determining which entities are visible from the given view at the given time, such that a following call
+     * to {@link #drawEntities(SGL)} with the same view does not have to. This is called by the render loop at the start
+     * of a frame, and may execute on other threads while the render thread continues.
+     * @param renderTime     the time of the frame to prepare
+     * @param viewProjection the view-projection matrix of the main view
+     */
+    default void prepareFrame(float renderTime, Matrix4fc viewProjection) {
+    }
+
     /**
      * checks which entity is hit by the given ray
      * @param origin the origin of the ray
@@ -41,6 +53,33 @@ public interface GameState extends GameAspect, Storable, MouseToolListener {
      */
     Pair<Entity, Float> getEntityByRay(Vector3fc origin, Vector3fc dir, float gameTime);
 
+    /**
+     * checks for each of the given rays which entity is hit by that ray. The results are equal to calling {@link
+     * #getEntityByRay(Vector3fc, Vector3fc, float)} for each ray, but implementations may share work between the rays.
+     * @param origins     the origins of the rays, as consecutive (x, y, z) triplets
+     * @param directions  the directions of the rays, as consecutive (x, y, z) triplets
+     * @param nrOfRays    the number of rays to check
+     * @param gameTime    the time of the query
+     * @param hitEntities receives for each ray the first entity hit by that ray, or null if no entity is hit.
+     * @param fractions   receives for each ray the fraction t such that {@code origin + t * dir} gives the point of
+     *                    collision with this entity.
+     */
+    default void getEntitiesByRays(
+            float[] origins, float[] directions, int nrOfRays, float gameTime, Entity[] hitEntities, float[] fractions
+    ) {
+        Vector3f origin = new Vector3f();
+        Vector3f direction = new Vector3f();
+
+        for (int i = 0; i < nrOfRays; i++) {
+            origin.set(origins[i * 3], origins[i * 3 + 1], origins[i * 3 + 2]);
+            direction.set(directions[i * 3], directions[i * 3 + 1], directions[i * 3 + 2]);
+
+            Pair<Entity, Float> result = getEntityByRay(origin, direction, gameTime);
+            hitEntities[i] = result.left;
+            fractions[i] = result.right;
+        }
+    }
+
     /**
      * adds an entity to the game in a thread-safe way.
      * @param entity the new entity, with only its constructor called
@@ -30,6 +30,13 @@ public class PhysicsEngine extends AbstractGameState {
         return entities.rayTrace(origin, dir, gameTime);
     }
 
+    @Override
+    public void getEntitiesByRays(
+            float[] origins, float[] directions, int nrOfRays, float gameTime, Entity[] hitEntities, float[] fractions
+    ) {
+        entities.rayTrace(origins, directions, nrOfRays, gameTime, hitEntities, fractions);
+    }
+
     @Override
     public void addEntity(Entity entity) {
         assert entity != null;
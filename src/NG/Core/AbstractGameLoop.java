@@ -2,6 +2,8 @@ package NG.Core;
 
 import NG.DataStructures.Generic.AveragingQueue;
 import NG.Tools.Logger;
+import NG.Tools.Metrics;
+import NG.Tools.Profiler;
 import NG.Tools.Timer;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -26,6 +28,9 @@ public abstract class AbstractGameLoop extends Thread {
     private AveragingQueue avgPoss;
     private final Supplier<String> tickCounter;
     private final Supplier<String> possessionCounter;
+    private final Metrics.Histogram tickDuration;
+    private final Metrics.Counter nrOfTicks;
+    private final int profilerZone;
 
     /**
      * creates a new, paused gameloop
@@ -42,6 +47,9 @@ public abstract class AbstractGameLoop extends Thread {
 
         tickCounter = () -> String.format("%s TPS: %1.01f", name, avgTPS.average());
         possessionCounter = () -> String.format("%s POSS: %3d%%", name, (int) (100 * avgPoss.average()));
+        tickDuration = Metrics.histogram(name + ".tick.nanos");
+        nrOfTicks = Metrics.counter(name + ".ticks");
+        profilerZone = Profiler.register(name);
     }
 
     /**
@@ -80,15 +88,22 @@ public abstract class AbstractGameLoop extends Thread {
             while (!shouldStop || Thread.interrupted()) {
                 // start measuring how long a gameloop takes
                 loopTimer.updateLoopTime();
+                long tickStart = System.nanoTime();
 
                 // do stuff
+                Profiler.begin(profilerZone);
                 update(deltaTime);
+                Profiler.end(profilerZone);
                 if (Thread.interrupted()) break;
 
                 // do more stuff
                 runPostLoopActions();
                 if (Thread.interrupted()) break;
 
+                tickDuration.record(System.nanoTime() - tickStart);
+                nrOfTicks.increment();
+                Profiler.frame();
+
                 // number of milliseconds remaining in this loop
                 float remainingTime = targetDeltaMillis - loopTimer.getMillisSinceLastUpdate();
 
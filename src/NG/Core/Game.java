@@ -27,7 +27,8 @@ public interface Game extends Iterable<Object> {
      * returns all elements of the given class.
      * @param target the class that is sought
      * @param <T>    the type of this class
-     * @return a list of all elements of the given target class, or an empty list if no such element is found.
+     * @return a list of all elements of the given target class, or an empty list if no such element is found. The list
+     * may not be modified.
      */
     <T> List<T> getAll(Class<T> target);
 
@@ -38,6 +39,25 @@ public interface Game extends Iterable<Object> {
      */
     boolean has(Class<?> target);
 
+    /**
+     * returns a number that changes whenever the result of {@link #get(Class)}, {@link #getAll(Class)} or {@link
+     * #has(Class)} may change. The numbers of different games never coincide, such that switching between games also
+     * changes this number.
+     * @return the version of the elements of this game
+     */
+    long getRegistryVersion();
+
+    /**
+     * creates a handle to the element of the given class, which caches the result of {@link #get(Class)} until the
+     * elements of this game change.
+     * @param target the class that is sought
+     * @param <T>    the type of this class
+     * @return a handle to the first element of the given class
+     */
+    default <T> ServiceHandle<T> handle(Class<T> target) {
+        return new ServiceHandle<>(this, target);
+    }
+
     /**
      * adds an element to this server. Added elements can be retrieved using {@link #get(Class)}
      * @param newElement the new element
@@ -187,6 +207,11 @@ public interface Game extends Iterable<Object> {
             return current.has(target);
         }
 
+        @Override
+        public long getRegistryVersion() {
+            return current.getRegistryVersion();
+        }
+
         @Override
         public <V> Future<V> computeOnRenderThread(Callable<V> action) {
             return current.computeOnRenderThread(action);
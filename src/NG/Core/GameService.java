@@ -1,9 +1,9 @@
 package NG.Core;
 
-import NG.DataStructures.Generic.PairList;
 import NG.Rendering.RenderLoop;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -11,9 +11,11 @@ import java.util.stream.Collectors;
  * @author Geert van Ieperen created on 2-4-2019.
  */
 public class GameService implements Game {
-    private Map<Class, Object> lookAsideTable = new HashMap<>();
+    /** source of registry versions, shared by all games such that versions are never reused */
+    private static final AtomicLong REGISTRY_VERSIONS = new AtomicLong();
+
+    private volatile Registry registry = new Registry(new Object[0]);
     private RenderLoop renderer;
-    private final PairList<Object, Class> elements;
     private final String mainThreadName;
     private Version version;
 
@@ -25,7 +27,6 @@ public class GameService implements Game {
     public GameService(Version version, String mainThreadName, RenderLoop renderer, Object... initial) {
         this.version = version;
         this.renderer = renderer;
-        this.elements = new PairList<>(initial.length);
         this.mainThreadName = mainThreadName;
 
         for (Object elt : initial) {
@@ -35,20 +36,10 @@ public class GameService implements Game {
 
     @Override
     public <T> T get(Class<T> target) {
-        Object found = lookAsideTable.get(target);
-        if (found != null) {
+        List<Object> found = registry.find(target);
+        if (!found.isEmpty()) {
             //noinspection unchecked
-            return (T) found;
-        }
-
-        for (int i = 0; i < elements.size(); i++) {
-            if (target.isAssignableFrom(elements.right(i))) {
-                Object elt = elements.left(i);
-
-                lookAsideTable.put(target, elt);
-                //noinspection unchecked
-                return (T) elt;
-            }
+            return (T) found.get(0);
         }
 
         throw new NoSuchElementException(String.format("No element of %s :\n%s", target.toString(), this.toString()));
@@ -56,32 +47,30 @@ public class GameService implements Game {
 
     @Override
     public <T> List<T> getAll(Class<T> target) {
-        List<T> results = new ArrayList<>();
-
-        for (int i = 0; i < elements.size(); i++) {
-            if (target.isAssignableFrom(elements.right(i))) {
-                Object elt = elements.left(i);
-
-                lookAsideTable.put(target, elt);
-                //noinspection unchecked
-                results.add((T) elements.left(i));
-            }
-        }
-
-        return results;
+        //noinspection unchecked
+        return (List<T>) registry.find(target);
     }
 
     @Override
-    public void add(Object newElement) {
-        elements.add(newElement, newElement.getClass());
+    public synchronized void add(Object newElement) {
+        Object[] elements = registry.elements;
+        Object[] newElements = Arrays.copyOf(elements, elements.length + 1);
+        newElements[elements.length] = newElement;
+
+        registry = new Registry(newElements);
     }
 
     @Override
-    public boolean remove(Object original) {
-        for (int i = 0; i < elements.size(); i++) {
-            if (elements.left(i) == original) { // pointer equality
-                elements.remove(i);
-                lookAsideTable.clear(); // we can't remove on value
+    public synchronized boolean remove(Object original) {
+        Object[] elements = registry.elements;
+
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] == original) { // pointer equality
+                Object[] newElements = new Object[elements.length - 1];
+                System.arraycopy(elements, 0, newElements, 0, i);
+                System.arraycopy(elements, i + 1, newElements, i, elements.length - i - 1);
+
+                registry = new Registry(newElements);
                 return true;
             }
         }
@@ -111,25 +100,19 @@ public class GameService implements Game {
             aspect.cleanup();
         }
 
-        elements.clear();
+        synchronized (this) {
+            registry = new Registry(new Object[0]);
+        }
     }
 
     @Override
     public boolean has(Class<?> target) {
-        if (lookAsideTable.containsKey(target)) {
-            return true;
-        }
-
-        for (int i = 0; i < elements.size(); i++) {
-            if (target.isAssignableFrom(elements.right(i))) {
-                Object elt = elements.left(i);
-                lookAsideTable.put(target, elt);
-
-                return true;
-            }
-        }
+        return !registry.find(target).isEmpty();
+    }
 
-        return false;
+    @Override
+    public long getRegistryVersion() {
+        return registry.version;
     }
 
     @Override
@@ -139,38 +122,90 @@ public class GameService implements Game {
 
     @Override
     public String toString() {
-        List<String> elts = elements.stream()
-                .map(p -> p.right)
+        List<String> elts = Arrays.stream(registry.elements)
+                .map(Object::getClass)
                 .map(Class::getSimpleName)
                 .collect(Collectors.toList());
         return getClass().getSimpleName() + elts;
     }
 
+    /**
+     * iterates over the elements at the moment of calling. Elements added or removed during the iteration do not
+     * affect the iteration.
+     */
     @Override
     public Iterator<Object> iterator() {
         return new Iterator<>() {
+            final Object[] elements = registry.elements;
             int i = 0;
-            int originalSize = elements.size();
 
             @Override
             public boolean hasNext() {
-                return i < elements.size();
+                return i < elements.length;
             }
 
             @Override
             public Object next() {
-                if (originalSize != elements.size()) {
-                    throw new ConcurrentModificationException();
-                }
-                return elements.left(i++);
+                if (i == elements.length) throw new NoSuchElementException();
+                return elements[i++];
             }
 
             @Override
             public void remove() {
-                elements.remove(--i);
-                lookAsideTable.clear(); // we can't remove on value
-                originalSize--;
+                if (i == 0) throw new IllegalStateException();
+                GameService.this.remove(elements[i - 1]);
             }
         };
     }
+
+    /**
+     * An immutable snapshot of the elements, with for every class and interface of every element the list of elements
+     * of that type. A registry is replaced as a whole on every modification, such that readers never need to lock.
+     */
+    private static final class Registry {
+        final Object[] elements;
+        final long version;
+        private final Map<Class<?>, List<Object>> index;
+
+        Registry(Object[] elements) {
+            this.elements = elements;
+            this.version = REGISTRY_VERSIONS.incrementAndGet();
+
+            Map<Class<?>, List<Object>> lists = new HashMap<>();
+            for (Object elt : elements) {
+                for (Class<?> type : typesOf(elt.getClass())) {
+                    lists.computeIfAbsent(type, t -> new ArrayList<>(1)).add(elt);
+                }
+            }
+
+            Map<Class<?>, List<Object>> index = new HashMap<>(lists.size() * 2);
+            for (Map.Entry<Class<?>, List<Object>> entry : lists.entrySet()) {
+                index.put(entry.getKey(), List.copyOf(entry.getValue()));
+            }
+            this.index = index;
+        }
+
+        /** @return the elements of the given type, in order of addition */
+        List<Object> find(Class<?> target) {
+            return index.getOrDefault(target, List.of());
+        }
+
+        /** @return the given class, and all its superclasses and interfaces */
+        private static Set<Class<?>> typesOf(Class<?> type) {
+            Set<Class<?>> types = new HashSet<>();
+            ArrayDeque<Class<?>> open = new ArrayDeque<>();
+            open.add(type);
+
+            while (!open.isEmpty()) {
+                Class<?> current = open.remove();
+                if (!types.add(current)) continue;
+
+                Class<?> superclass = current.getSuperclass();
+                if (superclass != null) open.add(superclass);
+                open.addAll(Arrays.asList(current.getInterfaces()));
+            }
+
+            return types;
+        }
+    }
 }
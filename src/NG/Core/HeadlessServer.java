@@ -0,0 +1,263 @@
+package NG.Core;
+
+import NG.Blocks.BasicBlocks;
+import NG.Blocks.BlocksConstruction;
+import NG.Blocks.FilePieceTypeCollection;
+import NG.CollisionDetection.GameState;
+import NG.CollisionDetection.PhysicsEngine;
+import NG.DataStructures.Generic.Color4f;
+import NG.DataStructures.Vector3fx;
+import NG.DataStructures.Vector3fxc;
+import NG.Entities.FixedState;
+import NG.GameEvent.GameEventQueueLoop;
+import NG.GameMap.EmptyMap;
+import NG.GameMap.GameMap;
+import NG.GameMap.MeshMap;
+import NG.InputHandling.Controllers.BoatBotController;
+import NG.InputHandling.Controllers.BoatControls;
+import NG.InputHandling.Controllers.RecordingBoatController;
+import NG.Replay.InputJournal;
+import NG.Settings.Settings;
+import NG.Storable;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
+import NG.Tools.Metrics;
+import NG.Tools.Profiler;
+import org.joml.Quaternionf;
+import org.joml.Vector3i;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Runs the simulation of a game without window, rendering or sound. The game consists of a {@link PhysicsEngine}
+ * driven by a {@link GameEventQueueLoop}, and a map that is only used for collisions. Boats are controlled by {@link
+ * BoatBotController bots}, each chasing the next.
+ * <p>
+ * The controls of the bots and the ticks of the simulation can be recorded in an {@link InputJournal}, which can be
+ * replayed faster than real time with {@link #addBoat(BlocksConstruction, BoatControls)} and {@link #step(float,
+ * float)}.
+ * <p>
+ * No class of this server uses OpenGL, OpenAL or GLFW, such that it runs on machines without graphics or sound.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class HeadlessServer {
+    private static final Version GAME_VERSION = new Version(0, 0);
+    private static final String LOOP_NAME = "Simulation";
+    private static final float SPAWN_RADIUS = 50f;
+    private static final long REPORT_INTERVAL_MILLIS = 5_000;
+
+    private final Game game;
+    private final Settings settings;
+    private final GameTimeControl gameTimer;
+    private final GameEventQueueLoop simulation;
+    private final List<BlocksConstruction> bots = new ArrayList<>();
+    private InputJournal journal = null;
+    private boolean isCleanedUp = false;
+
+    /**
+     * @param mapFile the map to simulate on, or null to simulate without map
+     */
+    public HeadlessServer(Path mapFile) throws IOException {
+        Logger.INFO.print("Starting up a headless server...");
+        settings = new Settings();
+        settings.DEBUG = false;
+
+        gameTimer = new GameTimeControl(0);
+        simulation = new GameEventQueueLoop(LOOP_NAME, settings.TARGET_TPS);
+        GameState state = new PhysicsEngine();
+        // meshes of the map are never loaded, only the shapes of its chunks
+        GameMap map = (mapFile == null) ? new EmptyMap() : new MeshMap(mapFile, false);
+
+        game = new GameService(GAME_VERSION, Thread.currentThread().getName(), null,
+                settings, gameTimer, state, map, simulation
+        );
+
+        // the piece types of stored constructions
+        new BasicBlocks();
+        new FilePieceTypeCollection("Pivot");
+        new FilePieceTypeCollection("Engines");
+    }
+
+    public void init() throws Exception {
+        game.init();
+    }
+
+    /**
+     * records the boats spawned after this call, their controls and all ticks and events of the simulation in the
+     * given journal. The journal is closed upon {@link #cleanup()}.
+     */
+    public void record(InputJournal journal) {
+        this.journal = journal;
+        simulation.setJournal(journal);
+    }
+
+    /**
+     * spawns the given number of boats in a circle around the origin, each chasing the next.
+     * @param nrOfBots     the number of boats
+     * @param construction the file of the construction of every boat. If it does not exist, a simple boat of bricks is
+     *                     spawned instead.
+     */
+    public void spawnBots(int nrOfBots, File construction) throws IOException, ClassNotFoundException {
+        float gameTime = gameTimer.getGametime();
+        GameState state = game.get(GameState.class);
+
+        if (!construction.exists()) {
+            Logger.WARN.print("No construction at " + construction + ", spawning bricks instead");
+        }
+
+        for (int i = 0; i < nrOfBots; i++) {
+            double angle = 2 * Math.PI * i / nrOfBots;
+            float x = (float) Math.cos(angle) * SPAWN_RADIUS;
+            float y = (float) Math.sin(angle) * SPAWN_RADIUS;
+            // facing the center
+            Quaternionf rotation = new Quaternionf().rotateZ((float) (angle + Math.PI));
+
+            BlocksConstruction bot = loadBoat(construction, new Vector3fx(x, y, 1), rotation, gameTime);
+            bots.add(bot);
+        }
+
+        for (int i = 0; i < nrOfBots; i++) {
+            BlocksConstruction bot = bots.get(i);
+            BoatControls controller = new BoatBotController(bot, bots.get((i + 1) % nrOfBots));
+
+            if (journal != null) {
+                journal.spawn(i, construction.getName(), bot.getStateAt(gameTime));
+                controller = new RecordingBoatController(controller, journal, i);
+            }
+
+            bot.setController(controller);
+            state.addEntity(bot);
+        }
+
+        Logger.INFO.printf("Spawned %d bots", nrOfBots);
+    }
+
+    /**
+     * reads a boat from the given file, and places it at the given position as if it was spawned there
+     * @param construction the file of the construction. If it does not exist, a simple boat of bricks is returned
+     *                     instead.
+     * @param position     the spawn position of the boat
+     * @param orientation  the spawn orientation of the boat
+     * @param gameTime     the current game time
+     */
+    public static BlocksConstruction loadBoat(
+            File construction, Vector3fxc position, Quaternionf orientation, float gameTime
+    ) throws IOException, ClassNotFoundException {
+        FixedState spawnState = new FixedState(position, orientation, gameTime);
+
+        if (construction.exists()) {
+            BlocksConstruction boat = Storable.readFromFile(construction, BlocksConstruction.class);
+            boat.resetState(spawnState);
+            return boat;
+        }
+
+        BlocksConstruction boat = new BlocksConstruction(spawnState);
+        BlocksConstruction.GridModificator modificator = boat.getSubgridModificator();
+        for (int x = 0; x < 4; x++) {
+            modificator.add(BasicBlocks.get(2, 1, 3), new Vector3i(2 * x, 0, 0), Color4f.WHITE);
+        }
+        return boat;
+    }
+
+    /**
+     * adds the given boat to the simulation, controlled by the given controller
+     */
+    public void addBoat(BlocksConstruction boat, BoatControls controller) {
+        boat.setController(controller);
+        game.get(GameState.class).addEntity(boat);
+    }
+
+    /**
+     * executes a single tick of the simulation on the calling thread, at the given game time. The game time of this
+     * server no longer follows the real time after this call, such that subsequent ticks can be executed as fast as
+     * possible.
+     * @param gameTime  the game time of the tick
+     * @param deltaTime the real time since the previous tick, as given to the game state
+     */
+    public void step(float gameTime, float deltaTime) throws Exception {
+        if (!gameTimer.isPaused()) gameTimer.pause();
+        gameTimer.set(gameTime);
+        simulation.step(deltaTime);
+    }
+
+    /** @return the number of events scheduled by the simulation so far */
+    public int getNrOfEvents() {
+        return simulation.getNrOfEvents();
+    }
+
+    /**
+     * runs the simulation for the given time, while regularly reporting the throughput
+     * @param seconds the number of real seconds to run, or 0 to run until interrupted
+     * @return true if the simulation ran for the given time, false if the simulation crashed before that
+     */
+    public boolean run(float seconds) throws InterruptedException {
+        Metrics.Histogram tickDuration = Metrics.histogram(LOOP_NAME + ".tick.nanos");
+        Metrics.Counter nrOfTicks = Metrics.counter(LOOP_NAME + ".ticks");
+
+        simulation.start();
+        simulation.unPause();
+
+        long start = System.currentTimeMillis();
+        long end = (seconds > 0) ? start + (long) (seconds * 1000) : Long.MAX_VALUE;
+        long lastReport = start;
+        double lastTicks = nrOfTicks.getValue();
+        float lastGameTime = gameTimer.getGametime();
+
+        while (System.currentTimeMillis() < end && simulation.isAlive()) {
+            Thread.sleep(Math.min(REPORT_INTERVAL_MILLIS, end - System.currentTimeMillis()));
+            // no render loop drains the profiler on this server
+            Profiler.collect();
+
+            long now = System.currentTimeMillis();
+            float wallSeconds = (now - lastReport) / 1000f;
+            double ticks = nrOfTicks.getValue();
+            float gameTime = gameTimer.getGametime();
+
+            Logger.INFO.printf("%1.01f ticks/s, %1.02f ms per tick (p99 %1.02f ms), %1.02f simulated s/s, %d entities",
+                    (ticks - lastTicks) / wallSeconds,
+                    tickDuration.getMean() / 1e6, tickDuration.getValueAtPercentile(99) / 1e6,
+                    (gameTime - lastGameTime) / wallSeconds,
+                    game.get(GameState.class).entities().size()
+            );
+
+            lastReport = now;
+            lastTicks = ticks;
+            lastGameTime = gameTime;
+        }
+
+        if (!simulation.isAlive()) {
+            Logger.ERROR.print(LOOP_NAME + " stopped after " + (System.currentTimeMillis() - start) / 1000f + " seconds");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * stops the simulation, and writes the measurements to the metrics directory. Waits until all log messages are
+     * written. Only the first call has effect.
+     */
+    public synchronized void cleanup() {
+        if (isCleanedUp) return;
+        isCleanedUp = true;
+
+        game.cleanup();
+        if (journal != null) journal.close();
+
+        String fileName = "Server_" + new SimpleDateFormat("MM_dd-HH_mm_ss").format(new Date());
+        try {
+            Metrics.exportCsv(Directory.metrics.getPath(fileName + ".csv"));
+
+        } catch (IOException ex) {
+            Logger.ERROR.print(ex);
+        }
+
+        Logger.INFO.print("\n" + Profiler.resultsTable());
+        Logger.flush();
+    }
+}
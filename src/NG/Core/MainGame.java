@@ -15,6 +15,7 @@ import NG.DataStructures.Generic.Color4f;
 import NG.DataStructures.Vector3fx;
 import NG.Entities.Entity;
 import NG.Entities.EntityList;
+import NG.Entities.FixedState;
 import NG.Entities.State;
 import NG.GUIMenu.Components.SButton;
 import NG.GUIMenu.Components.SFiller;
@@ -29,6 +30,7 @@ import NG.GameMap.GameMap;
 import NG.GameMap.MeshMap;
 import NG.InputHandling.ClickShader;
 import NG.InputHandling.Controllers.PCBoatKeyController;
+import NG.InputHandling.Controllers.RecordingBoatController;
 import NG.InputHandling.MouseToolCallbacks;
 import NG.Mods.JarModReader;
 import NG.Mods.Mod;
@@ -44,6 +46,7 @@ import NG.Rendering.RenderBundle;
 import NG.Rendering.RenderLoop;
 import NG.Rendering.Shaders.PhongShader;
 import NG.Rendering.Shaders.WaterShader;
+import NG.Replay.InputJournal;
 import NG.Settings.KeyBinding;
 import NG.Settings.Settings;
 import NG.Storable;
@@ -54,6 +57,7 @@ import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
 import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -77,6 +81,7 @@ public class MainGame implements ModLoader {
     private SButton.BProps bProps = new SButton.BProps(300, 80, false, false);
     private final GameTimeControl gameTimer;
     private final Player player = new Player();
+    private InputJournal journal = null;
 
     public MainGame() throws IOException {
         Logger.DEBUG.print("Showing splash...");
@@ -276,6 +281,7 @@ public class MainGame implements ModLoader {
 
     private void cleanup() {
         game.cleanup();
+        if (journal != null) journal.close();
         menu.cleanup();
         splashWindow.dispose();
 
@@ -312,6 +318,17 @@ public class MainGame implements ModLoader {
         gameService.select(game);
         player.controller = new PCBoatKeyController(game);
         Settings settings = game.get(Settings.class);
+        String mapName = "map2.ply";
+
+        if (settings.RECORD_INPUT) {
+            String fileName = "Replay_" + new SimpleDateFormat("MM_dd-HH_mm_ss").format(new Date()) + ".bjrn";
+            try {
+                journal = new InputJournal(Directory.replays.getPath(fileName), mapName);
+
+            } catch (IOException ex) {
+                Logger.ERROR.print("Could not start recording", ex);
+            }
+        }
 
         AbstractGameLoop gameLoop = new AbstractGameLoop("gameState", settings.TARGET_TPS) {
             @Override
@@ -319,6 +336,7 @@ public class MainGame implements ModLoader {
                 gameTimer.updateGameTime();
                 float gametime = gameTimer.getGametime();
                 float deltaTime = gameTimer.getGametimeDifference();
+                if (journal != null) journal.tick(gametime, deltaTime);
                 game.getAll(GameState.class).forEach(state -> state.update(gametime, deltaTime));
             }
 
@@ -333,7 +351,7 @@ public class MainGame implements ModLoader {
 
         new Thread(() -> {
             try {
-                MeshMap map = new MeshMap(Directory.maps.getPath("map2.ply"), settings.DEBUG);
+                MeshMap map = new MeshMap(Directory.maps.getPath(mapName), settings.DEBUG);
                 map.init(game);
                 GameMap original = game.get(GameMap.class);
                 game.add(map);
@@ -342,7 +360,13 @@ public class MainGame implements ModLoader {
 
                 float gameTime = game.get(GameTimer.class).getGametime();
                 BlocksConstruction entity = Storable.readFromFile(Directory.constructions.getFile("temp.conbi"), BlocksConstruction.class);
-                entity.setState(new Vector3fx(0, 0, 1), new Quaternionf(), gameTime);
+                entity.resetState(new FixedState(new Vector3fx(0, 0, 1), new Quaternionf(), gameTime));
+
+                if (journal != null) {
+                    // the spawn must precede the first control of its channel
+                    journal.spawn(0, "temp.conbi", entity.getStateAt(gameTime));
+                    player.controller = new RecordingBoatController(player.controller, journal, 0);
+                }
 
                 GameState gameState = game.get(GameState.class);
                 entity.setController(player.controller);
@@ -0,0 +1,74 @@
+package NG.Core;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A cached result of {@link Game#get(Class)}. The element is looked up again only when the elements of the game have
+ * changed since the last lookup, as indicated by {@link Game#getRegistryVersion()}. Holding a handle is therefore
+ * cheaper than calling {@code game.get(target)} in code that runs every frame or every entity.
+ * <p>
+ * Handles may be shared between threads.
+ * @author Geert van Ieperen created on 19-10-2026.
+ * @see Game#handle(Class)
+ */
+public class ServiceHandle<T> {
+    private final Game game;
+    private final Class<T> target;
+    private volatile Resolution<T> resolution;
+
+    /**
+     * @param game   the game to look up the element in
+     * @param target the class of the element
+     */
+    public ServiceHandle(Game game, Class<T> target) {
+        this.game = game;
+        this.target = target;
+        this.resolution = new Resolution<>(-1, null);
+    }
+
+    /**
+     * @return the element of the target class, equal to {@code game.get(target)}
+     * @throws NoSuchElementException if the game has no element of the target class
+     */
+    public T get() {
+        T element = resolve().element;
+        if (element == null) {
+            throw new NoSuchElementException("No element of " + target + " in " + game);
+        }
+        return element;
+    }
+
+    /** @return true iff {@link #get()} would return an element, equal to {@code game.has(target)} */
+    public boolean isPresent() {
+        return resolve().element != null;
+    }
+
+    private Resolution<T> resolve() {
+        long version = game.getRegistryVersion();
+        Resolution<T> current = resolution;
+
+        if (current.version != version) {
+            T element = game.has(target) ? game.get(target) : null;
+            current = new Resolution<>(version, element);
+            resolution = current;
+        }
+
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceHandle{" + target.getSimpleName() + "}";
+    }
+
+    /** the result of a lookup, published as a whole such that version and element always match */
+    private static class Resolution<T> {
+        final long version;
+        final T element;
+
+        Resolution(long version, T element) {
+            this.version = version;
+            this.element = element;
+        }
+    }
+}
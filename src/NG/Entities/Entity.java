@@ -18,7 +18,7 @@ public interface Entity extends Storable {
     /**
      * Draws this entity using the provided SGL object. This method may only be called from the rendering loop, and
      * should not change the internal representation of this object. Possible animations should be based on {@link
-     * GameTimer#getRendertime()}. Material must be set using {@link SGL#getShader()}.
+     * GameTimer#getRendertime()}. Material must be set using {@link SGL#setMaterial}.
      * @param gl         the graphics object to be used for rendering. It is initialized at world's origin. (no
      *                   translation or scaling has been applied)
      * @param renderTime the time instance when the rendering must happen
@@ -62,6 +62,30 @@ public interface Entity extends Storable {
      */
     Collision getIntersection(Vector3fc origin, Vector3fc direction);
 
+    /**
+     * calculates the first collision of a number of line pieces with this entity, such as the movement of the shape
+     * points of another entity. Implementations may share work between consecutive lines with equal directions.
+     * @param origins the origins of the lines
+     * @param ends    the ends of the lines, such that the direction of line i is {@code ends[i] - origins[i]}
+     * @return the earliest collision of any of the lines with this entity.
+     * @see #getIntersection(Vector3fc, Vector3fc)
+     */
+    default Collision getIntersection(List<? extends Vector3fc> origins, List<? extends Vector3fc> ends) {
+        Collision first = Collision.NONE;
+        Vector3f direction = new Vector3f();
+
+        for (int i = 0; i < origins.size(); i++) {
+            Vector3fc origin = origins.get(i);
+            Collision intersection = getIntersection(origin, ends.get(i).sub(origin, direction));
+
+            if (intersection.isEarlierThan(first)) {
+                first = intersection;
+            }
+        }
+
+        return first;
+    }
+
     /**
      * returns the points of the shape of this entity at the given moment in time
      * @return a list of the exact wolrd-positions of the vertices of the shape of this object. Changes in the list are
@@ -51,6 +51,16 @@ public abstract class MovingEntity implements Entity {
         pastStates.add(newState.copy(), time);
     }
 
+    /**
+     * replaces the state and all past states of this entity by the given state, as if this entity was created in that
+     * state. Unlike {@link #setState(State)}, the entity does not move from its previous state.
+     * @param spawnState the new state of this entity
+     */
+    public void resetState(State spawnState) {
+        state.set(spawnState);
+        pastStates = new StateInterpolator(spawnState.copy(), spawnState.time());
+    }
+
     public void disposeStatesUntil(float minimumTime) {
         pastStates.removeUntil(minimumTime);
     }
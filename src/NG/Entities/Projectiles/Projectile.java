@@ -4,6 +4,7 @@ import NG.CollisionDetection.BoundingBox;
 import NG.CollisionDetection.Collision;
 import NG.Core.Game;
 import NG.Core.GameTimer;
+import NG.Core.ServiceHandle;
 import NG.Entities.Entity;
 import NG.Entities.MovingEntity;
 import NG.Entities.MutableState;
@@ -21,12 +22,14 @@ public abstract class Projectile extends MovingEntity {
     private static final BoundingBox zeroBox = new BoundingBox(0, 0, 0, 0, 0, 0);
 
     protected final Game game;
+    private final ServiceHandle<GameTimer> timer;
     private float spawnTime;
     private Entity source;
 
     public Projectile(Game game, Entity source, float spawnTime, MutableState spawnState) {
         super(spawnState);
         this.game = game;
+        this.timer = game.handle(GameTimer.class);
         this.source = source;
         this.spawnTime = spawnTime;
     }
@@ -34,7 +37,7 @@ public abstract class Projectile extends MovingEntity {
     @Override
     public void draw(SGL gl, float renderTime) {
         if (isDisposed) return;
-        float now = game.get(GameTimer.class).getRendertime();
+        float now = timer.get().getRendertime();
         if (now < spawnTime) return;
 
         gl.pushMatrix();
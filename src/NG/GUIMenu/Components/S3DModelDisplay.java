@@ -113,6 +113,7 @@ public class S3DModelDisplay extends SComponent {
                 gl.scale(scaling);
 
                 renderCall.accept(gl);
+                gl.flush();
             }
             shader.unbind();
         });
@@ -3,6 +3,7 @@ package NG.GameEvent;
 import NG.Core.Game;
 import NG.Core.GameTimeControl;
 import NG.Tools.Logger;
+import NG.Tools.Metrics;
 
 import java.util.PriorityQueue;
 import java.util.concurrent.locks.Lock;
@@ -17,6 +18,7 @@ import java.util.concurrent.locks.ReentrantLock;
 public class GameEventQueue extends Thread implements EventLoop {
     private final PriorityQueue<Event> eventQueue;
     private final Lock lockNewEvent;
+    private final Metrics.Histogram queueDepth = Metrics.histogram("events.queue.depth");
 
     private boolean shouldStop = false;
     private Game game;
@@ -75,6 +77,7 @@ public class GameEventQueue extends Thread implements EventLoop {
         lockNewEvent.lock();
         try {
             eventQueue.add(e);
+            queueDepth.record(eventQueue.size());
 
         } finally {
             lockNewEvent.unlock();
@@ -5,6 +5,7 @@ import NG.Core.AbstractGameLoop;
 import NG.Core.Game;
 import NG.Core.GameTimeControl;
 import NG.Core.GameTimer;
+import NG.Replay.InputJournal;
 import NG.Storable;
 
 import java.io.DataOutputStream;
@@ -25,6 +26,8 @@ public class GameEventQueueLoop extends AbstractGameLoop implements Storable, Ev
     private final Lock lockQueueEdit;
     private Game game;
     private float updateTime;
+    private InputJournal journal = null;
+    private int nrOfEvents = 0;
 
     /**
      * creates a new, paused event loop
@@ -45,6 +48,28 @@ public class GameEventQueueLoop extends AbstractGameLoop implements Storable, Ev
         updateTime = game.get(GameTimer.class).getGametime();
     }
 
+    /**
+     * records every tick and every added event in the given journal
+     * @param journal the journal to record to, or null to stop recording
+     */
+    public void setJournal(InputJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * executes a single tick on the calling thread, instead of on the thread of this loop. The game time is taken from
+     * the {@link GameTimeControl} of the game, as with every tick.
+     * @param deltaTime the real time since the previous tick
+     */
+    public void step(float deltaTime) throws Exception {
+        update(deltaTime);
+    }
+
+    /** @return the number of events added since the creation of this loop */
+    public int getNrOfEvents() {
+        return nrOfEvents;
+    }
+
     @Override
     protected void update(float deltaTime) throws Exception {
         GameTimeControl timer = game.get(GameTimeControl.class);
@@ -52,6 +77,7 @@ public class GameEventQueueLoop extends AbstractGameLoop implements Storable, Ev
 
         timer.updateGameTime();
         float gameTime = timer.getGametime();
+        if (journal != null) journal.tick(gameTime, deltaTime);
 
         if (eventQueue.isEmpty()) {
             state.update(gameTime, deltaTime);
@@ -102,6 +128,8 @@ public class GameEventQueueLoop extends AbstractGameLoop implements Storable, Ev
         lockQueueEdit.lock();
         try {
             eventQueue.add(e);
+            nrOfEvents++;
+            if (journal != null) journal.event(e);
 
         } finally {
             lockQueueEdit.unlock();
@@ -17,13 +17,16 @@ import java.io.IOException;
 import java.util.List;
 
 /**
+ * A chunk of a map, of which the mesh is loaded when it is first drawn. The mesh and shape may also be decoded lazily
+ * from a map file, using {@link #decode()}, and released again with {@link #unload()}. The bounding box is always
+ * available.
  * @author Geert van Ieperen created on 12-8-2019.
  */
 public abstract class AbstractChunk extends StaticEntity implements MapChunk {
+    private final BoundingBox boundingBox;
     private MeshFile meshFile;
+    private Shape shape;
     private Mesh mesh = null;
-    private final Shape shape;
-    private final BoundingBox boundingBox;
 
     public AbstractChunk(GameMap parent, int xCoord, int yCoord, int zCoord, MeshFile file) {
         super(parent.getPosition(xCoord, yCoord, zCoord), 0, new Quaternionf());
@@ -32,19 +35,65 @@ public abstract class AbstractChunk extends StaticEntity implements MapChunk {
         boundingBox = new BoundingBox(shape.getBoundingBox(), new Vector3f());
     }
 
+    /**
+     * creates a chunk of which the mesh and shape are only decoded when first used
+     * @param boundingBox the bounds of the decoded shape
+     * @see #decode()
+     */
+    protected AbstractChunk(GameMap parent, int xCoord, int yCoord, int zCoord, BoundingBox boundingBox) {
+        super(parent.getPosition(xCoord, yCoord, zCoord), 0, new Quaternionf());
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * decodes the mesh of this chunk. This is called when the mesh or shape is used and not loaded, which only
+     * happens for chunks that were never decoded, or that were unloaded.
+     * @return the mesh of this chunk
+     */
+    protected abstract MeshFile decode() throws IOException;
+
     @Override
     public void draw(SGL gl, float renderTime) {
-        if (mesh == null) {
-            loadMesh();
-        }
+        loadMesh();
         // translated by default
         gl.render(mesh, this);
     }
 
     @Override
-    public void loadMesh() {
+    public synchronized void loadMesh() {
         if (mesh != null) return;
-        mesh = meshFile.getMesh();
+        MeshFile file = getMeshFile();
+        mesh = file.getMesh();
+        // the file is released, hence the shape is extracted now to prevent decoding it again
+        if (shape == null) shape = file.getShape();
+        meshFile = null;
+    }
+
+    /** @return the shape of this chunk, decoding it if necessary */
+    protected synchronized Shape getShape() {
+        if (shape == null) {
+            shape = getMeshFile().getShape();
+        }
+        return shape;
+    }
+
+    private MeshFile getMeshFile() {
+        if (meshFile == null) {
+            try {
+                meshFile = decode();
+
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not decode map chunk at " + getStateAt(0).position(), ex);
+            }
+        }
+        return meshFile;
+    }
+
+    /** releases the mesh and shape of this chunk. Must be called on the render thread */
+    protected synchronized void unload() {
+        if (mesh != null) mesh.dispose();
+        mesh = null;
+        shape = null;
         meshFile = null;
     }
 
@@ -55,14 +104,14 @@ public abstract class AbstractChunk extends StaticEntity implements MapChunk {
 
     @Override
     public Collision getIntersection(Vector3fc origin, Vector3fc direction) {
-        Collision intersection = shape.getIntersection(origin, direction);
+        Collision intersection = getShape().getIntersection(origin, direction);
         intersection.convertToGlobal(Vectors.Matrix.IDENTITY);
         return intersection;
     }
 
     @Override
     public List<Vector3f> getShapePoints(List<Vector3f> dest, float gameTime) {
-        List<Vector3fc> points = shape.getPoints();
+        List<Vector3fc> points = getShape().getPoints();
 
         int nrOfPoints = points.size();
         for (int i = 0; i < nrOfPoints; i++) {
@@ -89,7 +138,7 @@ public abstract class AbstractChunk extends StaticEntity implements MapChunk {
 
     @Override
     public void dispose() {
-        if (mesh != null) mesh.dispose();
+        unload();
         super.dispose();
     }
 }
@@ -0,0 +1,194 @@
+package NG.GameMap;
+
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Vector3fc;
+
+/**
+ * A quadtree over the columns of a chunk grid, used to find the chunks that are visible from a given view. Each node
+ * caches the union of the bounds of the chunks below it, such that a subtree that lies outside the view frustum or
+ * beyond the view distance is rejected with a single test. Subtrees that lie completely inside the view are accepted
+ * without testing their chunks.
+ * <p>
+ * This class does not depend on any rendering, and the bounds are not updated after construction.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ChunkCullingTree {
+    private final Node root;
+    private final AABBf[][][] bounds;
+    private final int nrOfChunks;
+
+    private int nrOfVisited = 0;
+    private int nrOfVisible = 0;
+
+    /**
+     * @param bounds the bounds of the chunks, indexed as {@code bounds[x][y][z]}. Elements may be null for coordinates
+     *               without a chunk. The array is not copied.
+     */
+    public ChunkCullingTree(AABBf[][][] bounds) {
+        this.bounds = bounds;
+
+        int sizeX = bounds.length;
+        int sizeY = sizeX == 0 ? 0 : bounds[0].length;
+        int count = 0;
+        for (AABBf[][] row : bounds) {
+            for (AABBf[] column : row) {
+                for (AABBf chunk : column) {
+                    if (chunk != null) count++;
+                }
+            }
+        }
+
+        this.nrOfChunks = count;
+        this.root = build(0, 0, sizeX, sizeY);
+    }
+
+    /**
+     * builds the subtree for the columns in [xMin, xMax) x [yMin, yMax)
+     * @return the root of the subtree, or null if the area contains no chunks
+     */
+    private Node build(int xMin, int yMin, int xMax, int yMax) {
+        if (xMin >= xMax || yMin >= yMax) return null;
+
+        if (xMax - xMin == 1 && yMax - yMin == 1) {
+            AABBf[] column = bounds[xMin][yMin];
+            Node leaf = new Node(xMin, yMin, null);
+            for (AABBf chunk : column) {
+                if (chunk != null) leaf.bounds.union(chunk);
+            }
+            return leaf.bounds.isValid() ? leaf : null;
+        }
+
+        int xMid = (xMax - xMin > 1) ? (xMin + xMax) / 2 : xMax;
+        int yMid = (yMax - yMin > 1) ? (yMin + yMax) / 2 : yMax;
+        Node[] children = {
+                build(xMin, yMin, xMid, yMid),
+                build(xMid, yMin, xMax, yMid),
+                build(xMin, yMid, xMid, yMax),
+                build(xMid, yMid, xMax, yMax)
+        };
+
+        Node node = new Node(-1, -1, children);
+        for (Node child : children) {
+            if (child != null) node.bounds.union(child.bounds);
+        }
+        return node.bounds.isValid() ? node : null;
+    }
+
+    /**
+     * calls the visitor on every chunk of which the bounds intersect the given frustum, and which is at most {@code
+     * maxDistance} away from the given eye. The counters of this tree are updated accordingly. This method is not
+     * thread-safe.
+     * @param frustum     the view frustum
+     * @param eye         the position to measure the view distance from
+     * @param maxDistance the maximum distance from the eye to the nearest point of a chunk, or {@link
+     *                    Float#POSITIVE_INFINITY} to disable distance culling
+     * @param visitor     receives the grid coordinates of each visible chunk
+     */
+    public void query(FrustumIntersection frustum, Vector3fc eye, float maxDistance, ChunkVisitor visitor) {
+        nrOfVisited = 0;
+        nrOfVisible = 0;
+        if (root == null) return;
+
+        float maxDistSq = maxDistance * maxDistance;
+        query(root, frustum, eye, maxDistSq, false, maxDistance == Float.POSITIVE_INFINITY, visitor);
+    }
+
+    private void query(
+            Node node, FrustumIntersection frustum, Vector3fc eye, float maxDistSq, boolean isInFrustum,
+            boolean isInRange, ChunkVisitor visitor
+    ) {
+        nrOfVisited++;
+
+        if (!isInRange) {
+            if (distanceSquared(node.bounds, eye) > maxDistSq) return;
+            isInRange = farthestDistanceSquared(node.bounds, eye) <= maxDistSq;
+        }
+
+        if (!isInFrustum) {
+            int result = intersect(frustum, node.bounds);
+            if (result >= 0) return; // index of the rejecting plane
+            isInFrustum = (result == FrustumIntersection.INSIDE);
+        }
+
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child != null) query(child, frustum, eye, maxDistSq, isInFrustum, isInRange, visitor);
+            }
+            return;
+        }
+
+        AABBf[] column = bounds[node.x][node.y];
+        for (int z = 0; z < column.length; z++) {
+            AABBf chunk = column[z];
+            if (chunk == null) continue;
+
+            if (!isInFrustum || !isInRange) {
+                nrOfVisited++;
+                if (!isInRange && distanceSquared(chunk, eye) > maxDistSq) continue;
+                if (!isInFrustum && intersect(frustum, chunk) >= 0) continue;
+            }
+
+            nrOfVisible++;
+            visitor.accept(node.x, node.y, z);
+        }
+    }
+
+    /** @return the number of nodes and chunks that have been tested in the last query */
+    public int getNrOfVisited() {
+        return nrOfVisited;
+    }
+
+    /** @return the number of chunks that were passed to the visitor in the last query */
+    public int getNrOfVisible() {
+        return nrOfVisible;
+    }
+
+    /** @return the number of chunks that were rejected in the last query */
+    public int getNrOfCulled() {
+        return nrOfChunks - nrOfVisible;
+    }
+
+    /** @return the number of chunks in this tree */
+    public int getNrOfChunks() {
+        return nrOfChunks;
+    }
+
+    private static int intersect(FrustumIntersection frustum, AABBf box) {
+        return frustum.intersectAab(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    private static float distanceSquared(AABBf box, Vector3fc point) {
+        float dx = Math.max(Math.max(box.minX - point.x(), 0), point.x() - box.maxX);
+        float dy = Math.max(Math.max(box.minY - point.y(), 0), point.y() - box.maxY);
+        float dz = Math.max(Math.max(box.minZ - point.z(), 0), point.z() - box.maxZ);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static float farthestDistanceSquared(AABBf box, Vector3fc point) {
+        float dx = Math.max(point.x() - box.minX, box.maxX - point.x());
+        float dy = Math.max(point.y() - box.minY, box.maxY - point.y());
+        float dz = Math.max(point.z() - box.minZ, box.maxZ - point.z());
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public interface ChunkVisitor {
+        /** receives the grid coordinate of a visible chunk */
+        void accept(int x, int y, int z);
+    }
+
+    private static class Node {
+        final AABBf bounds = new AABBf();
+        /** coordinate of the column of a leaf, or -1 */
+        final int x;
+        final int y;
+        /** four children, some of which may be null, or null if this is a leaf */
+        final Node[] children;
+
+        Node(int x, int y, Node[] children) {
+            this.x = x;
+            this.y = y;
+            this.children = children;
+        }
+    }
+}
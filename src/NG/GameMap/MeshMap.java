@@ -2,29 +2,35 @@ package NG.GameMap;
 
 import NG.Camera.Camera;
 import NG.CollisionDetection.Collision;
+import NG.CollisionDetection.GameState;
 import NG.Core.Game;
+import NG.Core.GameTimer;
+import NG.Core.ServiceHandle;
 import NG.DataStructures.Generic.AABBi;
 import NG.DataStructures.Generic.AveragingQueue;
 import NG.DataStructures.Generic.Color4f;
 import NG.DataStructures.Vector3fx;
 import NG.Entities.Entity;
 import NG.InputHandling.MouseTools.MouseTool;
-import NG.Rendering.GLFWWindow;
 import NG.Rendering.Material;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.MeshLoading.MeshFile;
-import NG.Rendering.Shaders.MaterialShader;
-import NG.Rendering.Shaders.ShaderProgram;
-import NG.Shapes.CustomShape;
+import NG.Settings.Settings;
+import NG.Shapes.Shape;
 import NG.Storable;
 import NG.Tools.Logger;
 import NG.Tools.Vectors;
 import org.joml.*;
 
-import java.io.*;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.Math;
 import java.nio.file.Path;
-import java.util.Random;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static NG.Blocks.FilePieceTypeCollection.SCALE;
 
@@ -34,22 +40,39 @@ import static NG.Blocks.FilePieceTypeCollection.SCALE;
 public class MeshMap extends AbstractMap {
     private static final float MESH_TILE_SIZE = 200; // at least 5 times as big as the planes of the map, preferably bigger
     private static final Vector3fc TILE_SIZE_VEC = new Vector3f(MESH_TILE_SIZE, MESH_TILE_SIZE, MESH_TILE_SIZE);
-    private MapChunk[][][] grid;
+    private static final Color4f MAP_COLOR = new Color4f(85, 153, 0, 1);
+    /** number of frames between two checks for unused chunks */
+    private static final int EVICTION_INTERVAL = 120;
+    /** chunks within this many tiles of an entity are never evicted */
+    private static final int EVICTION_MARGIN = 1;
+
+    private MeshChunk[][][] grid;
+    private MeshMapFile container;
+    private final Set<MeshChunk> loadedChunks = ConcurrentHashMap.newKeySet();
+    private volatile int frameNumber = 0;
     private AABBi gridRange;
     private Vector3ic coordOffset;
     private Vector3ic size;
     private Game game;
-    private AveragingQueue culledChunks = new AveragingQueue(2);
+    private ServiceHandle<Camera> camera;
+    private ServiceHandle<Settings> settings;
+    private ServiceHandle<GameTimer> timer;
+    private ChunkCullingTree cullingTree;
+    private final AveragingQueue visitedNodes = new AveragingQueue(30);
+    private final AveragingQueue culledChunks = new AveragingQueue(30);
+    private final Supplier<String> cullingCounter = () -> String.format(
+            "Map culling: %1.0f visited, %1.0f culled", visitedNodes.average(), culledChunks.average()
+    );
     private File binaryFile;
 
     public MeshMap(Path path, boolean alwaysReload) throws IOException {
         String fullName = path.getFileName().toString();
         String baseName = fullName.substring(0, fullName.lastIndexOf('.'));
-        binaryFile = path.getParent().resolve(baseName + ".binary").toFile();
+        binaryFile = path.getParent().resolve(baseName + ".mapbi").toFile();
 
         if (!alwaysReload && binaryFile.exists()) {
-            try (DataInputStream in = Storable.getInputStream(binaryFile)){
-                readFromDataStream(in);
+            try {
+                readContainer(MeshMapFile.open(binaryFile.toPath()));
                 return;
 
             } catch (Throwable ex){
@@ -57,81 +80,51 @@ public class MeshMap extends AbstractMap {
             }
         }
 
-        DataOutputStream out = Storable.getOutputStream(binaryFile);
         Logger.INFO.print("Creating binary of " + path.getFileName() + "...");
 
         MeshFile file = MeshFile.loadFile(path, Vectors.O, new Vector3f(SCALE, SCALE, SCALE));
-        Logger.DEBUG.print("Loaded map with " + file.getFaces().size() + " planes");
+        Logger.DEBUG.print("Loaded map with " + file.getPacked().nrOfFaces() + " planes");
 
-        HashMap<Vector3i, CustomShape> shapes = file.splitToShapes(MESH_TILE_SIZE, true);
-        int nrOfChunks = shapes.size();
-        Logger.DEBUG.print("Divided map in " + nrOfChunks + " chunks");
-
-        Vector3i min = new Vector3i();
-        Vector3i max = new Vector3i();
-        for (Vector3i v : shapes.keySet()) {
-            max.max(v);
-            min.min(v);
+        MeshMapFile.Writer out = new MeshMapFile.Writer(binaryFile.toPath());
+        try (out) {
+            file.splitToShapes(MESH_TILE_SIZE, true, out::write);
         }
+        Logger.DEBUG.print("Divided map in " + out.getNrOfChunks() + " chunks");
 
-        coordOffset = min;
-        out.writeInt(min.x);
-        out.writeInt(min.y);
-        out.writeInt(min.z);
-
-        size = new Vector3i(max).add(1, 1, 1).sub(min);
-        out.writeInt(size.x());
-        out.writeInt(size.y());
-        out.writeInt(size.z());
-
-        grid = new MapChunk[size.x()][size.y()][size.z()];
-        gridRange = new AABBi(0, 0, 0, size.x() - 1, size.y() - 1, size.z() - 1);
-
-        out.writeInt(nrOfChunks);
-        for (Map.Entry<Vector3i, CustomShape> entry : shapes.entrySet()) {
-            Vector3i p = entry.getKey();
-            CustomShape s = entry.getValue();
-            int x = p.x - min.x;
-            int y = p.y - min.y;
-            int z = p.z - min.z;
-            MeshFile chunkMesh = s.toMeshFile();
-
-            out.writeInt(x);
-            out.writeInt(y);
-            out.writeInt(z);
-            chunkMesh.writeToDataStream(out);
-
-            grid[x][y][z] = new MeshChunk(this, x, y, z, chunkMesh);
-        }
-
-        out.close();
+        readContainer(MeshMapFile.open(binaryFile.toPath()));
         Logger.DEBUG.print("Done loading map, created file " + binaryFile + " of " + out.size() / 1024 + " kB");
     }
 
-    private void readFromDataStream(DataInputStream in) throws IOException {
-        coordOffset = new Vector3i(in.readInt(), in.readInt(), in.readInt());
-        size = new Vector3i(in.readInt(), in.readInt(), in.readInt());
-        grid = new MapChunk[size.x()][size.y()][size.z()];
+    /**
+     * sets up the grid of this map from the given container. The chunks are not decoded until they are used.
+     */
+    private void readContainer(MeshMapFile container) {
+        this.container = container;
+        coordOffset = container.getCoordOffset();
+        size = container.getSize();
+        grid = new MeshChunk[size.x()][size.y()][size.z()];
         gridRange = new AABBi(0, 0, 0, size.x() - 1, size.y() - 1, size.z() - 1);
 
-        int nrOfChunks = in.readInt();
-        for (int i = 0; i < nrOfChunks; i++) {
-            int x = in.readInt();
-            int y = in.readInt();
-            int z = in.readInt();
-            MeshFile file = new MeshFile(in);
-            grid[x][y][z] = new MeshChunk(this, x, y, z, file);
+        AABBf[][][] bounds = new AABBf[size.x()][size.y()][size.z()];
+
+        Vector3i coord = new Vector3i();
+        for (int i = 0; i < container.getNrOfChunks(); i++) {
+            container.getGridCoordinate(i, coord);
+            MeshChunk chunk = new MeshChunk(coord.x, coord.y, coord.z, i);
+            grid[coord.x][coord.y][coord.z] = chunk;
+            bounds[coord.x][coord.y][coord.z] = chunk.getHitbox(0);
         }
+
+        cullingTree = new ChunkCullingTree(bounds);
     }
 
     @Override
     public void init(Game game) throws Exception {
         this.game = game;
-        game.executeOnRenderThread(() -> {
-            for (MapChunk chunk : getChunks()) {
-                chunk.loadMesh();
-            }
-        });
+        this.camera = game.handle(Camera.class);
+        this.settings = game.handle(Settings.class);
+        this.timer = game.handle(GameTimer.class);
+        Logger.printOnline(cullingCounter);
     }
 
     @Override
@@ -157,6 +150,8 @@ public class MeshMap extends AbstractMap {
     @Override
     public Collection<MapChunk> getChunks() {
         int nrOfChunks = size.x() * size.y() * size.z();
+        // a map without chunks has a grid of size 0
+        if (nrOfChunks == 0) return Collections.emptyList();
 
         return new AbstractCollection<>() {
             @Override
@@ -203,40 +198,51 @@ public class MeshMap extends AbstractMap {
         assert gl.getPosition(Vectors.O).equals(Vectors.O) : "gl object not placed at origin";
         float renderTime = 0; // map is static
 
-        ShaderProgram shader = gl.getShader();
-        boolean isMaterialShader = shader instanceof MaterialShader;
-        if (isMaterialShader) {
-            ((MaterialShader) shader).setMaterial(Material.ROUGH, new Color4f(85, 153, 0, 1));
-        }
-
-        GLFWWindow window = game.get(GLFWWindow.class);
-        Matrix4f viewProjection = game.get(Camera.class)
-                .getViewProjection((float) window.getWidth() / window.getHeight());
-        FrustumIntersection fic = new FrustumIntersection().set(viewProjection, false);
-        int numOfCulled = 0;
+        gl.setMaterial(Material.ROUGH, MAP_COLOR);
 
-        Random rand = new Random(0);
+        // use the projection of the current pass, such that shadow passes cull against the light volume
+        FrustumIntersection fic = new FrustumIntersection().set(gl.getViewProjectionMatrix(), false);
+        Vector3fc eye = camera.get().getEye();
+        float viewDistance = settings.get().MAP_VIEW_DISTANCE;
 
-        for (MapChunk[][] row : grid) {
-            for (MapChunk[] chunks : row) {
-                for (MapChunk chunk : chunks) {
-                    if (chunk == null) continue;
+        cullingTree.query(fic, eye, viewDistance, (x, y, z) -> grid[x][y][z].draw(gl, renderTime));
 
-                    if (isMaterialShader) ((MaterialShader) shader).setMaterial(Material.ROUGH, Color4f.rgb(
-                            rand.nextInt(255), rand.nextInt(255), rand.nextInt(255), 1));
+        visitedNodes.add(cullingTree.getNrOfVisited());
+        culledChunks.add(cullingTree.getNrOfCulled());
 
-                    boolean isVisible = chunk.getHitbox(0).testFustrum(fic);
+        if (++frameNumber % EVICTION_INTERVAL == 0) {
+            evictChunks(timer.get().getRendertime());
+        }
+    }
 
-                    if (isVisible) {
-                        chunk.draw(gl, renderTime);
-                    } else {
-                        numOfCulled++;
-                    }
-                }
+    /**
+     * releases the decoded mesh and shape of every chunk that has not been used since the previous call, and is not
+     * near any entity. Must be called on the render thread.
+     * @param renderTime the time used to query the positions of the entities
+     */
+    private void evictChunks(float renderTime) {
+        if (loadedChunks.isEmpty()) return;
+
+        List<Vector3i> entityCoords = new ArrayList<>();
+        for (GameState state : game.getAll(GameState.class)) {
+            for (Entity entity : state.entities()) {
+                entityCoords.add(getCoordinate(entity.getStateAt(renderTime).position()));
             }
         }
 
-        culledChunks.add(numOfCulled);
+        int threshold = frameNumber - EVICTION_INTERVAL;
+        int nrOfEvicted = 0;
+
+        for (MeshChunk chunk : loadedChunks) {
+            if (chunk.lastUsed > threshold || chunk.isNear(entityCoords)) continue;
+
+            chunk.unload();
+            nrOfEvicted++;
+        }
+
+        if (nrOfEvicted > 0) {
+            Logger.DEBUG.printf("Evicted %d map chunks, %d remain loaded", nrOfEvicted, loadedChunks.size());
+        }
     }
 
     @Override
@@ -246,19 +252,19 @@ public class MeshMap extends AbstractMap {
 
     @Override
     public void cleanup() {
+        Logger.removeOnlinePrint(cullingCounter);
         getChunks().forEach(Entity::dispose);
     }
 
     @Override
     public void writeToDataStream(DataOutputStream out) throws IOException {
-        // transfer contents of the binary file
-        try (InputStream in = new FileInputStream(binaryFile)) {
-            in.transferTo(out);
-        }
+        // transfer contents of the mapped container
+        Storable.writeBuffer(out, container.getData());
     }
 
     private MeshMap(DataInputStream in) throws IOException {
-        readFromDataStream(in);
+        // not copied if the stream reads from a mapped file
+        readContainer(new MeshMapFile(Storable.readBuffer(in)));
     }
 
     private class ChunkItr implements Iterator<MapChunk> {
@@ -305,14 +311,59 @@ public class MeshMap extends AbstractMap {
         }
     }
 
-    private static class MeshChunk extends AbstractChunk {
-        MeshChunk(GameMap parent, int xCoord, int yCoord, int zCoord, MeshFile elt) {
-            super(parent, xCoord, yCoord, zCoord, elt);
+    /**
+     * A chunk of which the mesh and shape are decoded from the container on first use, and are released by {@link
+     * #evictChunks(float)} when unused.
+     */
+    private class MeshChunk extends AbstractChunk {
+        private final int xCoord;
+        private final int yCoord;
+        private final int zCoord;
+        private final int index;
+        private volatile int lastUsed;
+
+        MeshChunk(int xCoord, int yCoord, int zCoord, int index) {
+            super(MeshMap.this, xCoord, yCoord, zCoord, container.getBounds(index));
+            this.xCoord = xCoord;
+            this.yCoord = yCoord;
+            this.zCoord = zCoord;
+            this.index = index;
         }
 
         @Override
-        public void preUpdate(float gameTime, float deltaTime) {
+        protected MeshFile decode() throws IOException {
+            loadedChunks.add(this);
+            return container.readChunk(index);
+        }
+
+        @Override
+        public void loadMesh() {
+            lastUsed = frameNumber;
+            super.loadMesh();
+        }
 
+        @Override
+        protected Shape getShape() {
+            lastUsed = frameNumber;
+            return super.getShape();
+        }
+
+        @Override
+        protected synchronized void unload() {
+            super.unload();
+            loadedChunks.remove(this);
+        }
+
+        boolean isNear(List<Vector3i> coordinates) {
+            for (Vector3i c : coordinates) {
+                if (Math.abs(c.x - xCoord) <= EVICTION_MARGIN
+                        && Math.abs(c.y - yCoord) <= EVICTION_MARGIN
+                        && Math.abs(c.z - zCoord) <= EVICTION_MARGIN
+                ) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 }
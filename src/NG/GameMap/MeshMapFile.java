@@ -0,0 +1,313 @@
+package NG.GameMap;
+
+import NG.BufferReader;
+import NG.BufferWriter;
+import NG.CollisionDetection.BoundingBox;
+import NG.Rendering.MeshLoading.MeshFile;
+import NG.Rendering.MeshLoading.PackedMesh;
+import NG.StorableInputStream;
+import NG.StorableOutputStream;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A container of map chunks. The file starts with a fixed-size header, followed by the data of the chunks, and ends
+ * with a table that maps each chunk to its coordinate, its bounds and the position of its data in the file. Opening a
+ * container only reads the header and the table. The chunks themselves are decoded when requested, directly from the
+ * memory-mapped file.
+ * <p>
+ * Layout of the header:
+ * <pre>
+ * int magic, int version,
+ * int minX, int minY, int minZ,
+ * int sizeX, int sizeY, int sizeZ,
+ * int nrOfChunks, long tableOffset
+ * </pre>
+ * Layout of each table entry:
+ * <pre>
+ * int x, int y, int z,
+ * float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+ * long dataOffset, int dataLength
+ * </pre>
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class MeshMapFile {
+    private static final int MAGIC = 0x4E474D50; // NGMP
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 9 * Integer.BYTES + Long.BYTES;
+    private static final int ENTRY_SIZE = 4 * Integer.BYTES + 6 * Float.BYTES + Long.BYTES;
+    private static final int CHUNK_CAPACITY = 1 << 14;
+
+    private final ByteBuffer data;
+    private final Vector3ic coordOffset;
+    private final Vector3ic size;
+    private final int nrOfChunks;
+
+    private final int[] coords;
+    private final float[] bounds;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    /**
+     * reads the header and chunk table of the container in the given buffer. The contents of the chunks are not read.
+     * @param data a buffer with at position 0 the start of a container
+     * @throws IOException if the buffer does not contain a valid container
+     */
+    public MeshMapFile(ByteBuffer data) throws IOException {
+        this.data = data;
+
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Data is not a map container");
+        }
+        int version = data.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported map container version " + version);
+
+        coordOffset = new Vector3i(data.getInt(8), data.getInt(12), data.getInt(16));
+        size = new Vector3i(data.getInt(20), data.getInt(24), data.getInt(28));
+        nrOfChunks = data.getInt(32);
+        long tableOffset = data.getLong(36);
+
+        if (tableOffset + (long) nrOfChunks * ENTRY_SIZE > data.limit()) {
+            throw new IOException("Map container is truncated");
+        }
+
+        coords = new int[nrOfChunks * 3];
+        bounds = new float[nrOfChunks * 6];
+        offsets = new long[nrOfChunks];
+        lengths = new int[nrOfChunks];
+
+        ByteBuffer table = data.duplicate();
+        table.position((int) tableOffset);
+        for (int i = 0; i < nrOfChunks; i++) {
+            for (int j = 0; j < 3; j++) {
+                coords[i * 3 + j] = table.getInt();
+            }
+            for (int j = 0; j < 6; j++) {
+                bounds[i * 6 + j] = table.getFloat();
+            }
+            offsets[i] = table.getLong();
+            lengths[i] = table.getInt();
+        }
+    }
+
+    /**
+     * opens the given container file by memory-mapping it.
+     * @param file a file written by a {@link Writer}
+     * @return the container, of which no chunk has been decoded yet
+     * @throws IOException if the file could not be read, or is not a valid container
+     */
+    public static MeshMapFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) throw new IOException("Map container is too large: " + fileSize + " bytes");
+
+            // the mapping remains valid after closing the channel
+            return new MeshMapFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize));
+        }
+    }
+
+    /** @return the coordinate of the chunk with the lowest coordinates */
+    public Vector3ic getCoordOffset() {
+        return coordOffset;
+    }
+
+    /** @return the number of chunks in x, y and z direction */
+    public Vector3ic getSize() {
+        return size;
+    }
+
+    public int getNrOfChunks() {
+        return nrOfChunks;
+    }
+
+    /**
+     * @param index the index of a chunk in this container
+     * @param dest  the vector to store the result in
+     * @return the coordinate of the chunk relative to {@link #getCoordOffset()}
+     */
+    public Vector3i getGridCoordinate(int index, Vector3i dest) {
+        return dest.set(coords[index * 3], coords[index * 3 + 1], coords[index * 3 + 2]).sub(coordOffset);
+    }
+
+    /**
+     * @param index the index of a chunk in this container
+     * @return the bounding box of the vertices of this chunk, in world space
+     */
+    public BoundingBox getBounds(int index) {
+        int i = index * 6;
+        return new BoundingBox(bounds[i], bounds[i + 1], bounds[i + 2], bounds[i + 3], bounds[i + 4], bounds[i + 5]);
+    }
+
+    /**
+     * decodes the chunk with the given index
+     * @param index the index of a chunk in this container
+     * @return the mesh of this chunk
+     * @throws IOException if the chunk data is corrupted
+     */
+    public MeshFile readChunk(int index) throws IOException {
+        ByteBuffer chunkData = data.duplicate();
+        int start = (int) offsets[index];
+        chunkData.limit(start + lengths[index]).position(start);
+
+        // the floats and ints of the chunk are copied in bulk from the mapped file
+        return new MeshFile(new StorableInputStream(new BufferReader(chunkData)));
+    }
+
+    /**
+     * @return a read-only view of the complete container. Writing this to a file results in an equivalent container
+     */
+    public ByteBuffer getData() {
+        return data.asReadOnlyBuffer().position(0);
+    }
+
+    /**
+     * Writes a map container. Chunks can be written in any order and from multiple threads. The header and the chunk
+     * table are written when this writer is closed.
+     */
+    public static class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final Vector3i min = new Vector3i(Integer.MAX_VALUE);
+        private final Vector3i max = new Vector3i(Integer.MIN_VALUE);
+
+        private int[] coords = new int[3 * 64];
+        private float[] bounds = new float[6 * 64];
+        private long[] offsets = new long[64];
+        private int[] lengths = new int[64];
+        private int nrOfChunks = 0;
+        private long position = HEADER_SIZE;
+
+        public Writer(Path file) throws IOException {
+            channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+            );
+        }
+
+        /**
+         * appends the given chunk to the container. The chunk is encoded on the calling thread.
+         * @param x     the x coordinate of the chunk
+         * @param y     the y coordinate of the chunk
+         * @param z     the z coordinate of the chunk
+         * @param chunk the contents of the chunk, in world space
+         * @throws IOException if an I/O error occurs
+         */
+        public void write(int x, int y, int z, MeshFile chunk) throws IOException {
+            // packed once, both for writing and for the bounds
+            PackedMesh packed = chunk.getPacked();
+
+            BufferWriter buffer = BufferWriter.heap(CHUNK_CAPACITY);
+            try (DataOutputStream out = new StorableOutputStream(buffer)) {
+                chunk.writeToDataStream(out);
+            }
+
+            float[] chunkBounds = getBounds(packed.vertices);
+            write(x, y, z, chunkBounds, buffer.toBuffer());
+        }
+
+        private synchronized void write(int x, int y, int z, float[] chunkBounds, ByteBuffer chunkData)
+                throws IOException {
+            if (nrOfChunks == offsets.length) {
+                int newSize = nrOfChunks * 2;
+                coords = Arrays.copyOf(coords, newSize * 3);
+                bounds = Arrays.copyOf(bounds, newSize * 6);
+                offsets = Arrays.copyOf(offsets, newSize);
+                lengths = Arrays.copyOf(lengths, newSize);
+            }
+
+            int length = chunkData.remaining();
+            while (chunkData.hasRemaining()) {
+                channel.write(chunkData, position + (length - chunkData.remaining()));
+            }
+
+            coords[nrOfChunks * 3] = x;
+            coords[nrOfChunks * 3 + 1] = y;
+            coords[nrOfChunks * 3 + 2] = z;
+            System.arraycopy(chunkBounds, 0, bounds, nrOfChunks * 6, 6);
+            offsets[nrOfChunks] = position;
+            lengths[nrOfChunks] = length;
+            nrOfChunks++;
+
+            position += length;
+            min.min(new Vector3i(x, y, z));
+            max.max(new Vector3i(x, y, z));
+        }
+
+        /** @return the number of bytes written so far, excluding the chunk table */
+        public synchronized long size() {
+            return position;
+        }
+
+        /** @return the number of chunks written so far */
+        public synchronized int getNrOfChunks() {
+            return nrOfChunks;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (nrOfChunks == 0) {
+                min.zero();
+                max.set(-1);
+            }
+
+            ByteBuffer table = ByteBuffer.allocate(nrOfChunks * ENTRY_SIZE);
+            for (int i = 0; i < nrOfChunks; i++) {
+                for (int j = 0; j < 3; j++) {
+                    table.putInt(coords[i * 3 + j]);
+                }
+                for (int j = 0; j < 6; j++) {
+                    table.putFloat(bounds[i * 6 + j]);
+                }
+                table.putLong(offsets[i]);
+                table.putInt(lengths[i]);
+            }
+            table.flip();
+            writeFully(table, position);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.putInt(min.x).putInt(min.y).putInt(min.z);
+            header.putInt(max.x - min.x + 1).putInt(max.y - min.y + 1).putInt(max.z - min.z + 1);
+            header.putInt(nrOfChunks).putLong(position);
+            header.flip();
+            writeFully(header, 0);
+
+            channel.close();
+        }
+
+        private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+            long target = offset;
+            while (buffer.hasRemaining()) {
+                target += channel.write(buffer, target);
+            }
+        }
+
+        /** @param vertices the x, y and z coordinate of each vertex, as in {@link PackedMesh#vertices} */
+        private static float[] getBounds(float[] vertices) {
+            float[] result = {
+                    Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                    Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+            };
+
+            for (int i = 0; i < vertices.length; i += 3) {
+                float x = vertices[i];
+                float y = vertices[i + 1];
+                float z = vertices[i + 2];
+                result[0] = Math.min(result[0], x);
+                result[1] = Math.min(result[1], y);
+                result[2] = Math.min(result[2], z);
+                result[3] = Math.max(result[3], x);
+                result[4] = Math.max(result[4], y);
+                result[5] = Math.max(result[5], z);
+            }
+
+            return result;
+        }
+    }
+}
@@ -9,7 +9,10 @@ import NG.Settings.KeyBinding;
 import NG.Settings.Settings;
 import NG.Tools.Directory;
 import NG.Tools.Logger;
+import NG.Tools.Metrics;
+import NG.Tools.Profiler;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
@@ -40,6 +43,33 @@ public class ActionButtonHandler implements KeyPressListener, GameAspect {
             case DEBUG_SCREEN:
                 Settings s = game.get(Settings.class);
                 s.DEBUG_SCREEN = !s.DEBUG_SCREEN;
+                break;
+
+            case EXPORT_METRICS:
+                String fileName = "Metrics_" + new SimpleDateFormat("mm_dd-hh_mm_ss").format(new Date());
+                try {
+                    Metrics.exportCsv(Directory.metrics.getPath(fileName + ".csv"));
+                    Metrics.exportJson(Directory.metrics.getPath(fileName + ".json"));
+
+                } catch (IOException ex) {
+                    Logger.ERROR.print(ex);
+                }
+                break;
+
+            case PROFILER_TRACE:
+                if (!Profiler.isTracing()) {
+                    Profiler.startTrace();
+                    Logger.INFO.print("Started recording a profiler trace");
+                    break;
+                }
+
+                String traceName = "Trace_" + new SimpleDateFormat("mm_dd-hh_mm_ss").format(new Date());
+                try {
+                    Profiler.writeTrace(Directory.metrics.getPath(traceName + ".json"));
+
+                } catch (IOException ex) {
+                    Logger.ERROR.print(ex);
+                }
         }
     }
 
@@ -0,0 +1,82 @@
+package NG.InputHandling.Controllers;
+
+import NG.DataStructures.Vector3fx;
+import NG.Entities.Entity;
+import NG.Entities.MovingEntity;
+import NG.Entities.State;
+import org.joml.Vector3f;
+
+/**
+ * A controller for boats without a player, which steers towards a target at full throttle and fires when the target is
+ * ahead. Without a target, or when either entity is disposed, the boat holds still.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class BoatBotController implements BoatControls {
+    private static final float FIRE_ANGLE = (float) Math.toRadians(10);
+    /** the angle to the target at which the steering is at its maximum */
+    private static final float FULL_STEERING_ANGLE = (float) Math.toRadians(45);
+
+    private final MovingEntity boat;
+    private Entity target;
+
+    private final Vector3f heading = new Vector3f();
+    private final Vector3f toTarget = new Vector3f();
+
+    private float throttle = 0;
+    private float steering = 0;
+    private boolean fire = false;
+
+    /**
+     * @param boat   the boat that is controlled by this controller
+     * @param target the entity to chase, or null to hold still
+     */
+    public BoatBotController(MovingEntity boat, Entity target) {
+        this.boat = boat;
+        this.target = target;
+    }
+
+    public void setTarget(Entity target) {
+        this.target = target;
+    }
+
+    @Override
+    public void update(float gameTime) {
+        if (target == null || target.isDisposed() || boat.isDisposed()) {
+            throttle = 0;
+            steering = 0;
+            fire = false;
+            return;
+        }
+
+        State boatState = boat.getStateAt(gameTime);
+        Vector3fx targetPosition = new Vector3fx(target.getStateAt(gameTime).position());
+        boatState.position().subToVector3f(targetPosition, toTarget).negate();
+
+        // boats move in their x direction
+        boatState.orientation().transform(heading.set(1, 0, 0));
+
+        float cross = heading.x * toTarget.y - heading.y * toTarget.x;
+        float dot = heading.x * toTarget.x + heading.y * toTarget.y;
+        float angle = (float) Math.atan2(cross, dot);
+
+        // positive steering rotates the boat counter-clockwise around the z-axis
+        steering = Math.max(-1, Math.min(1, angle / FULL_STEERING_ANGLE));
+        throttle = 1;
+        fire = Math.abs(angle) < FIRE_ANGLE;
+    }
+
+    @Override
+    public float throttle() {
+        return throttle;
+    }
+
+    @Override
+    public float steering() {
+        return steering;
+    }
+
+    @Override
+    public boolean fire() {
+        return fire;
+    }
+}
@@ -0,0 +1,67 @@
+package NG.InputHandling.Controllers;
+
+import NG.Replay.InputJournal;
+
+/**
+ * A controller that records the state of another controller in a journal. The state is sampled once per update, and
+ * this controller returns the sampled state until the next update, such that the simulation uses exactly the recorded
+ * values, even if the source changes in between.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class RecordingBoatController implements BoatControls {
+    private final BoatControls source;
+    private final InputJournal journal;
+    private final int channel;
+
+    private float throttle = 0;
+    private float steering = 0;
+    private boolean fire = false;
+
+    /**
+     * @param source  the controller to record
+     * @param journal the journal to record to
+     * @param channel the channel of this controller in the journal
+     */
+    public RecordingBoatController(BoatControls source, InputJournal journal, int channel) {
+        this.source = source;
+        this.journal = journal;
+        this.channel = channel;
+        journal.control(channel, Float.NEGATIVE_INFINITY, throttle, steering, fire);
+    }
+
+    @Override
+    public void update(float gameTime) {
+        source.update(gameTime);
+
+        float newThrottle = source.throttle();
+        float newSteering = source.steering();
+        boolean newFire = source.fire();
+
+        if (newThrottle != throttle || newSteering != steering || newFire != fire) {
+            throttle = newThrottle;
+            steering = newSteering;
+            fire = newFire;
+            journal.control(channel, gameTime, throttle, steering, fire);
+        }
+    }
+
+    @Override
+    public float throttle() {
+        return throttle;
+    }
+
+    @Override
+    public float steering() {
+        return steering;
+    }
+
+    @Override
+    public boolean fire() {
+        return fire;
+    }
+
+    @Override
+    public void cleanUp() {
+        source.cleanUp();
+    }
+}
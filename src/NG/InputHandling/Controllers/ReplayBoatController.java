@@ -0,0 +1,67 @@
+package NG.InputHandling.Controllers;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * A controller that plays back the states recorded by a {@link RecordingBoatController}. On every update, the last
+ * state recorded at or before the given game time becomes active.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ReplayBoatController implements BoatControls {
+    private final Queue<Sample> samples = new ArrayDeque<>();
+
+    private float throttle = 0;
+    private float steering = 0;
+    private boolean fire = false;
+
+    /**
+     * adds a state to the end of the playback. States must be added in order of game time.
+     */
+    public void add(float gameTime, float throttle, float steering, boolean fire) {
+        samples.add(new Sample(gameTime, throttle, steering, fire));
+    }
+
+    @Override
+    public void update(float gameTime) {
+        Sample next = samples.peek();
+
+        while (next != null && next.gameTime <= gameTime) {
+            throttle = next.throttle;
+            steering = next.steering;
+            fire = next.fire;
+
+            samples.remove();
+            next = samples.peek();
+        }
+    }
+
+    @Override
+    public float throttle() {
+        return throttle;
+    }
+
+    @Override
+    public float steering() {
+        return steering;
+    }
+
+    @Override
+    public boolean fire() {
+        return fire;
+    }
+
+    private static class Sample {
+        final float gameTime;
+        final float throttle;
+        final float steering;
+        final boolean fire;
+
+        Sample(float gameTime, float throttle, float steering, boolean fire) {
+            this.gameTime = gameTime;
+            this.throttle = throttle;
+            this.steering = steering;
+            this.fire = fire;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import NG.InputHandling.MouseTools.DefaultMouseTool;
 import NG.InputHandling.MouseTools.MouseTool;
 import NG.Rendering.GLFWWindow;
 import NG.Tools.Logger;
+import NG.Tools.Metrics;
 import NG.Tools.Toolbox;
 import org.joml.Vector2i;
 import org.lwjgl.glfw.*;
@@ -28,6 +29,7 @@ public class MouseToolCallbacks implements GameAspect, KeyMouseCallbacks {
 
     private DefaultMouseTool DEFAULT_MOUSE_TOOL;
     private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Metrics.Histogram queueDepth = Metrics.histogram("input.queue.depth");
     private Thread executiveExecuter = new Thread(this::taskExecution, "InputHandlerThread");
 
     private Game game;
@@ -198,6 +200,7 @@ public class MouseToolCallbacks implements GameAspect, KeyMouseCallbacks {
     private void execute(Runnable action) {
         synchronized (tasks) {
             tasks.add(action);
+            queueDepth.record(tasks.size());
             tasks.notify();
         }
     }
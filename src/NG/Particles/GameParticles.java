@@ -4,25 +4,41 @@ import NG.Core.Game;
 import NG.Core.GameAspect;
 import NG.Core.GameTimer;
 import NG.Rendering.MatrixStack.SGL;
+import NG.Rendering.MeshLoading.Mesh;
+import NG.Tools.Toolbox;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static NG.Particles.ParticleBuffer.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
 /**
- * ordinary container for particles
+ * container for particles. All particles are kept in a single {@link ParticleBuffer}, which is mirrored in one vertex
+ * buffer on the GPU and drawn with a single draw call. Only the records that changed since the last frame are
+ * uploaded.
  * @author Geert van Ieperen created on 3-4-2019.
  */
 public class GameParticles implements GameAspect {
-    private final List<ParticleCloud> particles;
+    /** maximum number of particles alive at the same time */
+    private static final int MAX_PARTICLES = 1 << 17;
+
+    private final ParticleBuffer buffer;
+    private final ParticleEmitter emitter;
     private final List<ParticleCloud> newParticles;
     private final Lock newLock;
+    private ParticleMesh mesh = null;
     private Game game;
 
-
     public GameParticles() {
-        this.particles = new ArrayList<>();
+        this.buffer = new ParticleBuffer(MAX_PARTICLES);
+        this.emitter = new ParticleEmitter();
         newParticles = new ArrayList<>();
 
         newLock = new ReentrantLock();
@@ -45,30 +61,132 @@ public class GameParticles implements GameAspect {
     public void draw(SGL gl) {
         float now = game.get(GameTimer.class).getRendertime();
 
-        particles.removeIf(cloud -> cloud.disposeIfFaded(now));
-
         newLock.lock();
         try {
-            newParticles.stream()
-                    .flatMap(ParticleCloud::granulate)
-                    .peek(c -> c.writeToGL(now))
-                    .forEach(particles::add);
-
+            for (ParticleCloud cloud : newParticles) {
+                emitter.emit(cloud, buffer, now);
+            }
             newParticles.clear();
         } finally {
             newLock.unlock();
         }
 
-        for (ParticleCloud cloud : particles) {
-            gl.render(cloud, null);
-        }
+        buffer.update(now);
+        if (buffer.size() == 0) return;
+
+        if (mesh == null) mesh = new ParticleMesh();
+        mesh.upload();
+        gl.render(mesh, null);
+    }
+
+    /** @return the number of particles that are stored, including expired particles that are not yet removed */
+    public int getNrOfParticles() {
+        return buffer.size();
+    }
+
+    /** @return the number of particles removed before expiring, because the maximum number of particles was reached */
+    public int getNrOfDropped() {
+        return buffer.getNrOfDropped();
     }
 
     @Override
     public void cleanup() {
         newLock.lock();
-        particles.clear();
-        newParticles.clear();
-        newLock.unlock();
+        try {
+            newParticles.clear();
+            buffer.clear();
+
+            if (mesh != null) {
+                mesh.dispose();
+                mesh = null;
+            }
+        } finally {
+            newLock.unlock();
+        }
+    }
+
+    /**
+     * the GPU side of the particle buffer. The vertex buffer has the same layout as the particle buffer, such that
+     * changed records can be copied without conversion.
+     */
+    private class ParticleMesh implements Mesh {
+        private final int vaoId;
+        private final int vboId;
+
+        ParticleMesh() {
+            vaoId = glGenVertexArrays();
+            glBindVertexArray(vaoId);
+
+            // initialize with the full buffer, all records that have not been written are expired
+            vboId = glGenBuffers();
+            glBindBuffer(GL_ARRAY_BUFFER, vboId);
+            glBufferData(GL_ARRAY_BUFFER, buffer.getData(), GL_DYNAMIC_DRAW);
+            buffer.markClean();
+
+            glVertexAttribPointer(0, 3, GL_FLOAT, false, RECORD_SIZE, POSITION_OFFSET); // position
+            glVertexAttribPointer(1, 3, GL_FLOAT, false, RECORD_SIZE, MOVEMENT_OFFSET); // movement
+            glVertexAttribPointer(2, 4, GL_FLOAT, false, RECORD_SIZE, COLOR_OFFSET); // color
+            glVertexAttribPointer(3, 2, GL_FLOAT, false, RECORD_SIZE, TIME_OFFSET); // begin and end time
+            glVertexAttribIPointer(4, 1, GL_INT, RECORD_SIZE, RANDOM_OFFSET); // random
+
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            glBindVertexArray(0);
+            Toolbox.checkGLError();
+        }
+
+        /** copies the records that changed since the last upload to the GPU */
+        void upload() {
+            int nrOfDirty = buffer.getNrOfDirty();
+            if (nrOfDirty == 0) return;
+
+            int start = buffer.getDirtyStart();
+            int capacity = buffer.getCapacity();
+            int firstPart = Math.min(nrOfDirty, capacity - start);
+
+            glBindBuffer(GL_ARRAY_BUFFER, vboId);
+            uploadRange(start, firstPart);
+            if (firstPart < nrOfDirty) {
+                // the dirty range wraps around the end of the buffer
+                uploadRange(0, nrOfDirty - firstPart);
+            }
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+            buffer.markClean();
+        }
+
+        private void uploadRange(int first, int count) {
+            ByteBuffer data = buffer.getData();
+            data.position(first * RECORD_SIZE);
+            data.limit((first + count) * RECORD_SIZE);
+            glBufferSubData(GL_ARRAY_BUFFER, first * RECORD_SIZE, data);
+        }
+
+        @Override
+        public void render(SGL.Painter lock) {
+            glBindVertexArray(vaoId);
+            glEnableVertexAttribArray(0);
+            glEnableVertexAttribArray(1);
+            glEnableVertexAttribArray(2);
+            glEnableVertexAttribArray(3);
+            glEnableVertexAttribArray(4);
+
+            glDrawArrays(GL_POINTS, buffer.getDrawStart(), buffer.getDrawCount());
+
+            glDisableVertexAttribArray(0);
+            glDisableVertexAttribArray(1);
+            glDisableVertexAttribArray(2);
+            glDisableVertexAttribArray(3);
+            glDisableVertexAttribArray(4);
+            glBindVertexArray(0);
+        }
+
+        @Override
+        public void dispose() {
+            glBindBuffer(GL_ARRAY_BUFFER, 0);
+            glDeleteBuffers(vboId);
+
+            glBindVertexArray(0);
+            glDeleteVertexArrays(vaoId);
+        }
     }
 }
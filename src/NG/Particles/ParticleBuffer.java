@@ -0,0 +1,255 @@
+package NG.Particles;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-size ring buffer of particle records, stored interleaved in a single off-heap buffer such that it can be
+ * copied to the GPU as-is. New particles are written at the head, and particles are retired from the tail once their
+ * time to live has passed. Particles that expire while an older particle is still alive remain in the buffer until
+ * they are reached by the tail, or until the buffer is compacted. When the buffer is full, the oldest particle is
+ * overwritten.
+ * <p>
+ * Each record consists of:
+ * <pre>
+ * float x, y, z (position), float x, y, z (movement per second), float r, g, b, a (color),
+ * float beginTime, float endTime, int random
+ * </pre>
+ * This class does not use OpenGL; the records that changed since the last upload are given by {@link
+ * #getDirtyStart()} and {@link #getNrOfDirty()}, and the range to draw by {@link #getDrawStart()} and {@link
+ * #getDrawCount()}. This class is not thread-safe.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ParticleBuffer {
+    public static final int POSITION_OFFSET = 0;
+    public static final int MOVEMENT_OFFSET = 3 * Float.BYTES;
+    public static final int COLOR_OFFSET = 6 * Float.BYTES;
+    public static final int TIME_OFFSET = 10 * Float.BYTES;
+    public static final int RANDOM_OFFSET = 12 * Float.BYTES;
+    /** size of one particle record in bytes */
+    public static final int RECORD_SIZE = 12 * Float.BYTES + Integer.BYTES;
+
+    /** fraction of the capacity above which the buffer is compacted */
+    private static final float COMPACTION_THRESHOLD = 0.75f;
+
+    private final ByteBuffer data;
+    private final int capacity;
+    private final byte[] recordBuffer = new byte[RECORD_SIZE];
+
+    private int tail = 0;
+    private int size = 0;
+    private int dirtyStart = 0;
+    private int nrOfDirty = 0;
+    private int sizeAfterCompaction = 0;
+
+    private int nrOfDropped = 0;
+    private int nrOfCompactions = 0;
+
+    /**
+     * @param capacity the maximum number of particles in this buffer
+     */
+    public ParticleBuffer(int capacity) {
+        this.capacity = capacity;
+        this.data = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * adds a particle at the head of the buffer. If the buffer is full, the oldest particle is removed.
+     * @param beginTime the time where the particle is at the given position
+     * @param endTime   the time where the particle disappears
+     * @param random    a random number used by the shader
+     */
+    public void add(
+            float x, float y, float z, float xMove, float yMove, float zMove,
+            float red, float green, float blue, float alpha, float beginTime, float endTime, int random
+    ) {
+        if (size == capacity) {
+            tail = next(tail);
+            size--;
+            nrOfDropped++;
+        }
+
+        int index = head();
+        int offset = index * RECORD_SIZE;
+        data.putFloat(offset + POSITION_OFFSET, x);
+        data.putFloat(offset + POSITION_OFFSET + 4, y);
+        data.putFloat(offset + POSITION_OFFSET + 8, z);
+        data.putFloat(offset + MOVEMENT_OFFSET, xMove);
+        data.putFloat(offset + MOVEMENT_OFFSET + 4, yMove);
+        data.putFloat(offset + MOVEMENT_OFFSET + 8, zMove);
+        data.putFloat(offset + COLOR_OFFSET, red);
+        data.putFloat(offset + COLOR_OFFSET + 4, green);
+        data.putFloat(offset + COLOR_OFFSET + 8, blue);
+        data.putFloat(offset + COLOR_OFFSET + 12, alpha);
+        data.putFloat(offset + TIME_OFFSET, beginTime);
+        data.putFloat(offset + TIME_OFFSET + 4, endTime);
+        data.putInt(offset + RANDOM_OFFSET, random);
+
+        size++;
+        markDirty(index);
+    }
+
+    /**
+     * retires the particles at the tail that have expired, and compacts the buffer if it is getting full.
+     * @param currentTime the current render time
+     */
+    public void update(float currentTime) {
+        while (size > 0 && getEndTime(tail) <= currentTime) {
+            tail = next(tail);
+            size--;
+        }
+
+        // only compact if enough particles have been added to make it worthwhile
+        int growth = size - sizeAfterCompaction;
+        if (size > capacity * COMPACTION_THRESHOLD && growth > capacity * (1 - COMPACTION_THRESHOLD)) {
+            compact(currentTime);
+        }
+    }
+
+    /**
+     * removes all expired particles between the tail and the head, by moving the live particles towards the tail. The
+     * order of the live particles is preserved.
+     * @param currentTime the current render time
+     */
+    public void compact(float currentTime) {
+        int oldHead = head();
+        int oldSize = size;
+        int read = tail;
+        int write = tail;
+        int nrOfLive = 0;
+
+        for (int i = 0; i < oldSize; i++) {
+            if (getEndTime(read) > currentTime) {
+                if (read != write) copyRecord(read, write);
+                write = next(write);
+                nrOfLive++;
+            }
+            read = next(read);
+        }
+
+        // records between the new and the old head are moved or expired, and must not be drawn again
+        for (int i = nrOfLive; i < oldSize; i++) {
+            data.putFloat(write * RECORD_SIZE + TIME_OFFSET + 4, 0);
+            write = next(write);
+        }
+        assert write == oldHead;
+
+        size = nrOfLive;
+        sizeAfterCompaction = nrOfLive;
+        nrOfCompactions++;
+
+        // records outside the old range are expired, both here and in any earlier upload
+        if (nrOfLive < oldSize) {
+            dirtyStart = tail;
+            nrOfDirty = oldSize;
+        }
+    }
+
+    /** removes all particles */
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            data.putFloat(i * RECORD_SIZE + TIME_OFFSET + 4, 0);
+        }
+        tail = 0;
+        size = 0;
+        sizeAfterCompaction = 0;
+        dirtyStart = 0;
+        nrOfDirty = capacity;
+    }
+
+    /**
+     * @return a view of the records of this buffer, in native byte order. The position and limit of the view are
+     * independent of this buffer.
+     */
+    public ByteBuffer getData() {
+        return data.duplicate().order(ByteOrder.nativeOrder());
+    }
+
+    /** @return the index of the first record changed since the last call to {@link #markClean()} */
+    public int getDirtyStart() {
+        return dirtyStart;
+    }
+
+    /**
+     * @return the number of records changed since the last call to {@link #markClean()}, starting at {@link
+     * #getDirtyStart()} and wrapping around the end of the buffer
+     */
+    public int getNrOfDirty() {
+        return nrOfDirty;
+    }
+
+    /** marks all records as uploaded */
+    public void markClean() {
+        nrOfDirty = 0;
+    }
+
+    /** @return the index of the first record to draw */
+    public int getDrawStart() {
+        return isWrapped() ? 0 : tail;
+    }
+
+    /**
+     * @return the number of records to draw from {@link #getDrawStart()}. When the particles wrap around the end of
+     * the buffer, the whole buffer is drawn; the shader discards expired particles.
+     */
+    public int getDrawCount() {
+        return isWrapped() ? capacity : size;
+    }
+
+    /** @return the number of particles between tail and head, including expired particles not yet retired */
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return the number of particles that were removed before expiring, because the buffer was full */
+    public int getNrOfDropped() {
+        return nrOfDropped;
+    }
+
+    public int getNrOfCompactions() {
+        return nrOfCompactions;
+    }
+
+    /** @return the time where the particle at the given index disappears */
+    public float getEndTime(int index) {
+        return data.getFloat(index * RECORD_SIZE + TIME_OFFSET + 4);
+    }
+
+    private boolean isWrapped() {
+        return tail + size > capacity;
+    }
+
+    private int head() {
+        int head = tail + size;
+        return head >= capacity ? head - capacity : head;
+    }
+
+    private int next(int index) {
+        return index + 1 == capacity ? 0 : index + 1;
+    }
+
+    /** extends the dirty range forward such that it includes the given index */
+    private void markDirty(int index) {
+        if (nrOfDirty == 0) {
+            dirtyStart = index;
+            nrOfDirty = 1;
+            return;
+        }
+
+        int distance = index - dirtyStart;
+        if (distance < 0) distance += capacity;
+        if (distance >= nrOfDirty) nrOfDirty = Math.min(distance + 1, capacity);
+    }
+
+    private void copyRecord(int source, int target) {
+        data.position(source * RECORD_SIZE);
+        data.get(recordBuffer);
+        data.position(target * RECORD_SIZE);
+        data.put(recordBuffer);
+        data.clear();
+    }
+}
@@ -1,268 +1,136 @@
 package NG.Particles;
 
 import NG.DataStructures.Generic.Color4f;
-import NG.Rendering.MatrixStack.SGL;
-import NG.Rendering.MeshLoading.Mesh;
-import NG.Tools.Toolbox;
 import org.joml.Vector3fc;
-import org.lwjgl.system.MemoryUtil;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.Random;
-import java.util.stream.Stream;
-
-import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.*;
-import static org.lwjgl.opengl.GL30.*;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * a group of particles, each rendered around the same time
+ * a group of particles, each emitted at the same time. The particles are stored in primitive arrays until they are
+ * written to a {@link ParticleBuffer} by a {@link ParticleEmitter}. Clouds can be filled on any thread, but a single
+ * cloud is not thread-safe.
  * @author Geert van Ieperen created on 16-5-2018.
  */
-public class ParticleCloud implements Mesh {
+public class ParticleCloud {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private float[] positions;
+    private float[] movements;
+    private float[] colors;
+    private float[] timesToLive;
+    private int nrOfParticles = 0;
+    private float maxTTL = 0;
 
-    private static final float PARTICLECLOUD_MIN_TIME = 0.5f;
-    private static final int PARTICLECLOUD_SPLIT_SIZE = 1000;
-    private int vaoId;
-    private int posMidVboID;
-    private int moveVboID;
-    private int colorVboID;
-    private int ttlVboID;
-    private int randVboID;
+    public ParticleCloud() {
+        this(INITIAL_CAPACITY);
+    }
 
-    private ArrayList<Particle> bulk = new ArrayList<>();
-    private float maxTTL = 0;
-    private float minTTL = Float.MAX_VALUE;
-    private int nrOfParticles;
-    private float startTime = -1;
+    /**
+     * @param capacity the expected number of particles in this cloud
+     */
+    public ParticleCloud(int capacity) {
+        positions = new float[capacity * 3];
+        movements = new float[capacity * 3];
+        colors = new float[capacity * 4];
+        timesToLive = new float[capacity];
+    }
 
     /**
-     * @param position     position of the middle of the particle
-     * @param color        color of this particle
-     * @param movement     movement of this particle in one second
+     * @param position position of the middle of the particle
+     * @param color    color of this particle
+     * @param movement movement of this particle in one second
      * @param maxTTL   maximum duration of this particle
      */
     public void addParticle(
             Vector3fc position, Vector3fc movement, Color4f color, float maxTTL
     ) {
-
-        final float randFloat = Toolbox.random.nextFloat();
+        final float randFloat = ThreadLocalRandom.current().nextFloat();
         float timeToLive = randFloat * randFloat * maxTTL;
 
-        addParticle(new Particle(position, movement, color, timeToLive));
-    }
-
-    private void addParticle(Particle p) {
-        bulk.add(p);
-        maxTTL = Math.max(maxTTL, p.timeToLive);
-        minTTL = Math.min(minTTL, p.timeToLive);
+        addParticle(
+                position.x(), position.y(), position.z(), movement.x(), movement.y(), movement.z(),
+                color.red, color.green, color.blue, color.alpha, timeToLive
+        );
     }
 
-    /**
-     * @param currentTime initial time in seconds
-     */
-    public void writeToGL(float currentTime) {
-        int numElts = bulk.size();
-        maxTTL += currentTime;
-        minTTL += currentTime;
-
-        nrOfParticles = numElts;
-        startTime = currentTime;
-
-        FloatBuffer positionBuffer = MemoryUtil.memAllocFloat(3 * numElts);
-        FloatBuffer moveBuffer = MemoryUtil.memAllocFloat(3 * numElts);
-        FloatBuffer colorBuffer = MemoryUtil.memAllocFloat(4 * numElts);
-        FloatBuffer ttlBuffer = MemoryUtil.memAllocFloat(2 * numElts);
-
-        IntBuffer randomBuffer = MemoryUtil.memAllocInt(numElts);
-        randomBuffer.put(new Random(Toolbox.random.nextInt())
-                .ints(numElts)
-                .toArray());
-
-        for (int i = 0; i < bulk.size(); i++) {
-            Particle p = bulk.get(i);
-
-            p.position.get(i * 3, positionBuffer);
-            p.movement.get(i * 3, moveBuffer);
-            p.color.put(colorBuffer);
-            ttlBuffer.put(currentTime);
-            ttlBuffer.put(currentTime + p.timeToLive);
-        }
-
-        colorBuffer.flip();
-        ttlBuffer.flip();
-        randomBuffer.flip();
-
-        try {
-            vaoId = glGenVertexArrays();
-            glBindVertexArray(vaoId);
-
-            posMidVboID = loadToGL(positionBuffer, 0, 3); // Position of triangle middle VBO
-            moveVboID = loadToGL(moveBuffer, 1, 3); // Movement VBO
-            colorVboID = loadToGL(colorBuffer, 2, 4); // Color VBO
-            ttlVboID = loadToGL(ttlBuffer, 3, 2); // beginTime-maxTTL VBO
-
-            randVboID = glGenBuffers();
-            glBindBuffer(GL_ARRAY_BUFFER, randVboID);
-            glBufferData(GL_ARRAY_BUFFER, randomBuffer, GL_STATIC_DRAW);
-            glVertexAttribPointer(4, 1, GL_INT, false, 0, 0);
-
-            glBindBuffer(GL_ARRAY_BUFFER, 0);
-            glBindVertexArray(0);
-
-        } finally {
-            MemoryUtil.memFree(positionBuffer);
-            MemoryUtil.memFree(moveBuffer);
-            MemoryUtil.memFree(colorBuffer);
-            MemoryUtil.memFree(ttlBuffer);
-            MemoryUtil.memFree(randomBuffer);
-        }
-
-        Toolbox.checkGLError();
-        bulk = null;
-    }
-
-    /** a rough estimate of the number of visible particles */
-    public int estParticlesAt(float currentTime) {
-        if (bulk != null) return 0;
-
-        float fraction = 1 - ((currentTime - startTime) / (maxTTL - minTTL));
-        if (fraction < 0) return 0;
-        if (fraction > 1) fraction = 1;
-
-        return (int) (nrOfParticles * fraction * fraction); // assuming quadratic despawn
-    }
-
-    public Stream<ParticleCloud> granulate() {
-        float despawnPeriod = maxTTL - minTTL;
-
-        if ((despawnPeriod > PARTICLECLOUD_MIN_TIME) && (bulk.size() > PARTICLECLOUD_SPLIT_SIZE)) {
-            float mid = minTTL + (despawnPeriod / 2);
-
-            ParticleCloud newCloud = splitOff(mid);
-            return Stream.concat(this.granulate(), newCloud.granulate());
-        }
-
-        return Stream.of(this);
+    private void addParticle(
+            float x, float y, float z, float xMove, float yMove, float zMove,
+            float red, float green, float blue, float alpha, float timeToLive
+    ) {
+        ensureCapacity(nrOfParticles + 1);
+        int i = nrOfParticles;
+
+        positions[i * 3] = x;
+        positions[i * 3 + 1] = y;
+        positions[i * 3 + 2] = z;
+        movements[i * 3] = xMove;
+        movements[i * 3 + 1] = yMove;
+        movements[i * 3 + 2] = zMove;
+        colors[i * 4] = red;
+        colors[i * 4 + 1] = green;
+        colors[i * 4 + 2] = blue;
+        colors[i * 4 + 3] = alpha;
+        timesToLive[i] = timeToLive;
+
+        maxTTL = Math.max(maxTTL, timeToLive);
+        nrOfParticles++;
     }
 
     /**
-     * splits off all particles with timeToLive more than the given TTL. The new particles are written to GL
-     * @param newTTL the new maximum ttl of these particles
+     * merges the particles of the other cloud into this cloud
+     * @param other another particle cloud. The other will not be modified
      */
-    public ParticleCloud splitOff(float newTTL) {
-        ParticleCloud newCloud = new ParticleCloud();
-        ArrayList<Particle> newBulk = new ArrayList<>();
-
-        for (Particle p : bulk) {
-            if (p.timeToLive > newTTL) {
-                newCloud.addParticle(p);
-            } else {
-                newBulk.add(p);
-            }
-        }
-
-        maxTTL = newTTL;
-        bulk = newBulk;
+    public void addAll(ParticleCloud other) {
+        int n = other.nrOfParticles;
+        ensureCapacity(nrOfParticles + n);
 
-        return newCloud;
-    }
+        System.arraycopy(other.positions, 0, positions, nrOfParticles * 3, n * 3);
+        System.arraycopy(other.movements, 0, movements, nrOfParticles * 3, n * 3);
+        System.arraycopy(other.colors, 0, colors, nrOfParticles * 4, n * 4);
+        System.arraycopy(other.timesToLive, 0, timesToLive, nrOfParticles, n);
 
-    private static int loadToGL(FloatBuffer buffer, int index, int itemSize) {
-        int vboID = glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, vboID);
-        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
-        glVertexAttribPointer(index, itemSize, GL_FLOAT, false, 0, 0);
-        return vboID;
+        nrOfParticles += n;
+        maxTTL = Math.max(maxTTL, other.maxTTL);
     }
 
-    /**
-     * renders all particles. The particle-shader must be linked first, and writeToGl must be called
-     */
-    @Override
-    public void render(SGL.Painter lock) {
-        glBindVertexArray(vaoId);
-        glEnableVertexAttribArray(0); // Position of triangle middle VBO
-        glEnableVertexAttribArray(1); // Movement VBO
-        glEnableVertexAttribArray(2); // Color VBO
-        glEnableVertexAttribArray(3); // TTL VBO
-        glEnableVertexAttribArray(4); // Rand VBO
-
-        glDrawArrays(GL_POINTS, 0, nrOfParticles);
-
-        glDisableVertexAttribArray(0);
-        glDisableVertexAttribArray(1);
-        glDisableVertexAttribArray(2);
-        glDisableVertexAttribArray(3);
-        glDisableVertexAttribArray(4);
-        glBindVertexArray(0);
+    /** @return the number of particles in this cloud */
+    public int size() {
+        return nrOfParticles;
     }
 
-    public boolean hasFaded(float currentTime) {
-        return currentTime > startTime + maxTTL;
+    /** @return the longest time to live of the particles in this cloud */
+    public float getMaxTTL() {
+        return maxTTL;
     }
 
-    public boolean disposeIfFaded(float currentTime) {
-        if (hasFaded(currentTime)) {
-            dispose();
-            return true;
-        }
-        return false;
+    /** @return the positions of the particles, 3 values per particle. Only the first {@link #size()} are valid */
+    float[] positions() {
+        return positions;
     }
 
-    public void dispose() {
-        glDisableVertexAttribArray(0);
-
-        // Delete the VBOs
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glDeleteBuffers(posMidVboID);
-        glDeleteBuffers(moveVboID);
-        glDeleteBuffers(colorVboID);
-        glDeleteBuffers(ttlVboID);
-        glDeleteBuffers(randVboID);
-
-        // Delete the VAO
-        glBindVertexArray(0);
-        glDeleteVertexArrays(vaoId);
+    /** @return the movements of the particles, 3 values per particle */
+    float[] movements() {
+        return movements;
     }
 
-    /**
-     * merges the other queued particles into this particle Note! this only works before {@link #writeToGL(float)} is
-     * called
-     * @param other another particle cloud. The other will not be modified
-     * @throws NullPointerException if this or the other has called {@link #writeToGL(float)} previously
-     */
-    public void addAll(ParticleCloud other) {
-        this.bulk.addAll(other.bulk);
-        this.maxTTL = Math.max(this.maxTTL, other.maxTTL);
-        this.minTTL = Math.min(this.minTTL, other.minTTL);
+    /** @return the colors of the particles, 4 values per particle */
+    float[] colors() {
+        return colors;
     }
 
-    /**
-     * @return true if particles will be loaded to the GPU after a call to writeToGl() This returns false if there are
-     * no particles loaded, or writeToGl has already been called
-     */
-    public boolean readyToLoad() {
-        return (bulk != null) && !bulk.isEmpty();
+    /** @return the time to live of the particles, 1 value per particle */
+    float[] timesToLive() {
+        return timesToLive;
     }
 
-    /**
-     * record class for particles
-     */
-    private class Particle {
-        public final Vector3fc position;
-        public final Vector3fc movement;
-        public final Color4f color;
-        public final float timeToLive;
+    private void ensureCapacity(int nrOfElements) {
+        if (nrOfElements <= timesToLive.length) return;
 
-        public Particle(Vector3fc position, Vector3fc movement, Color4f color, float timeToLive) {
-            this.position = position;
-            this.movement = movement;
-            this.color = color;
-            this.timeToLive = timeToLive;
-        }
+        int newCapacity = Math.max(nrOfElements, timesToLive.length * 2);
+        positions = Arrays.copyOf(positions, newCapacity * 3);
+        movements = Arrays.copyOf(movements, newCapacity * 3);
+        colors = Arrays.copyOf(colors, newCapacity * 4);
+        timesToLive = Arrays.copyOf(timesToLive, newCapacity);
     }
 }
@@ -0,0 +1,95 @@
+package NG.Particles;
+
+import java.util.SplittableRandom;
+
+/**
+ * Writes particle clouds to a {@link ParticleBuffer}, ordered by time to live. The particles of a cloud are sorted in
+ * bands of similar time to live with a single counting sort, and written with the shortest living band first. As the
+ * buffer retires particles from its tail, this way the particles of a burst are removed progressively, instead of
+ * being kept until the longest living particle of the burst has expired.
+ * <p>
+ * The emitter reuses its sorting arrays, and is not thread-safe. Each thread that writes to a buffer should use its
+ * own emitter.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ParticleEmitter {
+    /** number of time-to-live bands of the sort */
+    public static final int NR_OF_BANDS = 32;
+
+    private final int[] bandStart = new int[NR_OF_BANDS + 1];
+    private final SplittableRandom random;
+    private int[] bands = new int[0];
+    private int[] order = new int[0];
+
+    public ParticleEmitter() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * @param random the source of the random value of each particle. Use {@link SplittableRandom#split()} to create
+     *               emitters for other threads.
+     */
+    public ParticleEmitter(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * writes all particles of the given cloud to the given buffer, such that they start at the given time.
+     * @param cloud       the particles to write
+     * @param target      the buffer to write to
+     * @param currentTime the render time where the particles are emitted
+     */
+    public void emit(ParticleCloud cloud, ParticleBuffer target, float currentTime) {
+        int n = cloud.size();
+        if (n == 0) return;
+
+        sortByBand(cloud.timesToLive(), n, cloud.getMaxTTL());
+
+        float[] positions = cloud.positions();
+        float[] movements = cloud.movements();
+        float[] colors = cloud.colors();
+        float[] timesToLive = cloud.timesToLive();
+
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            target.add(
+                    positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2],
+                    movements[i * 3], movements[i * 3 + 1], movements[i * 3 + 2],
+                    colors[i * 4], colors[i * 4 + 1], colors[i * 4 + 2], colors[i * 4 + 3],
+                    currentTime, currentTime + timesToLive[i], random.nextInt()
+            );
+        }
+    }
+
+    /**
+     * sets the first n elements of {@link #order} to the indices of the particles, sorted on the band of their time to
+     * live. Particles in the same band keep their original order.
+     */
+    private void sortByBand(float[] timesToLive, int n, float maxTTL) {
+        if (order.length < n) {
+            int capacity = Math.max(n, order.length * 2);
+            order = new int[capacity];
+            bands = new int[capacity];
+        }
+
+        // scale such that maxTTL maps to the last band
+        float scale = maxTTL > 0 ? (NR_OF_BANDS - 1) / maxTTL : 0;
+
+        // count the elements of each band, offset by one to compute the start indices in place
+        for (int b = 0; b <= NR_OF_BANDS; b++) {
+            bandStart[b] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int band = Math.min((int) (timesToLive[i] * scale), NR_OF_BANDS - 1);
+            bands[i] = band;
+            bandStart[band + 1]++;
+        }
+        for (int b = 0; b < NR_OF_BANDS; b++) {
+            bandStart[b + 1] += bandStart[b];
+        }
+
+        for (int i = 0; i < n; i++) {
+            order[bandStart[bands[i]]++] = i;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package NG.Particles;
 import NG.DataStructures.Generic.Color4f;
 import NG.Rendering.MatrixStack.MatrixStack;
 import NG.Shapes.Primitives.Plane;
-import NG.Tools.Toolbox;
 import NG.Tools.Vectors;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
@@ -12,6 +11,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -51,13 +51,14 @@ public final class Particles {
             Vector3fc position, Vector3fc meanMovement, Color4f color1, Color4f color2,
             int density, float lingerTime, float power
     ) {
-        ParticleCloud result = new ParticleCloud();
+        ParticleCloud result = new ParticleCloud(density);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
 
         for (int i = 0; i < (density); i++) {
-            Vector3f movement = Vectors.randomOrb();
+            Vector3f movement = Vectors.randomOrb(random);
             movement.mul(power).add(meanMovement);
 
-            float rand = Toolbox.random.nextFloat();
+            float rand = random.nextFloat();
             Color4f interColor = color1.interpolateTo(color2, rand);
 
             result.addParticle(position, movement, interColor, lingerTime);
@@ -70,12 +71,13 @@ public final class Particles {
             Collection<Vector3f[]> splittedTriangles, Vector3fc launchDir, float jitter,
             float deprecationTime, float speed, Color4f particleColor
     ) {
-        ParticleCloud particles = new ParticleCloud();
+        ParticleCloud particles = new ParticleCloud(splittedTriangles.size());
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
         for (Vector3f[] p : splittedTriangles) {
             Vector3f movement = new Vector3f();
-            Vector3f random = Vectors.randomOrb();
+            Vector3f random = Vectors.randomOrb(rng);
 
-            float randFloat = Toolbox.random.nextFloat();
+            float randFloat = rng.nextFloat();
 
             movement = random.mul(jitter * speed * (1 - randFloat), movement);
             movement.add(launchDir);
@@ -0,0 +1,120 @@
+package NG.Rendering;
+
+import NG.Entities.Entity;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * The entities that are visible from one view at one render time. The list is built in an extract phase that tests
+ * the hitbox of every entity against the view frustum, which runs in parallel for larger numbers of entities. Drawing
+ * the list afterwards requires no more tests, such that the render thread only submits the visible entities.
+ * <p>
+ * This class does not use OpenGL. Extracting and reading the list may happen on different threads, as long as the
+ * extraction has finished before the list is read.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class EntityDrawList {
+    /** below this number of entities, extraction runs on the calling thread */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private float renderTime = Float.NaN;
+
+    private Entity[] candidates = new Entity[0];
+    private boolean[] isVisible = new boolean[0];
+    private Entity[] visible = new Entity[0];
+    private int size = 0;
+    private long extractNanos = 0;
+
+    /**
+     * replaces the contents of this list with the entities of the given collection that are visible from the given
+     * view at the given time. The order of the entities is preserved.
+     * @param entities       the entities to consider. This collection is not modified, and not accessed after this
+     *                       method returns.
+     * @param renderTime     the time used to query the hitboxes of the entities
+     * @param viewProjection the view-projection matrix of the view. Its value is copied.
+     * @param doCulling      if false, all entities are added to this list
+     */
+    public void extract(
+            Collection<? extends Entity> entities, float renderTime, Matrix4fc viewProjection, boolean doCulling
+    ) {
+        long start = System.nanoTime();
+        this.renderTime = renderTime;
+        this.viewProjection.set(viewProjection);
+        frustum.set(viewProjection, false);
+
+        int n = 0;
+        for (Entity entity : entities) {
+            if (n == candidates.length) grow();
+            candidates[n++] = entity;
+        }
+
+        if (!doCulling) {
+            Arrays.fill(isVisible, 0, n, true);
+
+        } else if (n < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < n; i++) {
+                isVisible[i] = test(candidates[i]);
+            }
+
+        } else {
+            IntStream.range(0, n).parallel().forEach(i -> isVisible[i] = test(candidates[i]));
+        }
+
+        size = 0;
+        for (int i = 0; i < n; i++) {
+            if (isVisible[i]) {
+                visible[size++] = candidates[i];
+            }
+            candidates[i] = null;
+        }
+        Arrays.fill(visible, size, visible.length, null);
+
+        extractNanos = System.nanoTime() - start;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, candidates.length * 2);
+        candidates = Arrays.copyOf(candidates, capacity);
+        isVisible = new boolean[capacity];
+        visible = new Entity[capacity];
+    }
+
+    private boolean test(Entity entity) {
+        return entity.getHitbox(renderTime).testFustrum(frustum);
+    }
+
+    /**
+     * @return true if this list has been extracted for the given time and view
+     */
+    public boolean matches(float renderTime, Matrix4fc viewProjection) {
+        return this.renderTime == renderTime && this.viewProjection.equals(viewProjection, 0f);
+    }
+
+    /** @return the number of visible entities */
+    public int size() {
+        return size;
+    }
+
+    /** @return the i-th visible entity, with 0 <= i < {@link #size()} */
+    public Entity get(int i) {
+        assert i < size;
+        return visible[i];
+    }
+
+    /** @return the render time of the last extraction */
+    public float getRenderTime() {
+        return renderTime;
+    }
+
+    /** @return the duration of the last extraction in nanoseconds */
+    public long getExtractNanos() {
+        return extractNanos;
+    }
+}
@@ -0,0 +1,152 @@
+package NG.Rendering;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of frames that the GPU may lag behind the CPU. At the end of every frame a fence is inserted in the
+ * command stream, and at the start of a frame the CPU waits on the fence of the frame that was submitted {@code
+ * framesInFlight} frames earlier. This replaces draining the pipeline with {@code glFinish()} on every frame, allowing
+ * the CPU to prepare the next frames while the GPU renders the previous ones.
+ * <p>
+ * This class does not use OpenGL itself; the fences and the clock are given as parameters, such that the pacing can be
+ * run with a simulated GPU. See {@link GLFences} for the implementation on an OpenGL context.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class FramePacer {
+    /** fence handle that represents the absence of a fence */
+    public static final long NO_FENCE = 0;
+    /** maximum duration of a single wait on a fence, after which the wait is repeated */
+    private static final long WAIT_STEP_NANOS = 1_000_000_000L;
+
+    private final Fences fences;
+    private final LongSupplier clock;
+    private final long[] frameFences;
+    private final boolean isSynchronous;
+    private int current = 0;
+
+    private long lastWaitNanos = 0;
+    private long totalWaitNanos = 0;
+    private int nrOfFrames = 0;
+    private int nrOfStalls = 0;
+
+    /**
+     * @param framesInFlight the number of frames that may be submitted while the GPU has not finished them. If 0, every
+     *                       frame waits for the GPU to finish that same frame.
+     * @param fences         the implementation of the fences
+     * @param clock          returns the current time in nanoseconds, like {@link System#nanoTime()}
+     */
+    public FramePacer(int framesInFlight, Fences fences, LongSupplier clock) {
+        if (framesInFlight < 0) throw new IllegalArgumentException("Negative frames in flight: " + framesInFlight);
+        this.fences = fences;
+        this.clock = clock;
+        this.frameFences = new long[Math.max(1, framesInFlight)];
+        this.isSynchronous = (framesInFlight == 0);
+    }
+
+    /**
+     * waits until the number of unfinished frames is less than the number of frames in flight. Must be called before
+     * submitting any commands of a frame.
+     */
+    public void beginFrame() {
+        lastWaitNanos = 0;
+
+        long fence = frameFences[current];
+        if (fence != NO_FENCE) {
+            frameFences[current] = NO_FENCE;
+            await(fence);
+        }
+    }
+
+    /**
+     * marks the end of the commands of a frame. Must be called after submitting the last command of a frame, usually
+     * after swapping buffers.
+     */
+    public void endFrame() {
+        long fence = fences.insert();
+        nrOfFrames++;
+
+        if (isSynchronous) {
+            await(fence);
+
+        } else {
+            frameFences[current] = fence;
+            current = (current + 1) % frameFences.length;
+        }
+    }
+
+    private void await(long fence) {
+        long start = clock.getAsLong();
+
+        boolean isSignaled = fences.await(fence, 0);
+        if (!isSignaled) {
+            nrOfStalls++;
+            do {
+                isSignaled = fences.await(fence, WAIT_STEP_NANOS);
+            } while (!isSignaled);
+        }
+        fences.delete(fence);
+
+        long waited = clock.getAsLong() - start;
+        lastWaitNanos += waited;
+        totalWaitNanos += waited;
+    }
+
+    /** deletes all fences that are still waiting. The pacer can be used again afterwards. */
+    public void cleanup() {
+        for (int i = 0; i < frameFences.length; i++) {
+            if (frameFences[i] != NO_FENCE) {
+                fences.delete(frameFences[i]);
+                frameFences[i] = NO_FENCE;
+            }
+        }
+        current = 0;
+    }
+
+    /** @return the number of frames that are submitted, but not yet known to be finished by the GPU */
+    public int getNrOfFramesInFlight() {
+        int count = 0;
+        for (long fence : frameFences) {
+            if (fence != NO_FENCE) count++;
+        }
+        return count;
+    }
+
+    /** @return the time the last call to {@link #beginFrame()} or {@link #endFrame()} waited for the GPU */
+    public long getLastWaitNanos() {
+        return lastWaitNanos;
+    }
+
+    /** @return the total time waited for the GPU */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /** @return the number of frames ended */
+    public int getNrOfFrames() {
+        return nrOfFrames;
+    }
+
+    /** @return the number of times a fence was not yet signaled when waiting on it */
+    public int getNrOfStalls() {
+        return nrOfStalls;
+    }
+
+    /**
+     * the synchronization primitives of a GPU. Fences are identified by a handle that is never {@link #NO_FENCE}.
+     */
+    public interface Fences {
+        /** inserts a fence after all commands submitted so far, and returns its handle */
+        long insert();
+
+        /**
+         * waits until the given fence is signaled, or until the timeout expires
+         * @param fence        the handle of a fence that was not yet deleted
+         * @param timeoutNanos the maximum time to wait in nanoseconds. If 0, this only checks the fence.
+         * @return true if the fence is signaled
+         */
+        boolean await(long fence, long timeoutNanos);
+
+        /** releases the given fence. The handle is invalid afterwards. */
+        void delete(long fence);
+    }
+}
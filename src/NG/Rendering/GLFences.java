@@ -0,0 +1,40 @@
+package NG.Rendering;
+
+import NG.Tools.Logger;
+
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * The fences of the current OpenGL context, using sync objects. All methods must be called on the thread of the
+ * context.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class GLFences implements FramePacer.Fences {
+    @Override
+    public long insert() {
+        return glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    @Override
+    public boolean await(long fence, long timeoutNanos) {
+        // flush, such that the fence is guaranteed to be signaled eventually
+        int result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, timeoutNanos);
+
+        switch (result) {
+            case GL_ALREADY_SIGNALED:
+            case GL_CONDITION_SATISFIED:
+                return true;
+            case GL_TIMEOUT_EXPIRED:
+                return false;
+            default:
+                // waiting again will not help
+                Logger.ERROR.print("Waiting on fence " + fence + " failed");
+                return true;
+        }
+    }
+
+    @Override
+    public void delete(long fence) {
+        glDeleteSync(fence);
+    }
+}
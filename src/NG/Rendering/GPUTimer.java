@@ -0,0 +1,181 @@
+package NG.Rendering;
+
+import NG.DataStructures.Generic.AveragingQueue;
+import NG.DataStructures.Generic.Pair;
+import NG.DataStructures.Generic.PairList;
+import NG.Tools.TimeObserver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Measures the time the GPU spends on sections of a frame, using timestamp queries. The CPU does not wait for the
+ * results: the queries of a frame are read back in a later frame, once the GPU has finished them. The results are the
+ * average durations in seconds, instead of the fractions of {@link NG.Tools.TimeObserverImpl}.
+ * <p>
+ * All methods must be called on the thread of the OpenGL context. Sections may not overlap.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class GPUTimer implements TimeObserver {
+    private final int queueSize;
+    private final ArrayDeque<Integer> freeQueries = new ArrayDeque<>();
+    private final ArrayDeque<Frame> pendingFrames = new ArrayDeque<>();
+    private final Map<String, AveragingQueue> allMeasures = new HashMap<>();
+    private final Map<String, Long> thisFrameMeasures = new HashMap<>();
+    private final AveragingQueue frameTimes;
+
+    private Frame currentFrame = new Frame();
+    private String currentMeasure = null;
+
+    /**
+     * @param queueSize the number of frames to average the results over
+     */
+    public GPUTimer(int queueSize) {
+        this.queueSize = queueSize;
+        this.frameTimes = new AveragingQueue(queueSize);
+    }
+
+    @Override
+    public void startNewLoop() {
+        if (currentMeasure != null) endTiming(currentMeasure);
+
+        if (!currentFrame.identifiers.isEmpty()) {
+            pendingFrames.add(currentFrame);
+            currentFrame = new Frame();
+        }
+
+        // collect the frames that the GPU has finished, oldest first
+        while (!pendingFrames.isEmpty() && pendingFrames.peek().isAvailable()) {
+            collect(pendingFrames.remove());
+        }
+    }
+
+    @Override
+    public void startTiming(String identifier) {
+        if (currentMeasure != null) endTiming(currentMeasure);
+        currentMeasure = identifier;
+        currentFrame.identifiers.add(identifier);
+        currentFrame.add(timestamp());
+    }
+
+    @Override
+    public void endTiming(String identifier) {
+        if (!identifier.equals(currentMeasure)) throw new IllegalStateException("Was timing " + currentMeasure);
+        currentFrame.add(timestamp());
+        currentMeasure = null;
+    }
+
+    private int timestamp() {
+        Integer query = freeQueries.poll();
+        if (query == null) query = glGenQueries();
+
+        glQueryCounter(query, GL_TIMESTAMP);
+        return query;
+    }
+
+    private void collect(Frame frame) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+
+        for (int i = 0; i < frame.identifiers.size(); i++) {
+            long start = glGetQueryObjecti64(frame.queries[2 * i], GL_QUERY_RESULT);
+            long end = glGetQueryObjecti64(frame.queries[2 * i + 1], GL_QUERY_RESULT);
+            thisFrameMeasures.merge(frame.identifiers.get(i), end - start, Long::sum);
+
+            first = Math.min(first, start);
+            last = Math.max(last, end);
+        }
+
+        for (int i = 0; i < frame.nrOfQueries; i++) {
+            freeQueries.add(frame.queries[i]);
+        }
+
+        frameTimes.add((last - first) / 1e9f);
+        for (String elt : thisFrameMeasures.keySet()) {
+            allMeasures.computeIfAbsent(elt, e -> new AveragingQueue(queueSize));
+        }
+
+        Iterator<Map.Entry<String, AveragingQueue>> iterator = allMeasures.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AveragingQueue> entry = iterator.next();
+            long nanos = thisFrameMeasures.getOrDefault(entry.getKey(), 0L);
+            AveragingQueue queue = entry.getValue();
+            queue.add(nanos / 1e9f);
+
+            if (queue.average() == 0) iterator.remove();
+        }
+
+        thisFrameMeasures.clear();
+    }
+
+    @Override
+    public PairList<String, Float> results() {
+        PairList<String, Float> pairs = new PairList<>(allMeasures.size());
+
+        for (String elt : allMeasures.keySet()) {
+            pairs.add(elt, allMeasures.get(elt).average());
+        }
+
+        pairs.sort((a, b) -> -Float.compare(a.right, b.right));
+
+        return pairs;
+    }
+
+    @Override
+    public String resultsTable() {
+        StringBuilder builder = new StringBuilder(String.format(
+                "GPU time averages of %d frames of %1.04f sec:",
+                queueSize, frameTimes.average()
+        ));
+
+        for (Pair<String, Float> result : results()) {
+            builder.append("\n");
+            builder.append(String.format("| %-30s | %7.03f ms |", result.left, result.right * 1000));
+        }
+        return builder.toString();
+    }
+
+    /** deletes all queries. Results of frames that were not yet collected are discarded. */
+    public void cleanup() {
+        if (currentMeasure != null) endTiming(currentMeasure);
+        pendingFrames.add(currentFrame);
+        currentFrame = new Frame();
+
+        for (Frame frame : pendingFrames) {
+            for (int i = 0; i < frame.nrOfQueries; i++) {
+                freeQueries.add(frame.queries[i]);
+            }
+        }
+        pendingFrames.clear();
+
+        for (Integer query : freeQueries) {
+            glDeleteQueries(query);
+        }
+        freeQueries.clear();
+    }
+
+    /** the queries of one frame, a start and end timestamp for each section */
+    private static class Frame {
+        final List<String> identifiers = new ArrayList<>();
+        int[] queries = new int[16];
+        int nrOfQueries = 0;
+
+        void add(int query) {
+            if (nrOfQueries == queries.length) queries = Arrays.copyOf(queries, nrOfQueries * 2);
+            queries[nrOfQueries++] = query;
+        }
+
+        /** the queries complete in order, such that the last query is available when all of them are */
+        boolean isAvailable() {
+            return glGetQueryObjecti(queries[nrOfQueries - 1], GL_QUERY_RESULT_AVAILABLE) == GL_TRUE;
+        }
+    }
+}
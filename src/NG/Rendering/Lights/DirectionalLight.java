@@ -10,11 +10,16 @@ import NG.Core.Game;
 import NG.DataStructures.Generic.Color4f;
 import NG.Rendering.Shaders.ShaderException;
 import NG.Rendering.Shaders.ShadowMap;
+import NG.Rendering.Textures.Texture2D;
 import NG.Tools.Vectors;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A light source that is infinitely far away. Manages shadow mappings and light properties.
  * @author Dungeons-and-Drawings group
@@ -28,6 +33,7 @@ public class DirectionalLight {
 
     // Shadows related
     private ShadowMap staticShadowMap, dynamicShadowMap;
+    private final ShadowClipmap staticClipmap;
     private Matrix4f ortho = new Matrix4f();
     private Matrix4f lightSpaceMatrix = new Matrix4f();
 
@@ -42,6 +48,7 @@ public class DirectionalLight {
         this.intensity = intensity;
         stRes = staticRes;
         dyRes = dynamicRes;
+        staticClipmap = staticRes > 0 ? new ShadowClipmap(staticRes) : null;
     }
 
     /**
@@ -53,7 +60,7 @@ public class DirectionalLight {
         game.executeOnRenderThread(() -> {
             if (stRes > 0) {
                 staticShadowMap = new ShadowMap(stRes);
-                staticShadowMap.init();
+                staticShadowMap.init(Texture2D.ClampMethod.REPEAT); // addressed as clipmap
             }
             if (dyRes > 0) {
                 dynamicShadowMap = new ShadowMap(dyRes);
@@ -108,6 +115,22 @@ public class DirectionalLight {
         return lightSpaceMatrix;
     }
 
+    /**
+     * moves the static shadow map to the given focus, at the current direction and size of this light.
+     * @param focus the new center of the static shadow map
+     * @return the regions of the static shadow map that must be rendered
+     * @see ShadowClipmap#update(Vector3fc, Vector3fc, float)
+     */
+    public List<ShadowClipmap.Region> updateStaticShadows(Vector3fc focus) {
+        if (staticClipmap == null || lightCubeSize <= 0) return Collections.emptyList();
+        return staticClipmap.update(focus, direction, lightCubeSize);
+    }
+
+    /** @return the matrix to sample the static shadow map, which differs from the light space matrix */
+    public Matrix4fc getStaticLightSpaceMatrix() {
+        return staticClipmap == null ? lightSpaceMatrix : staticClipmap.getLightSpaceMatrix();
+    }
+
     public ShadowMap getStaticShadowMap() {
         return staticShadowMap;
     }
@@ -0,0 +1,199 @@
+package NG.Rendering.Lights;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The layout of a shadow map of a directional light that follows a focus point, such that only the part that becomes
+ * visible has to be rendered when the focus moves. The shadow map is addressed toroidally: every texel covers a fixed
+ * square in light space, and the map wraps around. A point of the world is therefore always stored at the same texel,
+ * and moving the focus only exposes a strip of texels along the edges of the map.
+ * <p>
+ * The map is sampled with {@link #getLightSpaceMatrix()} and a repeating texture. Points further than the half-size
+ * from the focus sample wrapped, unrelated texels.
+ * <p>
+ * This class does not use OpenGL.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ShadowClipmap {
+    private final int resolution;
+    private final Matrix4f lightRotation = new Matrix4f();
+    private final Matrix4f lightSpaceMatrix = new Matrix4f();
+    private final Vector3f direction = new Vector3f();
+    private final List<Region> dirtyRegions = new ArrayList<>();
+
+    private boolean isValid = false;
+    private float halfSize;
+    private float texelSize;
+    private float zNear;
+    private float zFar;
+    /** the depth of the near and far planes, in steps of half the size. No planes are set while this is MIN_VALUE */
+    private int depthStep = Integer.MIN_VALUE;
+    /** the texel of the focus, in unwrapped texel coordinates */
+    private int centerX, centerY;
+
+    /**
+     * @param resolution the number of texels along each side of the shadow map
+     */
+    public ShadowClipmap(int resolution) {
+        this.resolution = resolution;
+    }
+
+    /**
+     * moves the map to the given focus, and collects the regions that must be rendered as a result. If the direction
+     * or size changed, or the focus moved too far, the whole map must be rendered.
+     * @param focus     the point that must be in the center of the shadow map
+     * @param direction the vector to the light source
+     * @param halfSize  the distance from the focus to the sides of the map
+     * @return the regions of the shadow map that must be rendered. The list is reused by the next update.
+     */
+    public List<Region> update(Vector3fc focus, Vector3fc direction, float halfSize) {
+        dirtyRegions.clear();
+
+        if (!this.direction.equals(direction) || this.halfSize != halfSize) {
+            this.direction.set(direction);
+            this.halfSize = halfSize;
+            this.texelSize = 2 * halfSize / resolution;
+            // looking from the light to the scene
+            lightRotation.setLookAlong(-direction.x(), -direction.y(), -direction.z(), 0, 0, 1);
+            // the near and far plane depend on the size
+            depthStep = Integer.MIN_VALUE;
+            isValid = false;
+        }
+
+        Vector3f lightFocus = lightRotation.transformPosition(focus, new Vector3f());
+        int newCenterX = (int) Math.floor(lightFocus.x / texelSize);
+        int newCenterY = (int) Math.floor(lightFocus.y / texelSize);
+
+        // depth only changes in steps of half the size, which cause a full update
+        int newDepthStep = Math.round(-lightFocus.z / (halfSize / 2));
+        if (newDepthStep != depthStep) {
+            depthStep = newDepthStep;
+            float depth = newDepthStep * (halfSize / 2);
+            zNear = depth - 1.5f * halfSize;
+            zFar = depth + 1.5f * halfSize;
+            isValid = false;
+        }
+
+        lightSpaceMatrix
+                .setOrtho(-halfSize, halfSize, -halfSize, halfSize, zNear, zFar)
+                .mul(lightRotation);
+
+        int dx = newCenterX - centerX;
+        int dy = newCenterY - centerY;
+        int half = resolution / 2;
+
+        if (!isValid || Math.abs(dx) >= resolution || Math.abs(dy) >= resolution) {
+            addRect(newCenterX - half, newCenterY - half, resolution, resolution);
+            isValid = true;
+
+        } else {
+            int newMinX = newCenterX - half;
+            int newMinY = newCenterY - half;
+
+            // the columns that were not in the previous map, at all rows
+            if (dx > 0) {
+                addRect(newMinX + resolution - dx, newMinY, dx, resolution);
+            } else if (dx < 0) {
+                addRect(newMinX, newMinY, -dx, resolution);
+            }
+
+            // the rows that were not in the previous map, at the columns that were
+            int oldMinX = Math.max(newMinX, centerX - half);
+            int oldWidth = resolution - Math.abs(dx);
+            if (dy > 0) {
+                addRect(oldMinX, newMinY + resolution - dy, oldWidth, dy);
+            } else if (dy < 0) {
+                addRect(oldMinX, newMinY, oldWidth, -dy);
+            }
+        }
+
+        centerX = newCenterX;
+        centerY = newCenterY;
+
+        return dirtyRegions;
+    }
+
+    /** marks the whole map for rendering on the next update */
+    public void invalidate() {
+        isValid = false;
+    }
+
+    /** adds the given rectangle of unwrapped texel coordinates, split where it wraps around the edges of the map */
+    private void addRect(int minX, int minY, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+
+        int x = Math.floorMod(minX + resolution / 2, resolution);
+        int y = Math.floorMod(minY + resolution / 2, resolution);
+        int firstWidth = Math.min(width, resolution - x);
+        int firstHeight = Math.min(height, resolution - y);
+
+        addRegion(minX, minY, x, y, firstWidth, firstHeight);
+        if (firstWidth < width) {
+            addRegion(minX + firstWidth, minY, 0, y, width - firstWidth, firstHeight);
+        }
+        if (firstHeight < height) {
+            addRegion(minX, minY + firstHeight, x, 0, firstWidth, height - firstHeight);
+            if (firstWidth < width) {
+                addRegion(minX + firstWidth, minY + firstHeight, 0, 0, width - firstWidth, height - firstHeight);
+            }
+        }
+    }
+
+    private void addRegion(int minX, int minY, int x, int y, int width, int height) {
+        Matrix4f projection = new Matrix4f()
+                .setOrtho(
+                        minX * texelSize, (minX + width) * texelSize,
+                        minY * texelSize, (minY + height) * texelSize,
+                        zNear, zFar
+                )
+                .mul(lightRotation);
+
+        dirtyRegions.add(new Region(x, y, width, height, projection));
+    }
+
+    /** @return the matrix that transforms world coordinates to the unwrapped coordinates of this map */
+    public Matrix4fc getLightSpaceMatrix() {
+        return lightSpaceMatrix;
+    }
+
+    /** @return the number of texels along each side of the map */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * a rectangle of texels of the shadow map, with the projection that renders exactly the part of the world stored
+     * in these texels
+     */
+    public static class Region {
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+        public final Matrix4fc projection;
+
+        Region(int x, int y, int width, int height, Matrix4fc projection) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.projection = projection;
+        }
+
+        /** @return the number of texels in this region */
+        public int area() {
+            return width * height;
+        }
+
+        @Override
+        public String toString() {
+            return "Region{" + x + ", " + y + ", " + width + "x" + height + "}";
+        }
+    }
+}
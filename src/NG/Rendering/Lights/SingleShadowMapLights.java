@@ -3,13 +3,18 @@ package NG.Rendering.Lights;
 import NG.Camera.Camera;
 import NG.CollisionDetection.GameState;
 import NG.Core.Game;
+import NG.Core.GameTimer;
+import NG.DataStructures.Generic.AveragingQueue;
 import NG.DataStructures.Generic.Color4f;
+import NG.Entities.Entity;
 import NG.GameMap.GameMap;
+import NG.Rendering.EntityDrawList;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.Shaders.DepthShader;
 import NG.Rendering.Shaders.LightShader;
 import NG.Rendering.Shaders.ShaderProgram;
 import NG.Storable;
+import NG.Tools.Logger;
 import NG.Tools.Toolbox;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
@@ -19,11 +24,13 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import static org.lwjgl.opengl.GL11.*;
 
@@ -43,7 +50,17 @@ public class SingleShadowMapLights implements GameLights {
     private DepthShader shadowShader;
 
     private float lightDist = 1;
-    private boolean staticMapIsDirty = false;
+    private boolean staticMapIsDirty = true;
+
+    private final EntityDrawList casters = new EntityDrawList();
+    private final AveragingQueue dynamicCasters = new AveragingQueue(30);
+    private final AveragingQueue dynamicCandidates = new AveragingQueue(30);
+    private final AveragingQueue staticRegions = new AveragingQueue(30);
+    private final AveragingQueue staticTexels = new AveragingQueue(30);
+    private final Supplier<String> casterCounter = () -> String.format(
+            "Shadows: %1.0f of %1.0f casters, %1.0f static regions of %1.0f texels",
+            dynamicCasters.average(), dynamicCandidates.average(), staticRegions.average(), staticTexels.average()
+    );
 
     public SingleShadowMapLights(int staticResolution, int dynamicResolution) {
         ReadWriteLock rwl = new ReentrantReadWriteLock(false);
@@ -62,6 +79,7 @@ public class SingleShadowMapLights implements GameLights {
         this.sunLight.init(game);
 
         this.shadowShader = shader.get();
+        Logger.printOnline(casterCounter);
     }
 
     @Override
@@ -79,6 +97,7 @@ public class SingleShadowMapLights implements GameLights {
         sunLight.setDirection(origin);
         sunLight.setColor(color);
         sunLight.setIntensity(intensity);
+        staticMapIsDirty = true;
     }
 
     @Override
@@ -108,23 +127,48 @@ public class SingleShadowMapLights implements GameLights {
                 shadowShader.initialize(game);
 
                 if (staticMapIsDirty && sunLight.doStaticShadows()) {
+                    // only renders the part of the map that was not yet in the static shadow map
+                    List<ShadowClipmap.Region> regions = sunLight.updateStaticShadows(sunLight.getLightFocus());
                     shadowShader.setDynamic(false);
                     DepthShader.DepthGL gl = shadowShader.getGL(game);
                     shadowShader.setDirectionalLight(sunLight);
-                    game.get(GameMap.class).draw(gl);
+                    GameMap map = game.get(GameMap.class);
+
+                    int nrOfTexels = 0;
+                    for (ShadowClipmap.Region region : regions) {
+                        shadowShader.setStaticRegion(region);
+                        map.draw(gl);
+                        nrOfTexels += region.area();
+                    }
 
                     gl.cleanup();
+                    staticMapIsDirty = false;
+                    staticRegions.add(regions.size());
+                    staticTexels.add(nrOfTexels);
+
+                } else {
+                    staticRegions.add(0);
+                    staticTexels.add(0);
                 }
 
                 if (sunLight.doDynamicShadows()) {
+                    // only entities in the light frustum cast shadows on the dynamic map
+                    float renderTime = game.get(GameTimer.class).getRendertime();
+                    Collection<Entity> entities = game.get(GameState.class).entities();
+                    casters.extract(entities, renderTime, sunLight.getLightSpaceMatrix(), true);
+
                     glCullFace(GL_FRONT);
                     shadowShader.setDynamic(true);
                     DepthShader.DepthGL gl = shadowShader.getGL(game);
                     shadowShader.setDirectionalLight(sunLight);
-                    game.get(GameState.class).drawEntities(gl);
+                    for (int i = 0; i < casters.size(); i++) {
+                        casters.get(i).draw(gl, renderTime);
+                    }
                     glCullFace(GL_BACK);
 
                     gl.cleanup();
+                    dynamicCasters.add(casters.size());
+                    dynamicCandidates.add(entities.size());
                 }
             }
             shadowShader.unbind();
@@ -133,6 +177,11 @@ public class SingleShadowMapLights implements GameLights {
         }
     }
 
+    /** @return the number of entities rendered in the last dynamic shadow pass */
+    public int getNrOfDynamicCasters() {
+        return casters.size();
+    }
+
     @Override
     public void draw(SGL gl) {
         ShaderProgram shader = gl.getShader();
@@ -155,7 +204,7 @@ public class SingleShadowMapLights implements GameLights {
 
     @Override
     public void cleanup() {
-
+        Logger.removeOnlinePrint(casterCounter);
     }
 
     @Override
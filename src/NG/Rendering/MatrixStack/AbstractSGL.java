@@ -5,8 +5,6 @@ import NG.Entities.State;
 import org.joml.*;
 
 import java.lang.Math;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
 /**
  * An implementation of the Shader GL object, which handles a model matrix and stack operations. No shader-specific
@@ -34,12 +32,12 @@ public abstract class AbstractSGL implements SGL {
     );
 
     protected static final Painter LOCK = new Painter();
-    private Deque<Matrix4f> matrixStack;
+    private final PooledMatrixStack matrixStack;
     private Matrix4f modelMatrix;
 
     public AbstractSGL() {
-        matrixStack = new ArrayDeque<>();
-        modelMatrix = new Matrix4f();
+        matrixStack = new PooledMatrixStack();
+        modelMatrix = matrixStack.current();
     }
 
     @Override
@@ -88,7 +86,7 @@ public abstract class AbstractSGL implements SGL {
 
     @Override
     public void pushMatrix() {
-        matrixStack.push(new Matrix4f(modelMatrix));
+        modelMatrix = matrixStack.push();
     }
 
     @Override
@@ -134,6 +132,7 @@ public abstract class AbstractSGL implements SGL {
         }
     }
 
+    /** @return the current model matrix. The returned matrix is only valid until the next push or pop. */
     protected Matrix4f getModelMatrix() {
         return modelMatrix;
     }
@@ -0,0 +1,74 @@
+package NG.Rendering.MatrixStack;
+
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * A stack of matrices that does not allocate after warming up. Each depth has its own matrix, which is reused by every
+ * push to that depth: a push copies the current matrix into the slot of the next depth, and a pop only decreases the
+ * depth. A matrix is only allocated when the stack becomes deeper than ever before.
+ * <p>
+ * The matrix returned by {@link #current()} is only valid until the next push or pop; it must not be stored.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class PooledMatrixStack {
+    private static final int INITIAL_DEPTH = 16;
+
+    private Matrix4f[] slots;
+    private int depth = 0;
+
+    /** creates a stack with the identity matrix as current matrix */
+    public PooledMatrixStack() {
+        slots = new Matrix4f[INITIAL_DEPTH];
+        slots[0] = new Matrix4f();
+    }
+
+    /** @return the matrix at the top of the stack. This matrix may be modified. */
+    public Matrix4f current() {
+        return slots[depth];
+    }
+
+    /**
+     * pushes a copy of the current matrix on the stack
+     * @return the new current matrix, equal to the previous current matrix
+     */
+    public Matrix4f push() {
+        if (depth + 1 == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+
+        Matrix4f next = slots[depth + 1];
+        if (next == null) {
+            next = new Matrix4f(slots[depth]);
+            slots[depth + 1] = next;
+        } else {
+            next.set(slots[depth]);
+        }
+        depth++;
+        return next;
+    }
+
+    /**
+     * discards the current matrix, restoring the matrix that was current at the matching push
+     * @return the new current matrix
+     * @throws EmptyStackException if there was no matching push
+     */
+    public Matrix4f pop() {
+        if (depth == 0) throw new EmptyStackException();
+        depth--;
+        return slots[depth];
+    }
+
+    /** @return the number of pushes without matching pop */
+    public int depth() {
+        return depth;
+    }
+
+    /** discards all pushed matrices and sets the current matrix to the identity */
+    public void reset() {
+        depth = 0;
+        slots[0].identity();
+    }
+}
@@ -0,0 +1,254 @@
+package NG.Rendering.MatrixStack;
+
+import NG.DataStructures.Generic.Color4f;
+import NG.Rendering.MeshLoading.Mesh;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+
+/**
+ * Records draw commands of a single shader, to execute them sorted on material and mesh. Each command consists of a
+ * mesh, a material and a model matrix, stored in packed arrays that are reused for every frame. On {@link
+ * #flush(Target)}, the commands are sorted such that every material is set once, and commands of the same mesh follow
+ * each other, and then passed to the target.
+ * <p>
+ * This class does not use OpenGL itself, and is not thread-safe.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class RenderCommandBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+    /** number of uniform uploads for setting a material: diffuse, specular and reflectance */
+    private static final int MATERIAL_UNIFORMS = 3;
+    /** number of uniform uploads for each draw: model matrix and normal matrix */
+    private static final int DRAW_UNIFORMS = 2;
+
+    private static final int INDEX_BITS = 24;
+    private static final int MESH_BITS = 24;
+    private static final int MAX_COMMANDS = 1 << INDEX_BITS;
+    private static final int MAX_MATERIALS = (1 << (Long.SIZE - 1 - INDEX_BITS - MESH_BITS)) - 1;
+    /** materials are deduplicated by searching this many of the most recent materials */
+    private static final int MATERIAL_SEARCH_DEPTH = 16;
+
+    private Mesh[] meshes = new Mesh[INITIAL_CAPACITY];
+    private int[] materialIndices = new int[INITIAL_CAPACITY];
+    private float[] matrices = new float[INITIAL_CAPACITY * 16];
+    private long[] sortKeys = new long[INITIAL_CAPACITY];
+    private int nrOfCommands = 0;
+
+    private Color4f[] diffuseColors = new Color4f[16];
+    private Color4f[] specularColors = new Color4f[16];
+    private float[] reflectances = new float[16];
+    private int nrOfMaterials = 0;
+    private int currentMaterial = -1;
+
+    private final Matrix4f modelMatrix = new Matrix4f();
+
+    private int nrOfDraws = 0;
+    private int nrOfMaterialChanges = 0;
+    private int nrOfMeshChanges = 0;
+    private int nrOfUniformUploads = 0;
+
+    /**
+     * sets the material of the commands recorded after this call
+     * @see NG.Rendering.Shaders.MaterialShader#setMaterial(Color4f, Color4f, float)
+     */
+    public void setMaterial(Color4f diffuse, Color4f specular, float reflectance) {
+        int searchEnd = Math.max(0, nrOfMaterials - MATERIAL_SEARCH_DEPTH);
+        for (int i = nrOfMaterials - 1; i >= searchEnd; i--) {
+            if (reflectances[i] == reflectance && diffuseColors[i].equals(diffuse) && specularColors[i].equals(specular)) {
+                currentMaterial = i;
+                return;
+            }
+        }
+
+        if (nrOfMaterials == MAX_MATERIALS) {
+            throw new IllegalStateException("More than " + MAX_MATERIALS + " materials in a single frame");
+        }
+
+        if (nrOfMaterials == reflectances.length) {
+            int newCapacity = nrOfMaterials * 2;
+            diffuseColors = Arrays.copyOf(diffuseColors, newCapacity);
+            specularColors = Arrays.copyOf(specularColors, newCapacity);
+            reflectances = Arrays.copyOf(reflectances, newCapacity);
+        }
+
+        diffuseColors[nrOfMaterials] = diffuse;
+        specularColors[nrOfMaterials] = specular;
+        reflectances[nrOfMaterials] = reflectance;
+        currentMaterial = nrOfMaterials++;
+    }
+
+    /**
+     * records a draw of the given mesh with the current material.
+     * @param mesh        the mesh to draw
+     * @param modelMatrix the model matrix of the mesh. Its value is copied.
+     */
+    public void record(Mesh mesh, Matrix4fc modelMatrix) {
+        if (nrOfCommands == meshes.length) {
+            if (nrOfCommands == MAX_COMMANDS) {
+                throw new IllegalStateException("More than " + MAX_COMMANDS + " draw commands without flushing");
+            }
+
+            int newCapacity = nrOfCommands * 2;
+            meshes = Arrays.copyOf(meshes, newCapacity);
+            materialIndices = Arrays.copyOf(materialIndices, newCapacity);
+            matrices = Arrays.copyOf(matrices, newCapacity * 16);
+            sortKeys = Arrays.copyOf(sortKeys, newCapacity);
+        }
+
+        int i = nrOfCommands++;
+        meshes[i] = mesh;
+        materialIndices[i] = currentMaterial;
+        modelMatrix.get(matrices, i * 16);
+    }
+
+    /**
+     * executes all recorded commands on the given target, sorted on material and then on mesh, and removes them from
+     * this buffer. Commands with equal material and mesh are executed in the order of recording. The current material
+     * remains set for commands recorded after this flush.
+     * @param target the receiver of the sorted commands
+     */
+    public void flush(Target target) {
+        long meshMask = (1L << MESH_BITS) - 1;
+        for (int i = 0; i < nrOfCommands; i++) {
+            // commands without material sort first, as index 0
+            long material = materialIndices[i] + 1;
+            long mesh = System.identityHashCode(meshes[i]) & meshMask;
+            sortKeys[i] = (material << (MESH_BITS + INDEX_BITS)) | (mesh << INDEX_BITS) | i;
+        }
+        Arrays.sort(sortKeys, 0, nrOfCommands);
+
+        int lastMaterial = -1;
+        Mesh lastMesh = null;
+        int indexMask = MAX_COMMANDS - 1;
+
+        for (int k = 0; k < nrOfCommands; k++) {
+            int i = (int) (sortKeys[k] & indexMask);
+
+            int material = materialIndices[i];
+            if (material != lastMaterial && material >= 0) {
+                target.setMaterial(diffuseColors[material], specularColors[material], reflectances[material]);
+                nrOfMaterialChanges++;
+                nrOfUniformUploads += MATERIAL_UNIFORMS;
+                lastMaterial = material;
+            }
+
+            Mesh mesh = meshes[i];
+            if (mesh != lastMesh) {
+                nrOfMeshChanges++;
+                lastMesh = mesh;
+            }
+
+            modelMatrix.set(matrices, i * 16);
+            target.draw(mesh, modelMatrix);
+            nrOfDraws++;
+            nrOfUniformUploads += DRAW_UNIFORMS;
+        }
+
+        clear();
+    }
+
+    /** removes all recorded commands, without executing them. The current material is kept. */
+    public void clear() {
+        Arrays.fill(meshes, 0, nrOfCommands, null);
+        nrOfCommands = 0;
+
+        if (currentMaterial >= 0) {
+            diffuseColors[0] = diffuseColors[currentMaterial];
+            specularColors[0] = specularColors[currentMaterial];
+            reflectances[0] = reflectances[currentMaterial];
+            currentMaterial = 0;
+        }
+
+        int nrOfKept = currentMaterial + 1;
+        Arrays.fill(diffuseColors, nrOfKept, nrOfMaterials, null);
+        Arrays.fill(specularColors, nrOfKept, nrOfMaterials, null);
+        nrOfMaterials = nrOfKept;
+    }
+
+    /** sets the counters of this buffer to zero. The counters accumulate over all flushes since the last reset. */
+    public void resetCounters() {
+        nrOfDraws = 0;
+        nrOfMaterialChanges = 0;
+        nrOfMeshChanges = 0;
+        nrOfUniformUploads = 0;
+    }
+
+    /** @return the number of commands recorded since the last flush */
+    public int size() {
+        return nrOfCommands;
+    }
+
+    /** @return the number of draw calls since the last reset */
+    public int getNrOfDraws() {
+        return nrOfDraws;
+    }
+
+    /** @return the number of times the material was set since the last reset */
+    public int getNrOfMaterialChanges() {
+        return nrOfMaterialChanges;
+    }
+
+    /** @return the number of times a different mesh was drawn than the one before it, since the last reset */
+    public int getNrOfMeshChanges() {
+        return nrOfMeshChanges;
+    }
+
+    /** @return the number of state changes since the last reset: material changes and mesh changes */
+    public int getNrOfStateChanges() {
+        return nrOfMaterialChanges + nrOfMeshChanges;
+    }
+
+    /** @return the number of uniform uploads of the flushes since the last reset */
+    public int getNrOfUniformUploads() {
+        return nrOfUniformUploads;
+    }
+
+    /**
+     * the receiver of the commands of a flush. An implementation that only counts or stores the commands allows using
+     * a command buffer without graphics context.
+     */
+    public interface Target {
+        /**
+         * sets the material for the following draws.
+         * @see NG.Rendering.Shaders.MaterialShader#setMaterial(Color4f, Color4f, float)
+         */
+        void setMaterial(Color4f diffuse, Color4f specular, float reflectance);
+
+        /**
+         * draws the given mesh
+         * @param mesh        the mesh to draw
+         * @param modelMatrix the model matrix of the mesh. This matrix is reused after this call returns.
+         */
+        void draw(Mesh mesh, Matrix4fc modelMatrix);
+    }
+
+    /**
+     * a target that only counts the commands it receives, for flushing a command buffer without graphics context
+     */
+    public static class CountingTarget implements Target {
+        private int nrOfMaterials = 0;
+        private int nrOfDraws = 0;
+
+        @Override
+        public void setMaterial(Color4f diffuse, Color4f specular, float reflectance) {
+            nrOfMaterials++;
+        }
+
+        @Override
+        public void draw(Mesh mesh, Matrix4fc modelMatrix) {
+            nrOfDraws++;
+        }
+
+        /** @return the number of calls to {@link #setMaterial(Color4f, Color4f, float)} */
+        public int getNrOfMaterials() {
+            return nrOfMaterials;
+        }
+
+        /** @return the number of calls to {@link #draw(Mesh, Matrix4fc)} */
+        public int getNrOfDraws() {
+            return nrOfDraws;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package NG.Rendering.MatrixStack;
 
+import NG.DataStructures.Generic.Color4f;
 import NG.Entities.Entity;
+import NG.Rendering.Material;
 import NG.Rendering.MeshLoading.Mesh;
+import NG.Rendering.Shaders.MaterialShader;
 import NG.Rendering.Shaders.ShaderProgram;
 import org.joml.Matrix4fc;
 
@@ -18,6 +21,27 @@ public interface SGL extends MatrixStack {
      */
     void render(Mesh object, Entity sourceEntity);
 
+    /**
+     * sets the material of the meshes rendered after this call, if the shader supports materials. Has no effect
+     * otherwise.
+     * @param material the base properties of the material
+     * @param color    a blending color, or {@link Color4f#BLACK} for no coloring.
+     * @see MaterialShader#setMaterial(Material, Color4f)
+     */
+    default void setMaterial(Material material, Color4f color) {
+        ShaderProgram shader = getShader();
+        if (shader instanceof MaterialShader) {
+            ((MaterialShader) shader).setMaterial(material, color);
+        }
+    }
+
+    /**
+     * executes all render calls of this object that have been delayed. Render calls may be delayed to group them by
+     * state, so this must be called before changing the OpenGL state directly, and after the last render call.
+     */
+    default void flush() {
+    }
+
     /** @return the shader that is used for rendering. */
     ShaderProgram getShader();
 
@@ -1,17 +1,23 @@
 package NG.Rendering.MatrixStack;
 
 import NG.Camera.Camera;
+import NG.DataStructures.Generic.Color4f;
 import NG.Entities.Entity;
+import NG.Rendering.Material;
 import NG.Rendering.MeshLoading.Mesh;
 import NG.Rendering.Shaders.SceneShader;
 import NG.Rendering.Shaders.ShaderProgram;
 import org.joml.*;
 
 /**
+ * An SGL for scene shaders. Render calls are recorded in the {@link RenderCommandBuffer} of the shader, and executed
+ * sorted on material and mesh when {@link #flush()} is called.
  * @author Geert van Ieperen created on 16-11-2017.
  */
-public class SceneShaderGL extends AbstractSGL {
+public class SceneShaderGL extends AbstractSGL implements RenderCommandBuffer.Target {
     private final Matrix4f viewProjectionMatrix;
+    private final RenderCommandBuffer commands;
+    private Matrix4f drawMatrix = new Matrix4f();
     private Matrix3f normalMatrix = new Matrix3f();
 
     private SceneShader shader;
@@ -26,15 +32,43 @@ public class SceneShaderGL extends AbstractSGL {
         super();
         this.shader = shader;
         viewProjectionMatrix = viewpoint.getViewProjection((float) windowWidth / windowHeight);
+
+        // commands of an earlier frame that were never flushed are discarded
+        commands = shader.getCommandBuffer();
+        commands.clear();
+        commands.resetCounters();
     }
 
     @Override
     public void render(Mesh mesh, Entity sourceEntity) {
-        Matrix4f modelMatrix = getModelMatrix();
-        modelMatrix.normal(normalMatrix);
+        commands.record(mesh, getModelMatrix());
+    }
+
+    @Override
+    public void setMaterial(Material material, Color4f color) {
+        Color4f baseColor = material.baseColor.overlay(color);
+        commands.setMaterial(baseColor, material.specular, material.reflectance);
+    }
+
+    @Override
+    public void flush() {
+        if (commands.size() == 0) return;
 
         shader.setProjectionMatrix(viewProjectionMatrix);
-        shader.setModelMatrix(modelMatrix);
+        commands.flush(this);
+    }
+
+    @Override
+    public void setMaterial(Color4f diffuse, Color4f specular, float reflectance) {
+        shader.setMaterial(diffuse, specular, reflectance);
+    }
+
+    @Override
+    public void draw(Mesh mesh, Matrix4fc modelMatrix) {
+        drawMatrix.set(modelMatrix);
+        drawMatrix.normal(normalMatrix);
+
+        shader.setModelMatrix(drawMatrix);
         shader.setNormalMatrix(normalMatrix);
 
         mesh.render(LOCK);
@@ -4,26 +4,27 @@ import NG.DataStructures.Vector3fxc;
 import NG.Entities.State;
 import org.joml.*;
 
-import java.util.Stack;
-
 /**
  * @author Geert van Ieperen created on 27-12-2017.
  */
 public class ShadowMatrix implements MatrixStack {
 
-    private Stack<Matrix4f> matrixStack;
+    private final PooledMatrixStack matrixStack;
     private Matrix4f matrix;
-    private Matrix4f inverseMatrix;
+    private final Matrix4f inverseMatrix;
+    private boolean isInverseValid;
 
     public ShadowMatrix() {
-        matrixStack = new Stack<>();
-        matrix = new Matrix4f();
-        inverseMatrix = null;
+        matrixStack = new PooledMatrixStack();
+        matrix = matrixStack.current();
+        inverseMatrix = new Matrix4f();
+        isInverseValid = false;
     }
 
     @Override
     public void rotate(float angle, float x, float y, float z) {
-        rotate(new AxisAngle4f(angle, x, y, z));
+        matrix.rotate(angle, x, y, z);
+        isInverseValid = false;
     }
 
     @Override
@@ -31,24 +32,24 @@ public class ShadowMatrix implements MatrixStack {
         Vector3fxc pos = state.position();
         matrix.translate(pos.x(), pos.y(), pos.z());
         matrix.rotate(state.orientation());
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     public void rotate(AxisAngle4f rotation) {
         matrix.rotate(rotation);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void translate(float x, float y, float z) {
         matrix.translate(x, y, z);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void scale(float x, float y, float z) {
         matrix.scale(x, y, z);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
@@ -65,50 +66,60 @@ public class ShadowMatrix implements MatrixStack {
 
     @Override
     public void pushMatrix() {
-        matrixStack.push(new Matrix4f(matrix));
-        inverseMatrix = null;
+        matrix = matrixStack.push();
+        // the new matrix is a copy, so the inverse remains valid
     }
 
     @Override
     public void popMatrix() {
         matrix = matrixStack.pop();
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void rotate(Quaternionfc rotation) {
         matrix.rotate(rotation);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void translate(Vector3fc v) {
         matrix.translate(v);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void multiplyAffine(Matrix4fc postTransformation) {
         matrix.mulAffine(postTransformation);
-        inverseMatrix = null;
+        isInverseValid = false;
     }
 
     @Override
     public void rotateXYZ(float x, float y, float z) {
         matrix.rotateXYZ(x, y, z);
-        inverseMatrix = null;
+        isInverseValid = false;
+    }
+
+    /** discards all pushed matrices and sets the matrix to the identity, such that this object can be reused */
+    public void reset() {
+        matrixStack.reset();
+        matrix = matrixStack.current();
+        isInverseValid = false;
     }
 
     @Override
     public String toString() {
         return "ShadowMatrix{\n" +
                 "matrix=" + matrix +
-                ", stackSize=" + matrixStack.size() +
+                ", stackSize=" + matrixStack.depth() +
                 "\n}";
     }
 
     public Vector3f mapToLocal(Vector3f p) {
-        if (inverseMatrix == null) inverseMatrix = matrix.invertAffine(new Matrix4f());
+        if (!isInverseValid) {
+            matrix.invertAffine(inverseMatrix);
+            isInverseValid = true;
+        }
 
         Vector3f result = new Vector3f();
         p.mulPosition(inverseMatrix, result);
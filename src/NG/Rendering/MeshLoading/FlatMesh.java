@@ -76,6 +76,44 @@ public class FlatMesh extends AbstractMesh {
         this(posList, normList, null, facesList);
     }
 
+    /**
+     * Creates a mesh from the given packed data, without creating intermediate vector objects. Faces with more than
+     * three vertices are split in a fan of triangles. This may only be called on the main thread.
+     * @param data the data of the mesh
+     */
+    public FlatMesh(PackedMesh data) {
+        int nrOfFaces = data.nrOfFaces();
+        int nrOfTriangles = 0;
+        for (int i = 0; i < nrOfFaces; i++) {
+            nrOfTriangles += data.faceSize(i) - 2;
+        }
+        if (nrOfTriangles <= 0) return;
+
+        int nrOf3VecElements = nrOfTriangles * 3 * 3;
+        setElementCount(nrOf3VecElements);
+        float[] posArr = new float[nrOf3VecElements];
+        float[] normArr = new float[nrOf3VecElements];
+
+        int target = 0;
+        for (int i = 0; i < nrOfFaces; i++) {
+            int start = data.faceOffsets[i];
+            int end = data.faceOffsets[i + 1];
+
+            for (int j = start + 1; j < end - 1; j++) {
+                for (int c = 0; c < 3; c++) {
+                    int k = (c == 0) ? start : (j + c - 1);
+                    int vi = data.vertexIndices[k] * 3;
+                    int ni = data.normalIndices[k] * 3;
+                    System.arraycopy(data.vertices, vi, posArr, target, 3);
+                    if (ni >= 0) System.arraycopy(data.normals, ni, normArr, target, 3);
+                    target += 3;
+                }
+            }
+        }
+
+        writeToGL(posArr, normArr, null);
+    }
+
     /**
      * allows for an empty mesh
      */
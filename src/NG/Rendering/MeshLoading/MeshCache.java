@@ -0,0 +1,268 @@
+package NG.Rendering.MeshLoading;
+
+import NG.Shapes.BasicShape;
+import NG.Shapes.Shape;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
+import org.joml.Vector3fc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An on-disk cache of loaded meshes. A mesh file is parsed only once: the scaled and offset result is stored together
+ * with the planes of its collision shape in a binary file, which is memory-mapped on following loads. Entries are
+ * identified by a hash of the contents of the source file and the load parameters, so changing the source file or the
+ * parameters results in a new entry.
+ * <p>
+ * Layout of an entry, all values big-endian:
+ * <pre>
+ * int magic, int version, int flags,
+ * int nrOfVertexFloats, int nrOfNormalFloats, int nrOfTextureFloats, int nrOfColorFloats,
+ * int nrOfFaces, int nrOfIndices, int nrOfPlaneFloats,
+ * float[] vertices, float[] normals, float[] textureCoords, float[] colors, float[] planeData,
+ * int[] faceOffsets, int[] vertexIndices, int[] normalIndices, [int[] textureIndices], [int[] colorIndices]
+ * </pre>
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public final class MeshCache {
+    private static final int MAGIC = 0x4E474D43; // NGMC
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 10 * Integer.BYTES;
+    private static final String EXTENSION = ".mcache";
+
+    private static final int FLAG_TEXTURED = 1;
+    private static final int FLAG_COLORED = 1 << 1;
+
+    private MeshCache() {
+    }
+
+    /**
+     * loads the mesh located at the given file, using the cached result if the file has been loaded before with the
+     * same parameters.
+     * @see MeshFile#loadFile(Path, Vector3fc, Vector3fc)
+     */
+    public static MeshFile loadFile(Path path, Vector3fc offset, Vector3fc scaling) throws IOException {
+        return load(path, offset, scaling).mesh;
+    }
+
+    /**
+     * loads the mesh located at the given file, and throws a RuntimeException if this is not possible.
+     * @see MeshFile#loadFileRequired(Path)
+     */
+    public static MeshFile loadFileRequired(Path path, Vector3fc offset, Vector3fc scaling) {
+        try {
+            return loadFile(path, offset, scaling);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * loads the mesh located at the given file as a shape. The planes of the shape are read from the cache, and only
+     * computed if the file has not been loaded before with the same parameters.
+     * @see MeshFile#getShape()
+     */
+    public static Shape loadShape(Path path, Vector3fc offset, Vector3fc scaling) throws IOException {
+        Entry entry = load(path, offset, scaling);
+        if (entry.planeData == null) return entry.mesh.getShape();
+
+        return new BasicShape(entry.mesh.getPacked(), entry.planeData);
+    }
+
+    private static Entry load(Path path, Vector3fc offset, Vector3fc scaling) throws IOException {
+        String fileName = path.getFileName().toString();
+        String key = getKey(path, offset, scaling);
+        Path cacheFile = Directory.cache.getPath(fileName + "-" + key + EXTENSION);
+
+        if (Files.exists(cacheFile)) {
+            try {
+                return read(cacheFile, fileName);
+
+            } catch (IOException | RuntimeException ex) {
+                Logger.ERROR.print("Cached mesh " + cacheFile.getFileName() + " is corrupt, reloading " + fileName, ex);
+            }
+        }
+
+        MeshFile mesh = MeshFile.loadFile(path, offset, scaling);
+        PackedMesh data = mesh.getPacked();
+
+        float[] planeData;
+        try {
+            planeData = BasicShape.computePlaneData(data);
+        } catch (UnsupportedOperationException ex) {
+            // this mesh can not be used as a shape
+            planeData = null;
+        }
+
+        try {
+            write(cacheFile, data, planeData);
+        } catch (IOException ex) {
+            Logger.ERROR.print("Could not cache " + fileName, ex);
+        }
+
+        return new Entry(mesh, planeData);
+    }
+
+    /**
+     * @return a hash of the contents of the file, the parameters and the version of the cache format, as hexadecimal
+     * string.
+     */
+    private static String getKey(Path path, Vector3fc offset, Vector3fc scaling) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        ByteBuffer parameters = ByteBuffer.allocate(Integer.BYTES + 6 * Float.BYTES);
+        parameters.putInt(VERSION);
+        parameters.putFloat(offset.x()).putFloat(offset.y()).putFloat(offset.z());
+        parameters.putFloat(scaling.x()).putFloat(scaling.y()).putFloat(scaling.z());
+        parameters.flip();
+        digest.update(parameters);
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16));
+            key.append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    private static Entry read(Path cacheFile, String name) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (data.limit() < HEADER_SIZE || data.getInt() != MAGIC) throw new IOException("Not a mesh cache file");
+        int version = data.getInt();
+        if (version != VERSION) throw new IOException("Unsupported mesh cache version " + version);
+
+        int flags = data.getInt();
+        float[] vertices = new float[data.getInt()];
+        float[] normals = new float[data.getInt()];
+        float[] textureCoords = new float[data.getInt()];
+        float[] colors = new float[data.getInt()];
+        int nrOfFaces = data.getInt();
+        int nrOfIndices = data.getInt();
+        int nrOfPlaneFloats = data.getInt();
+        float[] planeData = nrOfPlaneFloats > 0 ? new float[nrOfPlaneFloats] : null;
+
+        int[] faceOffsets = new int[nrOfFaces + 1];
+        int[] vertexIndices = new int[nrOfIndices];
+        int[] normalIndices = new int[nrOfIndices];
+        int[] textureIndices = (flags & FLAG_TEXTURED) != 0 ? new int[nrOfIndices] : null;
+        int[] colorIndices = (flags & FLAG_COLORED) != 0 ? new int[nrOfIndices] : null;
+
+        // bulk reads throw BufferUnderflowException on truncated files
+        readFloats(data, vertices);
+        readFloats(data, normals);
+        readFloats(data, textureCoords);
+        readFloats(data, colors);
+        if (planeData != null) readFloats(data, planeData);
+
+        readInts(data, faceOffsets);
+        readInts(data, vertexIndices);
+        readInts(data, normalIndices);
+        if (textureIndices != null) readInts(data, textureIndices);
+        if (colorIndices != null) readInts(data, colorIndices);
+
+        PackedMesh packed = new PackedMesh(
+                vertices, normals, textureCoords, colors,
+                faceOffsets, vertexIndices, normalIndices, textureIndices, colorIndices
+        );
+        return new Entry(new MeshFile(name, packed), planeData);
+    }
+
+    private static void write(Path cacheFile, PackedMesh data, float[] planeData) throws IOException {
+        int flags = 0;
+        if (data.textureIndices != null) flags |= FLAG_TEXTURED;
+        if (data.colorIndices != null) flags |= FLAG_COLORED;
+        int nrOfPlaneFloats = planeData == null ? 0 : planeData.length;
+        int nrOfIndices = data.vertexIndices.length;
+
+        int nrOfFloats = data.vertices.length + data.normals.length + data.textureCoords.length + data.colors.length
+                + nrOfPlaneFloats;
+        int nrOfInts = data.faceOffsets.length + nrOfIndices * 2
+                + (data.textureIndices != null ? nrOfIndices : 0)
+                + (data.colorIndices != null ? nrOfIndices : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + (nrOfFloats + nrOfInts) * Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(flags);
+        buffer.putInt(data.vertices.length).putInt(data.normals.length);
+        buffer.putInt(data.textureCoords.length).putInt(data.colors.length);
+        buffer.putInt(data.nrOfFaces()).putInt(nrOfIndices).putInt(nrOfPlaneFloats);
+
+        writeFloats(buffer, data.vertices);
+        writeFloats(buffer, data.normals);
+        writeFloats(buffer, data.textureCoords);
+        writeFloats(buffer, data.colors);
+        if (planeData != null) writeFloats(buffer, planeData);
+
+        writeInts(buffer, data.faceOffsets);
+        writeInts(buffer, data.vertexIndices);
+        writeInts(buffer, data.normalIndices);
+        if (data.textureIndices != null) writeInts(buffer, data.textureIndices);
+        if (data.colorIndices != null) writeInts(buffer, data.colorIndices);
+        buffer.flip();
+
+        // write to a temporary file first, such that an interrupted write never leaves a partial entry
+        Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void readFloats(ByteBuffer source, float[] target) {
+        source.asFloatBuffer().get(target);
+        source.position(source.position() + target.length * Float.BYTES);
+    }
+
+    private static void readInts(ByteBuffer source, int[] target) {
+        source.asIntBuffer().get(target);
+        source.position(source.position() + target.length * Integer.BYTES);
+    }
+
+    private static void writeFloats(ByteBuffer target, float[] source) {
+        target.asFloatBuffer().put(source);
+        target.position(target.position() + source.length * Float.BYTES);
+    }
+
+    private static void writeInts(ByteBuffer target, int[] source) {
+        target.asIntBuffer().put(source);
+        target.position(target.position() + source.length * Integer.BYTES);
+    }
+
+    private static class Entry {
+        final MeshFile mesh;
+        /** the plane data of the shape of this mesh, or null if this mesh has faces that are not supported by shapes */
+        final float[] planeData;
+
+        Entry(MeshFile mesh, float[] planeData) {
+            this.mesh = mesh;
+            this.planeData = planeData;
+        }
+    }
+}
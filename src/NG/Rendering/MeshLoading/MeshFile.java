@@ -4,7 +4,9 @@ import NG.DataStructures.Generic.Color4f;
 import NG.Shapes.BasicShape;
 import NG.Shapes.CustomShape;
 import NG.Shapes.Shape;
+import NG.BufferReader;
 import NG.Storable;
+import NG.StorableInputStream;
 import NG.Tools.Logger;
 import NG.Tools.Vectors;
 import org.joml.*;
@@ -14,17 +16,21 @@ import java.lang.Math;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * @author Geert van Ieperen created on 28-2-2019.
  */
 public class MeshFile implements Storable {
-    private final List<Vector2fc> textureCoords;
-    private final List<Vector3fc> vertices;
-    private final List<Vector3fc> normals;
-    private final List<Mesh.Face> faces;
-    private final List<Color4f> colors;
+    // either the lists or the packed representation is set. The other is created when requested.
+    private volatile List<Vector2fc> textureCoords;
+    private volatile List<Vector3fc> vertices;
+    private volatile List<Vector3fc> normals;
+    private volatile List<Mesh.Face> faces;
+    private volatile List<Color4f> colors;
+    private volatile PackedMesh packed;
     private final String name;
 
     public MeshFile(
@@ -39,44 +45,89 @@ public class MeshFile implements Storable {
         this.colors = colors;
     }
 
+    /**
+     * a mesh file backed by the given packed data. The list representation is only created when requested.
+     * @param name   the debug name of this mesh
+     * @param packed the data of this mesh
+     */
+    public MeshFile(String name, PackedMesh packed) {
+        this.name = name;
+        this.packed = packed;
+    }
+
     public boolean isTextured() {
-        return !getTextureCoords().isEmpty();
+        PackedMesh data = packed;
+        return (data != null) ? (data.textureCoords.length > 0) : !getTextureCoords().isEmpty();
     }
 
     public boolean isColored() {
-        return !getColors().isEmpty();
+        PackedMesh data = packed;
+        return (data != null) ? (data.colors.length > 0) : !getColors().isEmpty();
     }
 
     public List<Vector2fc> getTextureCoords() {
+        if (faces == null) unpack();
         return textureCoords;
     }
 
     public List<Vector3fc> getVertices() {
+        if (faces == null) unpack();
         return vertices;
     }
 
     public List<Vector3fc> getNormals() {
+        if (faces == null) unpack();
         return normals;
     }
 
     public List<Color4f> getColors() {
+        if (faces == null) unpack();
         return colors;
     }
 
     public List<Mesh.Face> getFaces() {
+        if (faces == null) unpack();
         return faces;
     }
 
+    /**
+     * @return the data of this mesh in primitive arrays. If this mesh was created from lists, the arrays are created
+     * on the first call.
+     */
+    public PackedMesh getPacked() {
+        if (packed == null) {
+            synchronized (this) {
+                if (packed == null) {
+                    packed = new PackedMesh(textureCoords, vertices, normals, faces, colors);
+                }
+            }
+        }
+        return packed;
+    }
+
+    /** creates the list representation out of the packed representation */
+    private synchronized void unpack() {
+        if (faces != null) return;
+
+        textureCoords = packed.getTextureCoordList();
+        vertices = packed.getVertexList();
+        normals = packed.getNormalList();
+        colors = packed.getColorList();
+        faces = packed.getFaceList(); // faces is assigned last
+    }
+
     public Mesh getMesh() {
         if (isTextured()) {
             return new TexturedMesh(this.getVertices(), this.getFaces(), this.getNormals(), this.getTextureCoords());
+        } else if (packed != null) {
+            return new FlatMesh(packed);
         } else {
             return new FlatMesh(getVertices(), getNormals(), getFaces());
         }
     }
 
     public Shape getShape() {
-        return new BasicShape(vertices, normals, faces);
+        return new BasicShape(getVertices(), getNormals(), getFaces());
     }
 
     public static MeshFile loadFileRequired(Path meshPath) {
@@ -109,12 +160,13 @@ public class MeshFile implements Storable {
         try {
             switch (extension) {
                 case ".obj":
-                    return FileLoaders.loadOBJ(offset, scaling, path, fileName);
+                    return PackedFileLoaders.loadOBJ(offset, scaling, path, fileName);
                 case ".ply":
-                    return FileLoaders.loadPLY(offset, scaling, path, fileName);
+                    return PackedFileLoaders.loadPLY(offset, scaling, path, fileName);
                 case ".mesbi":
-                    FileInputStream fin = new FileInputStream(path.toFile());
-                    return new MeshFile(new DataInputStream(fin));
+                    try (BufferReader reader = BufferReader.map(path)) {
+                        return new MeshFile(new StorableInputStream(reader));
+                    }
                 default:
                     throw new UnsupportedMeshFileException(fileName);
             }
@@ -144,15 +196,15 @@ public class MeshFile implements Storable {
         writer.println("# created using a simple obj writer by Geert van Ieperen");
         writer.println("# calling method: " + Logger.getCallingMethod(2));
 
-        for (Vector3fc vec : vertices) {
+        for (Vector3fc vec : getVertices()) {
             writer.println(String.format(Locale.US, "v %1.08f %1.08f %1.08f", vec.x(), vec.y(), vec.z()));
         }
 
-        for (Vector3fc norm : normals) {
+        for (Vector3fc norm : getNormals()) {
             writer.println(String.format(Locale.US, "vn %1.08f %1.08f %1.08f", norm.x(), norm.y(), norm.z()));
         }
 
-        for (Vector2fc texCoord : textureCoords) {
+        for (Vector2fc texCoord : getTextureCoords()) {
             writer.println(String.format(Locale.US, "vt %1.08f %1.08f", texCoord.x(), texCoord.y()));
         }
 
@@ -161,7 +213,7 @@ public class MeshFile implements Storable {
         writer.println("");
 
         if (isTextured()) {
-            for (Mesh.Face face : faces) {
+            for (Mesh.Face face : getFaces()) {
                 assert face.tex != null;
                 writer.print("f ");
                 for (int i = 0; i < face.size(); i++) {
@@ -171,7 +223,7 @@ public class MeshFile implements Storable {
             }
         } else {
 
-            for (Mesh.Face face : faces) {
+            for (Mesh.Face face : getFaces()) {
                 writer.print("f ");
                 for (int i = 0; i < face.size(); i++) {
                     writer.print(" " + String.format("%d//%d", face.vert[i] + 1, face.norm[i] + 1));
@@ -189,112 +241,98 @@ public class MeshFile implements Storable {
 
     @Override
     public void writeToDataStream(DataOutputStream out) throws IOException {
+        // written from the packed representation, without keeping it when it was not there
+        PackedMesh data = packed;
+        if (data == null) data = new PackedMesh(textureCoords, vertices, normals, faces, colors);
+
         out.writeUTF(name);
 
-        out.writeInt(vertices.size());
-        for (Vector3fc v : vertices) {
-            Storable.writeVector3f(out, v);
-        }
-        out.writeInt(normals.size());
-        for (Vector3fc n : normals) {
-            Storable.writeVector3f(out, n);
-        }
-        int nrOfTex = textureCoords.size();
+        out.writeInt(data.vertices.length / 3);
+        Storable.writeFloats(out, data.vertices, 0, data.vertices.length);
+        out.writeInt(data.normals.length / 3);
+        Storable.writeFloats(out, data.normals, 0, data.normals.length);
+        int nrOfTex = data.textureCoords.length / 2;
         out.writeInt(nrOfTex);
-        for (Vector2fc t : textureCoords) {
-            out.writeFloat(t.x());
-            out.writeFloat(t.y());
-        }
-        int nrOfCol = colors.size();
+        Storable.writeFloats(out, data.textureCoords, 0, data.textureCoords.length);
+        int nrOfCol = data.colors.length / 4;
         out.writeInt(nrOfCol);
-        for (Color4f c : colors) {
-            out.writeFloat(c.red);
-            out.writeFloat(c.green);
-            out.writeFloat(c.blue);
-            out.writeFloat(c.alpha);
-        }
-        out.writeInt(faces.size());
-        for (Mesh.Face face : faces) {
-            out.writeByte(face.size());
-            for (int vi : face.vert) {
-                out.writeInt(vi);
-            }
-            for (int ni : face.norm) {
-                out.writeInt(ni);
-            }
-
-            if (nrOfTex != 0) {
-                for (int tex : face.tex) {
-                    out.writeInt(tex);
-                }
-            }
-            if (nrOfCol != 0) {
-                for (int ci : face.col) {
-                    out.writeInt(ci);
-                }
-            }
+        Storable.writeFloats(out, data.colors, 0, data.colors.length);
+
+        int nrOfFaces = data.nrOfFaces();
+        out.writeInt(nrOfFaces);
+        for (int i = 0; i < nrOfFaces; i++) {
+            int start = data.faceOffsets[i];
+            int size = data.faceOffsets[i + 1] - start;
+
+            out.writeByte(size);
+            Storable.writeInts(out, data.vertexIndices, start, size);
+            Storable.writeInts(out, data.normalIndices, start, size);
+            if (nrOfTex != 0) Storable.writeInts(out, data.textureIndices, start, size);
+            if (nrOfCol != 0) Storable.writeInts(out, data.colorIndices, start, size);
         }
     }
 
+    /**
+     * reads a mesh written by {@link #writeToDataStream(DataOutputStream)} into its packed representation. The list
+     * representation is only created when requested.
+     */
     public MeshFile(DataInputStream in) throws IOException {
         name = in.readUTF();
 
-        int vSize = in.readInt();
-        vertices = new ArrayList<>(vSize);
-        for (int i = 0; i < vSize; i++) {
-            vertices.add(Storable.readVector3f(in));
-        }
-        int nSize = in.readInt();
-        normals = new ArrayList<>(nSize);
-        for (int i = 0; i < nSize; i++) {
-            normals.add(Storable.readVector3f(in));
-        }
-        int tSize = in.readInt();
-        textureCoords = new ArrayList<>(tSize);
-        for (int i = 0; i < tSize; i++) {
-            textureCoords.add(new Vector2f(in.readFloat(), in.readFloat()));
-        }
-        int cSize = in.readInt();
-        colors = new ArrayList<>(cSize);
-        for (int i = 0; i < cSize; i++) {
-            colors.add(new Color4f(
-                    in.readFloat(),
-                    in.readFloat(),
-                    in.readFloat(),
-                    in.readFloat()
-            ));
-        }
-        int fSize = in.readInt();
-        faces = new ArrayList<>(fSize);
-        for (int i = 0; i < fSize; i++) {
-            int nVert = in.readByte(); // nr of vertices of this face
-            int[] vert = new int[nVert];
-            int[] norm = new int[nVert];
-            int[] tex = null;
-            int[] col = null;
-
-            for (int j = 0; j < nVert; j++) {
-                vert[j] = in.readInt();
-            }
-            for (int j = 0; j < nVert; j++) {
-                norm[j] = in.readInt();
+        float[] vertexData = new float[in.readInt() * 3];
+        Storable.readFloats(in, vertexData, 0, vertexData.length);
+        float[] normalData = new float[in.readInt() * 3];
+        Storable.readFloats(in, normalData, 0, normalData.length);
+        float[] texData = new float[in.readInt() * 2];
+        Storable.readFloats(in, texData, 0, texData.length);
+        float[] colorData = new float[in.readInt() * 4];
+        Storable.readFloats(in, colorData, 0, colorData.length);
+
+        boolean hasTex = texData.length != 0;
+        boolean hasCol = colorData.length != 0;
+
+        int nrOfFaces = in.readInt();
+        int[] faceOffsets = new int[nrOfFaces + 1];
+        // most meshes consist of triangles
+        int capacity = nrOfFaces * 3;
+        int[] vertexIndices = new int[capacity];
+        int[] normalIndices = new int[capacity];
+        int[] texIndices = hasTex ? new int[capacity] : null;
+        int[] colorIndices = hasCol ? new int[capacity] : null;
+
+        int offset = 0;
+        for (int i = 0; i < nrOfFaces; i++) {
+            int size = in.readByte(); // nr of vertices of this face
+            faceOffsets[i] = offset;
+
+            if (offset + size > capacity) {
+                capacity = Math.max(capacity * 2, offset + size);
+                vertexIndices = Arrays.copyOf(vertexIndices, capacity);
+                normalIndices = Arrays.copyOf(normalIndices, capacity);
+                if (hasTex) texIndices = Arrays.copyOf(texIndices, capacity);
+                if (hasCol) colorIndices = Arrays.copyOf(colorIndices, capacity);
             }
 
-            if (tSize != 0) {
-                tex = new int[nVert];
-                for (int j = 0; j < nVert; j++) {
-                    tex[j] = in.readInt();
-                }
-            }
-            if (cSize != 0) {
-                col = new int[nVert];
-                for (int j = 0; j < nVert; j++) {
-                    col[j] = in.readInt();
-                }
-            }
+            Storable.readInts(in, vertexIndices, offset, size);
+            Storable.readInts(in, normalIndices, offset, size);
+            if (hasTex) Storable.readInts(in, texIndices, offset, size);
+            if (hasCol) Storable.readInts(in, colorIndices, offset, size);
 
-            faces.add(new Mesh.Face(vert, norm, tex, col));
+            offset += size;
         }
+        faceOffsets[nrOfFaces] = offset;
+
+        if (offset != capacity) {
+            vertexIndices = Arrays.copyOf(vertexIndices, offset);
+            normalIndices = Arrays.copyOf(normalIndices, offset);
+            if (hasTex) texIndices = Arrays.copyOf(texIndices, offset);
+            if (hasCol) colorIndices = Arrays.copyOf(colorIndices, offset);
+        }
+
+        packed = new PackedMesh(
+                vertexData, normalData, texData, colorData,
+                faceOffsets, vertexIndices, normalIndices, texIndices, colorIndices
+        );
     }
 
     /**
@@ -421,12 +459,174 @@ public class MeshFile implements Storable {
             bloat--;
         }
         if (doExact) {
-            Logger.DEBUG.printf("Mesh split: Increased number of faces by %1.02f%%", 100f * bloat / faces.size());
+            Logger.DEBUG.printf("Mesh split: Increased number of faces by %1.02f%%", 100f * bloat / faceList.size());
         }
         Logger.removeOnlinePrint(divideMapUpdate);
         return world;
     }
 
+    /**
+     * splits this mesh in sections of size containerSize like {@link #splitToShapes(float, boolean)}, but hands each
+     * finished section to the given receiver instead of collecting them. The faces are first binned into their
+     * sections using primitive arrays, after which the sections are built in parallel on the common fork-join pool.
+     * Only the sections that are being built are held in memory.
+     * @param containerSize the minimum size of the resulting sections
+     * @param doExact       Planes may span multiple containers. When true, these planes will occur in each of these
+     *                      containers, possibly split in new planes. When false, the planes only occur in the container
+     *                      with the lowest coordinate.
+     * @param receiver      accepts the coordinate and contents of every non-empty section. Is called concurrently
+     * @throws IOException if the receiver throws an IOException. Other sections may still be processed
+     */
+    public void splitToShapes(float containerSize, boolean doExact, ChunkReceiver receiver) throws IOException {
+        PackedMesh data = getPacked();
+        int nrOfVertices = data.nrOfVertices();
+        int nrOfFaces = data.nrOfFaces();
+        if (nrOfFaces == 0) return;
+
+        // cell coordinate of every vertex
+        int[] vertexCells = new int[nrOfVertices * 3];
+        int[] min = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        int[] max = {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i < nrOfVertices * 3; i++) {
+            int cell = (int) Math.floor(data.vertices[i] / containerSize);
+            vertexCells[i] = cell;
+            min[i % 3] = Math.min(min[i % 3], cell);
+            max[i % 3] = Math.max(max[i % 3], cell);
+        }
+
+        int ySize = max[1] - min[1] + 1;
+        int zSize = max[2] - min[2] + 1;
+        long nrOfCells = (long) (max[0] - min[0] + 1) * ySize * zSize;
+        if (nrOfCells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Container size " + containerSize + " results in " + nrOfCells + " cells");
+        }
+
+        // first pass: the cell range of every face
+        int[] faceRanges = new int[nrOfFaces * 6];
+        long nrOfEntries = 0;
+        for (int f = 0; f < nrOfFaces; f++) {
+            int r = f * 6;
+            faceRanges[r] = faceRanges[r + 1] = faceRanges[r + 2] = Integer.MAX_VALUE;
+            faceRanges[r + 3] = faceRanges[r + 4] = faceRanges[r + 5] = Integer.MIN_VALUE;
+
+            for (int k = data.faceOffsets[f]; k < data.faceOffsets[f + 1]; k++) {
+                int vi = data.vertexIndices[k];
+                for (int j = 0; j < 3; j++) {
+                    faceRanges[r + j] = Math.min(faceRanges[r + j], vertexCells[vi * 3 + j]);
+                    faceRanges[r + 3 + j] = Math.max(faceRanges[r + 3 + j], vertexCells[vi * 3 + j]);
+                }
+            }
+
+            if (!doExact) System.arraycopy(faceRanges, r, faceRanges, r + 3, 3);
+
+            nrOfEntries += (long) (faceRanges[r + 3] - faceRanges[r] + 1)
+                    * (faceRanges[r + 4] - faceRanges[r + 1] + 1)
+                    * (faceRanges[r + 5] - faceRanges[r + 2] + 1);
+        }
+
+        // bin the faces: each entry is (cell index << 32 | face index), sorted on cell
+        if (nrOfEntries > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many faces: " + nrOfEntries);
+        long[] entries = new long[(int) nrOfEntries];
+        int e = 0;
+        for (int f = 0; f < nrOfFaces; f++) {
+            int r = f * 6;
+            for (int x = faceRanges[r]; x <= faceRanges[r + 3]; x++) {
+                for (int y = faceRanges[r + 1]; y <= faceRanges[r + 4]; y++) {
+                    for (int z = faceRanges[r + 2]; z <= faceRanges[r + 5]; z++) {
+                        long cell = ((long) (x - min[0]) * ySize + (y - min[1])) * zSize + (z - min[2]);
+                        entries[e++] = (cell << 32) | f;
+                    }
+                }
+            }
+        }
+        Arrays.parallelSort(entries);
+
+        int[] runStarts = new int[entries.length + 1];
+        int nrOfRuns = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (i == 0 || (entries[i] >>> 32) != (entries[i - 1] >>> 32)) {
+                runStarts[nrOfRuns++] = i;
+            }
+        }
+        runStarts[nrOfRuns] = entries.length;
+
+        if (doExact) {
+            Logger.DEBUG.printf("Mesh split: Increased number of faces by %1.02f%%", 100f * (nrOfEntries - nrOfFaces) / nrOfFaces);
+        }
+
+        // second pass: build each cell independently
+        List<Vector3fc> vertexList = getVertices();
+        AtomicInteger progress = new AtomicInteger();
+        int totalRuns = nrOfRuns;
+        Supplier<String> divideMapUpdate = () -> String.format(
+                "dividing map: %d/%d (%1.01f%%)", progress.get(), totalRuns, (progress.get() * 100f / totalRuns)
+        );
+
+        Logger.printOnline(divideMapUpdate);
+        try {
+            IntStream.range(0, nrOfRuns).parallel().forEach(run -> {
+                int start = runStarts[run];
+                long cell = entries[start] >>> 32;
+                int z = (int) (cell % zSize) + min[2];
+                int y = (int) ((cell / zSize) % ySize) + min[1];
+                int x = (int) (cell / zSize / ySize) + min[0];
+
+                CustomShape shape = new CustomShape();
+                Vector3f normal = new Vector3f();
+                Vector3fc[] faceVecs = new Vector3fc[3];
+                for (int i = start; i < runStarts[run + 1]; i++) {
+                    int face = (int) entries[i];
+                    int faceStart = data.faceOffsets[face];
+                    int faceSize = data.faceSize(face);
+
+                    // the shape only keeps the vectors, thus the array can be reused
+                    if (faceVecs.length != faceSize) faceVecs = new Vector3fc[faceSize];
+                    for (int j = 0; j < faceSize; j++) {
+                        faceVecs[j] = vertexList.get(data.vertexIndices[faceStart + j]);
+                    }
+
+                    normal.zero();
+                    for (int j = 0; j < faceSize; j++) {
+                        int ind = data.normalIndices[faceStart + j];
+                        if (ind < 0) continue;
+                        normal.add(data.normals[ind * 3], data.normals[ind * 3 + 1], data.normals[ind * 3 + 2]);
+                    }
+
+                    if (Vectors.isScalable(normal)) {
+                        shape.addPlane(normal.normalize(), faceVecs);
+                    } else {
+                        Logger.DEBUG.printSpamless(toString(), this + " has at least one not-computed normal");
+                        shape.addPlane(null, faceVecs);
+                    }
+                }
+
+                try {
+                    receiver.accept(x, y, z, shape.toMeshFile());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                progress.incrementAndGet();
+            });
+
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+
+        } finally {
+            Logger.removeOnlinePrint(divideMapUpdate);
+        }
+    }
+
+    /** receives the sections of a split mesh */
+    public interface ChunkReceiver {
+        /**
+         * @param x     the x coordinate of the section
+         * @param y     the y coordinate of the section
+         * @param z     the z coordinate of the section
+         * @param chunk the faces of the mesh that lie in this section
+         */
+        void accept(int x, int y, int z, MeshFile chunk) throws IOException;
+    }
+
     public static class UnsupportedMeshFileException extends IOException {
         public UnsupportedMeshFileException(String fileName) {
             super(fileName);
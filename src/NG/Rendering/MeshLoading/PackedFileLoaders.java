@@ -0,0 +1,644 @@
+package NG.Rendering.MeshLoading;
+
+import NG.Tools.Logger;
+import NG.Tools.Toolbox;
+import org.joml.Vector3fc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mesh loaders that read a memory-mapped file directly into primitive arrays, resulting in a {@link MeshFile} backed
+ * by a {@link PackedMesh}. Numbers are parsed by hand from the bytes of the file, without creating strings. Next to
+ * the ascii format, these loaders support binary PLY files.
+ * @author Geert van Ieperen created on 19-10-2026.
+ * @see FileLoaders
+ */
+public final class PackedFileLoaders {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MANTISSA_LIMIT = Long.MAX_VALUE / 10 - 10;
+
+    /**
+     * @param offSet offset of the gravity middle in this mesh as the negative of the vector to the gravity middle
+     * @param scale  the scaling applied to the loaded object
+     * @param path   the path to the object
+     * @param name   debug name of the shape
+     * @see FileLoaders#loadOBJ(Vector3fc, Vector3fc, Path, String)
+     */
+    public static MeshFile loadOBJ(Vector3fc offSet, Vector3fc scale, Path path, String name) throws IOException {
+        Tokenizer in = new Tokenizer(map(path));
+
+        FloatArray vertices = new FloatArray();
+        FloatArray normals = new FloatArray();
+        FloatArray textureCoords = new FloatArray();
+        IntArray faceOffsets = new IntArray();
+        IntArray vertIndices = new IntArray();
+        IntArray normIndices = new IntArray();
+        IntArray texIndices = new IntArray();
+        faceOffsets.add(0);
+
+        while (in.hasRemaining()) {
+            in.skipSpaces();
+
+            if (in.startsWith("v ") || in.startsWith("v\t")) {
+                // Geometric vertex
+                in.skip(1);
+                vertices.add(in.readFloat() * scale.x() + offSet.x());
+                vertices.add(in.readFloat() * scale.y() + offSet.y());
+                vertices.add(in.readFloat() * scale.z() + offSet.z());
+
+            } else if (in.startsWith("vn")) {
+                // Vertex normal
+                in.skip(2);
+                normals.add(in.readFloat());
+                normals.add(in.readFloat());
+                normals.add(in.readFloat());
+
+            } else if (in.startsWith("vt")) {
+                in.skip(2);
+                textureCoords.add(in.readFloat());
+                textureCoords.add(in.readFloat());
+
+            } else if (in.startsWith("f ") || in.startsWith("f\t")) {
+                in.skip(1);
+                in.skipSpaces();
+
+                while (!in.atLineEnd()) {
+                    vertIndices.add(in.readInt() - 1);
+                    int tex = -1;
+                    int norm = -1;
+
+                    if (in.skipIf('/')) {
+                        if (!in.isAt('/')) tex = in.readInt() - 1;
+                        if (in.skipIf('/')) norm = in.readInt() - 1;
+                    }
+
+                    texIndices.add(tex);
+                    normIndices.add(norm);
+                    in.skipSpaces();
+                }
+
+                faceOffsets.add(vertIndices.size());
+            }
+            // Ignore other lines
+
+            in.skipLine();
+        }
+
+        if (vertices.size() == 0 || faceOffsets.size() == 1) {
+            Logger.ERROR.print("Empty mesh loaded: " + path + " (this may result in errors)");
+        }
+
+        PackedMesh mesh = new PackedMesh(
+                vertices.toArray(), normals.toArray(), textureCoords.toArray(), new float[0],
+                faceOffsets.toArray(), vertIndices.toArray(), normIndices.toArray(),
+                textureCoords.size() == 0 ? null : texIndices.toArray(), null
+        );
+
+        return new MeshFile(name, mesh);
+    }
+
+    /**
+     * Read a new PLY file, in either ascii or binary format. The resulting file must still be written to the GPU by
+     * means of executing {@link MeshFile#getMesh()} on the render thread
+     * @param path the path to the .ply file to parse
+     * @throws IOException if file not found
+     * @throws IOException if file format not supported
+     * @see FileLoaders#loadPLY(Vector3fc, Vector3fc, Path, String)
+     */
+    public static MeshFile loadPLY(Vector3fc offSet, Vector3fc scale, Path path, String name) throws IOException {
+        Tokenizer in = new Tokenizer(map(path));
+
+        if (!in.readLine().equals("ply")) throw new IOException("Not a PLY file: " + path);
+
+        boolean isBinary = false;
+        List<Element> elements = new ArrayList<>();
+        Element current = null;
+
+        header:
+        while (true) {
+            if (!in.hasRemaining()) {
+                throw new IOException("Unsupported file format. 'end_header' keyword is missing");
+            }
+
+            String line = in.readLine().trim();
+            if (line.isEmpty()) continue;
+            String[] tokens = Toolbox.WHITESPACE_PATTERN.split(line);
+
+            switch (tokens[0]) {
+                case "comment":
+                case "obj_info":
+                    break;
+                case "format":
+                    switch (tokens[1]) {
+                        case "ascii":
+                            break;
+                        case "binary_little_endian":
+                            isBinary = true;
+                            in.setOrder(ByteOrder.LITTLE_ENDIAN);
+                            break;
+                        case "binary_big_endian":
+                            isBinary = true;
+                            in.setOrder(ByteOrder.BIG_ENDIAN);
+                            break;
+                        default:
+                            throw new IOException("Unsupported format " + tokens[1]);
+                    }
+                    break;
+                case "element":
+                    current = new Element(tokens[1], Integer.parseInt(tokens[2]));
+                    elements.add(current);
+                    break;
+                case "property":
+                    if (current == null) throw new IOException("Property without element");
+                    if (tokens[1].equals("list")) {
+                        current.add(tokens[4], PropertyType.get(tokens[3]), PropertyType.get(tokens[2]));
+                    } else {
+                        current.add(tokens[2], PropertyType.get(tokens[1]), null);
+                    }
+                    break;
+                case "end_header":
+                    break header;
+                default:
+                    throw new IOException("Unsupported keyword " + tokens[0]);
+            }
+        }
+
+        float[] vertices = new float[0];
+        float[] normals = new float[0];
+        float[] textureCoords = new float[0];
+        float[] colors = new float[0];
+        IntArray faceOffsets = new IntArray();
+        IntArray indices = new IntArray();
+        faceOffsets.add(0);
+
+        for (Element element : elements) {
+            int nrOfProps = element.names.size();
+
+            switch (element.name) {
+                case "vertex": {
+                    int n = element.count;
+                    boolean hasNormals = element.names.contains("nx");
+                    boolean hasTex = element.names.contains("s") || element.names.contains("u");
+                    boolean hasColors = element.names.contains("red");
+
+                    vertices = new float[n * 3];
+                    normals = new float[hasNormals ? n * 3 : 0];
+                    textureCoords = new float[hasTex ? n * 2 : 0];
+                    colors = new float[hasColors ? n * 4 : 0];
+                    if (hasColors) Arrays.fill(colors, 1f);
+
+                    int[] roles = new int[nrOfProps];
+                    for (int p = 0; p < nrOfProps; p++) {
+                        roles[p] = VertexRole.of(element.names.get(p));
+                    }
+
+                    for (int i = 0; i < n; i++) {
+                        for (int p = 0; p < nrOfProps; p++) {
+                            PropertyType type = element.types.get(p);
+                            PropertyType countType = element.countTypes.get(p);
+
+                            if (countType != null) {
+                                // lists on vertices are not used
+                                int count = (int) in.read(countType, isBinary);
+                                for (int j = 0; j < count; j++) {
+                                    in.read(type, isBinary);
+                                }
+                                continue;
+                            }
+
+                            double value = in.read(type, isBinary);
+                            switch (roles[p]) {
+                                case VertexRole.X:
+                                    vertices[i * 3] = (float) value * scale.x() + offSet.x();
+                                    break;
+                                case VertexRole.Y:
+                                    vertices[i * 3 + 1] = (float) value * scale.y() + offSet.y();
+                                    break;
+                                case VertexRole.Z:
+                                    vertices[i * 3 + 2] = (float) value * scale.z() + offSet.z();
+                                    break;
+                                case VertexRole.NX:
+                                case VertexRole.NY:
+                                case VertexRole.NZ:
+                                    normals[i * 3 + (roles[p] - VertexRole.NX)] = (float) value;
+                                    break;
+                                case VertexRole.U:
+                                case VertexRole.V:
+                                    textureCoords[i * 2 + (roles[p] - VertexRole.U)] = (float) value;
+                                    break;
+                                case VertexRole.RED:
+                                case VertexRole.GREEN:
+                                case VertexRole.BLUE:
+                                case VertexRole.ALPHA:
+                                    if (!hasColors) break;
+                                    float c = type.isInteger ? (float) (value / 255) : (float) value;
+                                    colors[i * 4 + (roles[p] - VertexRole.RED)] = c;
+                                    break;
+                            }
+                        }
+
+                        if (!isBinary) in.skipLine();
+                    }
+                    break;
+                }
+
+                case "face": {
+                    for (int i = 0; i < element.count; i++) {
+                        for (int p = 0; p < nrOfProps; p++) {
+                            PropertyType type = element.types.get(p);
+                            PropertyType countType = element.countTypes.get(p);
+                            String propName = element.names.get(p);
+                            boolean isIndices = propName.equals("vertex_indices") || propName.equals("vertex_index");
+
+                            if (countType == null) {
+                                in.read(type, isBinary);
+
+                            } else {
+                                int count = (int) in.read(countType, isBinary);
+                                for (int j = 0; j < count; j++) {
+                                    int index = (int) in.read(type, isBinary);
+                                    if (isIndices) indices.add(index);
+                                }
+                            }
+                        }
+
+                        faceOffsets.add(indices.size());
+                        if (!isBinary) in.skipLine();
+                    }
+                    break;
+                }
+
+                default:
+                    // skip unknown elements
+                    for (int i = 0; i < element.count; i++) {
+                        for (int p = 0; p < nrOfProps; p++) {
+                            PropertyType countType = element.countTypes.get(p);
+                            int count = (countType == null) ? 1 : (int) in.read(countType, isBinary);
+                            for (int j = 0; j < count; j++) {
+                                in.read(element.types.get(p), isBinary);
+                            }
+                        }
+                        if (!isBinary) in.skipLine();
+                    }
+            }
+        }
+
+        int[] vertIndices = indices.toArray();
+        int[] normIndices = vertIndices;
+        if (normals.length == 0) {
+            normIndices = new int[vertIndices.length];
+            Arrays.fill(normIndices, -1);
+        }
+
+        if (vertices.length == 0 || faceOffsets.size() == 1) {
+            Logger.ERROR.print("Empty mesh loaded: " + path + " (this may result in errors)");
+        }
+
+        PackedMesh mesh = new PackedMesh(
+                vertices, normals, textureCoords, colors,
+                faceOffsets.toArray(), vertIndices, normIndices,
+                textureCoords.length == 0 ? null : vertIndices,
+                colors.length == 0 ? null : vertIndices
+        );
+
+        return new MeshFile(name, mesh);
+    }
+
+    /**
+     * maps the complete file in memory
+     */
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large: " + size + " bytes");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static class Element {
+        final String name;
+        final int count;
+        final List<String> names = new ArrayList<>();
+        final List<PropertyType> types = new ArrayList<>();
+        /** for list properties the type of the element count, null for scalar properties */
+        final List<PropertyType> countTypes = new ArrayList<>();
+
+        Element(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        void add(String name, PropertyType type, PropertyType countType) {
+            names.add(name);
+            types.add(type);
+            countTypes.add(countType);
+        }
+    }
+
+    /** the properties of a PLY vertex this loader recognizes */
+    private static class VertexRole {
+        static final int NONE = -1;
+        static final int X = 0, Y = 1, Z = 2;
+        static final int NX = 3, NY = 4, NZ = 5;
+        static final int U = 6, V = 7;
+        static final int RED = 8, GREEN = 9, BLUE = 10, ALPHA = 11;
+
+        static int of(String name) {
+            switch (name) {
+                // @formatter:off
+                case "x": return X;
+                case "y": return Y;
+                case "z": return Z;
+                case "nx": return NX;
+                case "ny": return NY;
+                case "nz": return NZ;
+                case "s": case "u": return U;
+                case "t": case "v": return V;
+                case "red": return RED;
+                case "green": return GREEN;
+                case "blue": return BLUE;
+                case "alpha": return ALPHA;
+                default: return NONE;
+                // @formatter:on
+            }
+        }
+    }
+
+    private enum PropertyType {
+        INT8(true), UINT8(true), INT16(true), UINT16(true), INT32(true), UINT32(true), FLOAT32(false), FLOAT64(false);
+
+        final boolean isInteger;
+
+        PropertyType(boolean isInteger) {
+            this.isInteger = isInteger;
+        }
+
+        static PropertyType get(String plyName) throws IOException {
+            switch (plyName) {
+                // @formatter:off
+                case "char": case "int8": return INT8;
+                case "uchar": case "uint8": return UINT8;
+                case "short": case "int16": return INT16;
+                case "ushort": case "uint16": return UINT16;
+                case "int": case "int32": return INT32;
+                case "uint": case "uint32": return UINT32;
+                case "float": case "float32": return FLOAT32;
+                case "double": case "float64": return FLOAT64;
+                default: throw new IOException("Unsupported property type " + plyName);
+                // @formatter:on
+            }
+        }
+    }
+
+    /**
+     * reads numbers and lines directly from the bytes of a buffer
+     */
+    private static class Tokenizer {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int pos = 0;
+
+        Tokenizer(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        void setOrder(ByteOrder order) {
+            buffer.order(order);
+        }
+
+        boolean hasRemaining() {
+            return pos < limit;
+        }
+
+        boolean isAt(char c) {
+            return pos < limit && buffer.get(pos) == c;
+        }
+
+        boolean skipIf(char c) {
+            if (isAt(c)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void skip(int n) {
+            pos += n;
+        }
+
+        boolean startsWith(String s) {
+            if (pos + s.length() > limit) return false;
+            for (int i = 0; i < s.length(); i++) {
+                if (buffer.get(pos + i) != s.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        void skipSpaces() {
+            while (pos < limit) {
+                byte c = buffer.get(pos);
+                if (c != ' ' && c != '\t') return;
+                pos++;
+            }
+        }
+
+        boolean atLineEnd() {
+            if (pos >= limit) return true;
+            byte c = buffer.get(pos);
+            return c == '\n' || c == '\r' || c == '#';
+        }
+
+        /** moves to the start of the next line */
+        void skipLine() {
+            while (pos < limit && buffer.get(pos++) != '\n') ;
+        }
+
+        /** @return the remainder of the current line, and moves to the start of the next line */
+        String readLine() {
+            int start = pos;
+            while (pos < limit && buffer.get(pos) != '\n') pos++;
+
+            int end = pos;
+            if (end > start && buffer.get(end - 1) == '\r') end--;
+            if (pos < limit) pos++;
+
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * reads a value of the given type, either as binary data or as ascii text
+         */
+        double read(PropertyType type, boolean isBinary) throws IOException {
+            if (!isBinary) {
+                return type.isInteger ? readInt() : readFloat();
+            }
+
+            double value;
+            switch (type) {
+                // @formatter:off
+                case INT8: value = buffer.get(pos); pos += 1; break;
+                case UINT8: value = buffer.get(pos) & 0xFF; pos += 1; break;
+                case INT16: value = buffer.getShort(pos); pos += 2; break;
+                case UINT16: value = buffer.getShort(pos) & 0xFFFF; pos += 2; break;
+                case INT32: value = buffer.getInt(pos); pos += 4; break;
+                case UINT32: value = buffer.getInt(pos) & 0xFFFFFFFFL; pos += 4; break;
+                case FLOAT32: value = buffer.getFloat(pos); pos += 4; break;
+                case FLOAT64: value = buffer.getDouble(pos); pos += 8; break;
+                default: throw new IOException("Unsupported type " + type);
+                // @formatter:on
+            }
+            return value;
+        }
+
+        int readInt() throws IOException {
+            skipSpaces();
+            boolean negative = skipIf('-');
+            if (!negative) skipIf('+');
+
+            int start = pos;
+            int value = 0;
+            while (pos < limit) {
+                int digit = buffer.get(pos) - '0';
+                if (digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                pos++;
+            }
+
+            if (pos == start) throw new IOException("Expected an integer on position " + pos);
+            return negative ? -value : value;
+        }
+
+        float readFloat() throws IOException {
+            skipSpaces();
+            int start = pos;
+            boolean negative = skipIf('-');
+            if (!negative) skipIf('+');
+
+            long mantissa = 0;
+            int exponent = 0;
+            boolean hasDigits = false;
+
+            while (pos < limit) {
+                int digit = buffer.get(pos) - '0';
+                if (digit < 0 || digit > 9) break;
+                if (mantissa < MANTISSA_LIMIT) {
+                    mantissa = mantissa * 10 + digit;
+                } else {
+                    exponent++;
+                }
+                hasDigits = true;
+                pos++;
+            }
+
+            if (skipIf('.')) {
+                while (pos < limit) {
+                    int digit = buffer.get(pos) - '0';
+                    if (digit < 0 || digit > 9) break;
+                    if (mantissa < MANTISSA_LIMIT) {
+                        mantissa = mantissa * 10 + digit;
+                        exponent--;
+                    }
+                    hasDigits = true;
+                    pos++;
+                }
+            }
+
+            if (!hasDigits) {
+                // nan, inf and other special cases
+                pos = start;
+                return Float.parseFloat(readWord());
+            }
+
+            if (skipIf('e') || skipIf('E')) {
+                boolean negativeExp = skipIf('-');
+                if (!negativeExp) skipIf('+');
+
+                int exp = 0;
+                while (pos < limit) {
+                    int digit = buffer.get(pos) - '0';
+                    if (digit < 0 || digit > 9) break;
+                    if (exp < 1000) exp = exp * 10 + digit;
+                    pos++;
+                }
+                exponent += negativeExp ? -exp : exp;
+            }
+
+            double value = mantissa;
+            if (exponent > 0) {
+                value *= (exponent < POWERS_OF_TEN.length) ? POWERS_OF_TEN[exponent] : Math.pow(10, exponent);
+            } else if (exponent < 0) {
+                value /= (-exponent < POWERS_OF_TEN.length) ? POWERS_OF_TEN[-exponent] : Math.pow(10, -exponent);
+            }
+
+            return (float) (negative ? -value : value);
+        }
+
+        private String readWord() {
+            int start = pos;
+            while (pos < limit) {
+                byte c = buffer.get(pos);
+                if (c == ' ' || c == '\t' || c == '\n' || c == '\r') break;
+                pos++;
+            }
+
+            byte[] bytes = new byte[pos - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static class FloatArray {
+        private float[] data = new float[256];
+        private int size = 0;
+
+        void add(float value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static class IntArray {
+        private int[] data = new int[256];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package NG.Rendering.MeshLoading;
+
+import NG.DataStructures.Generic.Color4f;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The data of a mesh in flat primitive arrays. Vertices and normals are stored as consecutive (x, y, z) triplets,
+ * texture coordinates as (u, v) pairs and colors as (r, g, b, a) quadruplets. Face {@code i} consists of the indices
+ * from {@code faceOffsets[i]} up to {@code faceOffsets[i + 1]} of the index arrays.
+ * <p>
+ * The arrays are not copied, and should not be modified after construction.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class PackedMesh {
+    public final float[] vertices;
+    public final float[] normals;
+    public final float[] textureCoords;
+    public final float[] colors;
+
+    public final int[] faceOffsets;
+    public final int[] vertexIndices;
+    public final int[] normalIndices;
+    /** may be null if this mesh has no texture coordinates */
+    public final int[] textureIndices;
+    /** may be null if this mesh has no colors */
+    public final int[] colorIndices;
+
+    public PackedMesh(
+            float[] vertices, float[] normals, float[] textureCoords, float[] colors,
+            int[] faceOffsets, int[] vertexIndices, int[] normalIndices, int[] textureIndices, int[] colorIndices
+    ) {
+        assert vertexIndices.length == normalIndices.length;
+        assert faceOffsets[faceOffsets.length - 1] == vertexIndices.length;
+
+        this.vertices = vertices;
+        this.normals = normals;
+        this.textureCoords = textureCoords;
+        this.colors = colors;
+        this.faceOffsets = faceOffsets;
+        this.vertexIndices = vertexIndices;
+        this.normalIndices = normalIndices;
+        this.textureIndices = textureIndices;
+        this.colorIndices = colorIndices;
+    }
+
+    /**
+     * packs the given list representation of a mesh
+     * @see MeshFile#MeshFile(String, List, List, List, List, List)
+     */
+    public PackedMesh(
+            List<Vector2fc> textureCoords, List<Vector3fc> vertices, List<Vector3fc> normals,
+            List<Mesh.Face> faces, List<Color4f> colors
+    ) {
+        this.vertices = new float[vertices.size() * 3];
+        for (int i = 0; i < vertices.size(); i++) {
+            Vector3fc v = vertices.get(i);
+            this.vertices[i * 3] = v.x();
+            this.vertices[i * 3 + 1] = v.y();
+            this.vertices[i * 3 + 2] = v.z();
+        }
+
+        this.normals = new float[normals.size() * 3];
+        for (int i = 0; i < normals.size(); i++) {
+            Vector3fc n = normals.get(i);
+            this.normals[i * 3] = n.x();
+            this.normals[i * 3 + 1] = n.y();
+            this.normals[i * 3 + 2] = n.z();
+        }
+
+        this.textureCoords = new float[textureCoords.size() * 2];
+        for (int i = 0; i < textureCoords.size(); i++) {
+            Vector2fc t = textureCoords.get(i);
+            this.textureCoords[i * 2] = t.x();
+            this.textureCoords[i * 2 + 1] = t.y();
+        }
+
+        this.colors = new float[colors.size() * 4];
+        for (int i = 0; i < colors.size(); i++) {
+            Color4f c = colors.get(i);
+            this.colors[i * 4] = c.red;
+            this.colors[i * 4 + 1] = c.green;
+            this.colors[i * 4 + 2] = c.blue;
+            this.colors[i * 4 + 3] = c.alpha;
+        }
+
+        int nrOfIndices = 0;
+        for (Mesh.Face face : faces) {
+            nrOfIndices += face.size();
+        }
+
+        boolean hasTex = !textureCoords.isEmpty();
+        boolean hasCol = !colors.isEmpty();
+
+        faceOffsets = new int[faces.size() + 1];
+        vertexIndices = new int[nrOfIndices];
+        normalIndices = new int[nrOfIndices];
+        textureIndices = hasTex ? new int[nrOfIndices] : null;
+        colorIndices = hasCol ? new int[nrOfIndices] : null;
+
+        int offset = 0;
+        for (int i = 0; i < faces.size(); i++) {
+            Mesh.Face face = faces.get(i);
+            int size = face.size();
+            faceOffsets[i] = offset;
+
+            System.arraycopy(face.vert, 0, vertexIndices, offset, size);
+            System.arraycopy(face.norm, 0, normalIndices, offset, size);
+            if (hasTex) System.arraycopy(face.tex, 0, textureIndices, offset, size);
+            if (hasCol) System.arraycopy(face.col, 0, colorIndices, offset, size);
+
+            offset += size;
+        }
+        faceOffsets[faces.size()] = offset;
+    }
+
+    public int nrOfVertices() {
+        return vertices.length / 3;
+    }
+
+    public int nrOfFaces() {
+        return faceOffsets.length - 1;
+    }
+
+    /**
+     * @return the number of vertices of the given face
+     */
+    public int faceSize(int face) {
+        return faceOffsets[face + 1] - faceOffsets[face];
+    }
+
+    public List<Vector3fc> getVertexList() {
+        return toVectorList(vertices);
+    }
+
+    public List<Vector3fc> getNormalList() {
+        return toVectorList(normals);
+    }
+
+    public List<Vector2fc> getTextureCoordList() {
+        List<Vector2fc> list = new ArrayList<>(textureCoords.length / 2);
+        for (int i = 0; i < textureCoords.length; i += 2) {
+            list.add(new Vector2f(textureCoords[i], textureCoords[i + 1]));
+        }
+        return list;
+    }
+
+    public List<Color4f> getColorList() {
+        List<Color4f> list = new ArrayList<>(colors.length / 4);
+        for (int i = 0; i < colors.length; i += 4) {
+            list.add(new Color4f(colors[i], colors[i + 1], colors[i + 2], colors[i + 3]));
+        }
+        return list;
+    }
+
+    public List<Mesh.Face> getFaceList() {
+        int nrOfFaces = nrOfFaces();
+        List<Mesh.Face> list = new ArrayList<>(nrOfFaces);
+
+        for (int i = 0; i < nrOfFaces; i++) {
+            int start = faceOffsets[i];
+            int end = faceOffsets[i + 1];
+
+            list.add(new Mesh.Face(
+                    Arrays.copyOfRange(vertexIndices, start, end),
+                    Arrays.copyOfRange(normalIndices, start, end),
+                    textureIndices == null ? null : Arrays.copyOfRange(textureIndices, start, end),
+                    colorIndices == null ? null : Arrays.copyOfRange(colorIndices, start, end)
+            ));
+        }
+
+        return list;
+    }
+
+    private static List<Vector3fc> toVectorList(float[] data) {
+        List<Vector3fc> list = new ArrayList<>(data.length / 3);
+        for (int i = 0; i < data.length; i += 3) {
+            list.add(new Vector3f(data[i], data[i + 1], data[i + 2]));
+        }
+        return list;
+    }
+}
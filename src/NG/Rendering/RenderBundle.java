@@ -2,17 +2,22 @@ package NG.Rendering;
 
 import NG.Core.Game;
 import NG.Core.GameAspect;
+import NG.DataStructures.Generic.AveragingQueue;
+import NG.Rendering.MatrixStack.RenderCommandBuffer;
 import NG.Rendering.MatrixStack.SGL;
+import NG.Rendering.Shaders.SceneShader;
 import NG.Rendering.Shaders.ShaderProgram;
+import NG.Tools.Logger;
 import NG.Tools.Vectors;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A collection of drawing calls executed on a specific shader. The drawing calls are executed in the order in which
- * they are added to this bundle.
+ * they are added to this bundle, but the resulting render calls may be reordered by the SGL object of the shader.
  */
 public class RenderBundle implements GameAspect {
     private ShaderProgram shader;
@@ -20,6 +25,14 @@ public class RenderBundle implements GameAspect {
     private Game game;
     private String name;
 
+    private final AveragingQueue draws = new AveragingQueue(30);
+    private final AveragingQueue stateChanges = new AveragingQueue(30);
+    private final AveragingQueue uniformUploads = new AveragingQueue(30);
+    private final Supplier<String> drawCounter = () -> String.format(
+            "%s: %1.0f draws, %1.0f state changes, %1.0f uniforms",
+            this, draws.average(), stateChanges.average(), uniformUploads.average()
+    );
+
     public RenderBundle(String name, ShaderProgram shader) {
         this.shader = shader;
         this.name = name;
@@ -29,6 +42,9 @@ public class RenderBundle implements GameAspect {
     @Override
     public void init(Game game) throws Exception {
         this.game = game;
+        if (shader instanceof SceneShader) {
+            Logger.printOnline(drawCounter);
+        }
     }
 
     /**
@@ -59,8 +75,17 @@ public class RenderBundle implements GameAspect {
                         "drawing call " + i + " did not properly restore the SGL object";
 
             }
+
+            gl.flush();
         }
         shader.unbind();
+
+        if (shader instanceof SceneShader) {
+            RenderCommandBuffer commands = ((SceneShader) shader).getCommandBuffer();
+            draws.add(commands.getNrOfDraws());
+            stateChanges.add(commands.getNrOfStateChanges());
+            uniformUploads.add(commands.getNrOfUniformUploads());
+        }
     }
 
     @Override
@@ -70,6 +95,7 @@ public class RenderBundle implements GameAspect {
 
     @Override
     public void cleanup() {
+        Logger.removeOnlinePrint(drawCounter);
         shader.cleanup();
         targets.clear();
     }
@@ -2,6 +2,7 @@ package NG.Rendering;
 
 import NG.Camera.Camera;
 import NG.Camera.StaticCamera;
+import NG.CollisionDetection.GameState;
 import NG.Core.AbstractGameLoop;
 import NG.Core.Game;
 import NG.Core.GameAspect;
@@ -13,7 +14,6 @@ import NG.InputHandling.KeyMouseCallbacks;
 import NG.Rendering.Lights.GameLights;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.MatrixStack.SceneShaderGL;
-import NG.Rendering.Shaders.MaterialShader;
 import NG.Rendering.Shaders.PhongShader;
 import NG.Rendering.Shaders.SceneShader;
 import NG.Rendering.Shaders.TextureShader;
@@ -21,6 +21,7 @@ import NG.Rendering.Textures.Texture2D;
 import NG.Settings.Settings;
 import NG.Shapes.GenericShapes;
 import NG.Tools.*;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
 import org.lwjgl.glfw.GLFW;
@@ -40,6 +41,8 @@ public class RenderLoop extends AbstractGameLoop implements GameAspect {
     private SceneShader uiShader;
 
     private TimeObserver timeObserver;
+    private TimeObserver gpuTimer;
+    private FramePacer framePacer;
 
     /**
      * creates a new, paused gameloop
@@ -72,33 +75,52 @@ public class RenderLoop extends AbstractGameLoop implements GameAspect {
         KeyMouseCallbacks input = game.get(KeyMouseCallbacks.class);
         input.addKeyPressListener(k -> {
             if (k == GLFW.GLFW_KEY_PERIOD) {
-                Logger.DEBUG.print("\n" + timeObserver.resultsTable());
+                Logger.DEBUG.print("\n" + timeObserver.resultsTable() + "\n" + gpuTimer.resultsTable());
             }
         });
 
+        Profiler.doProfile = settings.DEBUG;
         if (settings.DEBUG) {
-            timeObserver = new TimeObserverImpl((getTPS() / 4) + 1, true){
-                @Override
-                protected void endTiming() {
-                    glFinish();
-                    super.endTiming();
-                }
-            };
-
+            timeObserver = new Profiler.Observer();
         } else {
             timeObserver = new TimeObserver.EmptyObserver();
         }
+
+        if (settings.GPU_TIMING) {
+            gpuTimer = new GPUTimer((getTPS() / 4) + 1);
+        } else {
+            gpuTimer = new TimeObserver.EmptyObserver();
+        }
+
+        framePacer = new FramePacer(settings.FRAMES_IN_FLIGHT, new GLFences(), System::nanoTime);
+    }
+
+    /** starts timing a section on both the CPU and the GPU */
+    private void startTiming(String identifier) {
+        timeObserver.startTiming(identifier);
+        gpuTimer.startTiming(identifier);
+    }
+
+    /** ends timing a section on both the CPU and the GPU */
+    private void endTiming(String identifier) {
+        timeObserver.endTiming(identifier);
+        gpuTimer.endTiming(identifier);
     }
 
     @Override
     protected void update(float deltaTime) {
         timeObserver.startNewLoop();
+        gpuTimer.startNewLoop();
+
+        // wait until the GPU is at most FRAMES_IN_FLIGHT frames behind
+        timeObserver.startTiming("Frame Pacing");
+        framePacer.beginFrame();
+        timeObserver.endTiming("Frame Pacing");
 
         GLFWWindow window = game.get(GLFWWindow.class);
         glViewport(0, 0, window.getWidth(), window.getHeight());
         glEnable(GL_LINE_SMOOTH);
         glPolygonMode(GL_FRONT_AND_BACK, GL_FILL);
-        glFinish();
 
         // current time
         float rendertime;
@@ -114,43 +136,54 @@ public class RenderLoop extends AbstractGameLoop implements GameAspect {
         // camera
         game.ifAvailable(Camera.class, c -> c.updatePosition(deltaTime, rendertime)); // real-time deltatime
 
+        // start culling entities for the main view, overlapping with the shadow maps
+        if (game.has(Camera.class) && game.has(GameState.class)) {
+            Matrix4f viewProjection = game.get(Camera.class)
+                    .getViewProjection((float) window.getWidth() / window.getHeight());
+
+            for (GameState state : game.getAll(GameState.class)) {
+                state.prepareFrame(rendertime, viewProjection);
+            }
+        }
+
         if (game.has(GameLights.class)) {
-            timeObserver.startTiming("ShadowMaps");
+            startTiming("ShadowMaps");
             for (GameLights lights : game.getAll(GameLights.class)) {
                 lights.renderShadowMaps();
             }
-            timeObserver.endTiming("ShadowMaps");
+            endTiming("ShadowMaps");
         }
 
         List<RenderBundle> renders = game.getAll(RenderBundle.class);
         for (RenderBundle renderBundle : renders) {
             String identifier = renderBundle.toString();
-            timeObserver.startTiming(identifier);
+            startTiming(identifier);
             renderBundle.draw();
-            timeObserver.endTiming(identifier);
+            endTiming(identifier);
         }
 
         int windowWidth = window.getWidth();
         int windowHeight = window.getHeight();
 
-        timeObserver.startTiming("GUI");
+        startTiming("GUI");
         overlay.draw(windowWidth, windowHeight, 10, 10, 16);
-        timeObserver.endTiming("GUI");
+        endTiming("GUI");
 
         // update window
         timeObserver.startTiming("Window Refresh");
         window.update();
+        framePacer.endFrame();
         timeObserver.endTiming("Window Refresh");
 
         // loop clean
         Toolbox.checkGLError();
         if (window.shouldClose()) stopLoop();
-
-        timeObserver.startTiming("Loop Overhead");
     }
 
     @Override
     public void cleanup() {
+        framePacer.cleanup();
+        if (gpuTimer instanceof GPUTimer) ((GPUTimer) gpuTimer).cleanup();
         uiShader.cleanup();
         overlay.cleanup();
     }
@@ -169,6 +202,7 @@ public class RenderLoop extends AbstractGameLoop implements GameAspect {
             uiShader.setPointLight(Vectors.Z, Color4f.WHITE, 0.8f);
             ((TextureShader) uiShader).setTexture(texture);
             tgl.render(GenericShapes.TEXTURED_QUAD, null);
+            tgl.flush();
             ((TextureShader) uiShader).unsetTexture();
 
         }
@@ -206,10 +240,7 @@ public class RenderLoop extends AbstractGameLoop implements GameAspect {
                 gl.translate(0, 0, 2 + SIZE);
                 gl.scale(SIZE, SIZE, -SIZE);
 
-                if (gl.getShader() instanceof MaterialShader) {
-                    MaterialShader mShader = (MaterialShader) gl.getShader();
-                    mShader.setMaterial(Material.ROUGH, Color4f.WHITE);
-                }
+                gl.setMaterial(Material.ROUGH, Color4f.WHITE);
 
                 gl.render(GenericShapes.ARROW, null);
             }
@@ -48,6 +48,7 @@ public class BlinnPhongShader extends SceneShader implements TextureShader {
         createUniform("directionalLight.direction");
         createUniform("directionalLight.intensity");
         createUniform("directionalLight.lightSpaceMatrix");
+        createUniform("directionalLight.staticLightSpaceMatrix");
         createUniform("directionalLight.shadowEnable");
 
         createPointLightsUniform("pointLights", MAX_POINT_LIGHTS);
@@ -110,6 +111,7 @@ public class BlinnPhongShader extends SceneShader implements TextureShader {
         setUniform("directionalLight.direction", light.getDirection());
         setUniform("directionalLight.intensity", color.alpha * light.getIntensity());
         setUniform("directionalLight.lightSpaceMatrix", light.getLightSpaceMatrix());
+        setUniform("directionalLight.staticLightSpaceMatrix", light.getStaticLightSpaceMatrix());
 
         // Static Shadows
         if (light.doStaticShadows()) {
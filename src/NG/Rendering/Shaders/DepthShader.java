@@ -4,6 +4,7 @@ import NG.Core.Game;
 import NG.DataStructures.Generic.Color4f;
 import NG.Entities.Entity;
 import NG.Rendering.Lights.DirectionalLight;
+import NG.Rendering.Lights.ShadowClipmap;
 import NG.Rendering.MatrixStack.AbstractSGL;
 import NG.Rendering.MeshLoading.Mesh;
 import NG.Tools.Directory;
@@ -38,6 +39,7 @@ public class DepthShader implements ShaderProgram, LightShader {
 
     private boolean isDynamic;
     private DirectionalLight directionalLight;
+    private Matrix4fc lightSpaceMatrix;
 
     public DepthShader() throws ShaderException, IOException {
         this.uniforms = new HashMap<>();
@@ -114,7 +116,7 @@ public class DepthShader implements ShaderProgram, LightShader {
         uniforms.put(uniformName, uniformLocation);
     }
 
-    public void setLightSpaceMatrix(Matrix4f lightSpaceMatrix) {
+    public void setLightSpaceMatrix(Matrix4fc lightSpaceMatrix) {
         setUniform("lightSpaceMatrix", lightSpaceMatrix);
     }
 
@@ -125,7 +127,7 @@ public class DepthShader implements ShaderProgram, LightShader {
 
     /**
      * @param dynamic if true, the dynamic map of the light will be used. If false, the static map of the light will be
-     *                used
+     *                used, of which the regions must be selected with {@link #setStaticRegion(ShadowClipmap.Region)}
      */
     public void setDynamic(boolean dynamic) {
         isDynamic = dynamic;
@@ -134,8 +136,25 @@ public class DepthShader implements ShaderProgram, LightShader {
     @Override
     public void setDirectionalLight(DirectionalLight light) {
         directionalLight = light;
-        ShadowMap shadowMap = isDynamic ? light.getDynamicShadowMap() : light.getStaticShadowMap();
-        shadowMap.bindFrameBuffer();
+
+        if (isDynamic) {
+            lightSpaceMatrix = light.getLightSpaceMatrix();
+            light.getDynamicShadowMap().bindFrameBuffer();
+
+        } else {
+            lightSpaceMatrix = light.getStaticLightSpaceMatrix();
+        }
+    }
+
+    /**
+     * selects a region of the static shadow map of the current light. Rendering only affects this region, and uses the
+     * projection of this region.
+     * @param region a region of the static shadow map of the light set with {@link #setDirectionalLight}
+     */
+    public void setStaticRegion(ShadowClipmap.Region region) {
+        assert !isDynamic;
+        lightSpaceMatrix = region.projection;
+        directionalLight.getStaticShadowMap().bindFrameBuffer(region.x, region.y, region.width, region.height);
     }
 
     @Override
@@ -172,7 +191,7 @@ public class DepthShader implements ShaderProgram, LightShader {
     public class DepthGL extends AbstractSGL {
         @Override
         public void render(Mesh object, Entity sourceEntity) {
-            setLightSpaceMatrix(directionalLight.getLightSpaceMatrix());
+            setLightSpaceMatrix(lightSpaceMatrix);
             setModelMatrix(getModelMatrix());
 
             object.render(LOCK);
@@ -185,7 +204,7 @@ public class DepthShader implements ShaderProgram, LightShader {
 
         @Override
         public Matrix4fc getViewProjectionMatrix() {
-            return directionalLight.getLightSpaceMatrix();
+            return lightSpaceMatrix;
         }
 
         public void cleanup() {
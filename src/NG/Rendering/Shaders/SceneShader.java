@@ -3,6 +3,7 @@ package NG.Rendering.Shaders;
 import NG.Camera.Camera;
 import NG.Core.Game;
 import NG.Rendering.GLFWWindow;
+import NG.Rendering.MatrixStack.RenderCommandBuffer;
 import NG.Rendering.MatrixStack.SGL;
 import NG.Rendering.MatrixStack.SceneShaderGL;
 import NG.Tools.Logger;
@@ -28,6 +29,7 @@ import static org.lwjgl.opengl.GL32.GL_GEOMETRY_SHADER;
 public abstract class SceneShader implements ShaderProgram, MaterialShader, LightShader {
 
     private final Map<String, Integer> uniforms;
+    private final RenderCommandBuffer commandBuffer = new RenderCommandBuffer();
 
     private int programId;
     private int vertexShaderID;
@@ -170,6 +172,11 @@ public abstract class SceneShader implements ShaderProgram, MaterialShader, Ligh
         return new SceneShaderGL(this, windowWidth, windowHeight, camera);
     }
 
+    /** @return the buffer that collects the render calls of this shader, reused for every frame */
+    public RenderCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+
     @Override
     public void setProjectionMatrix(Matrix4f viewProjectionMatrix) {
         setUniform("viewProjectionMatrix", viewProjectionMatrix);
@@ -54,7 +54,7 @@ public interface ShaderProgram {
      * @param uniformName The name of the uniform.
      * @param value       The new value of the uniform.
      */
-    default void setUniform(String uniformName, Matrix4f value) {
+    default void setUniform(String uniformName, Matrix4fc value) {
         try (MemoryStack stack = MemoryStack.stackPush()) {
             // Dump the matrix into a float buffer
             FloatBuffer fb = stack.mallocFloat(16);
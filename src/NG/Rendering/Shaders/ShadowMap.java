@@ -5,7 +5,6 @@ import NG.Rendering.Textures.Texture2D;
 import java.nio.ByteBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
 import static org.lwjgl.opengl.GL13.glActiveTexture;
 import static org.lwjgl.opengl.GL30.*;
 
@@ -26,6 +25,14 @@ public class ShadowMap implements Texture2D {
     }
 
     public void init() throws ShaderException {
+        init(ClampMethod.EDGE);
+    }
+
+    /**
+     * creates the texture and frame buffer of this shadow map
+     * @param clamp the wrapping of texture coordinates outside the map
+     */
+    public void init(ClampMethod clamp) throws ShaderException {
         // Create depth map texture
         glBindTexture(GL_TEXTURE_2D, depthMap);
         glTexImage2D(
@@ -36,8 +43,8 @@ public class ShadowMap implements Texture2D {
 
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, clamp.glValue);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, clamp.glValue);
 
         // Create FBO
         glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
@@ -88,6 +95,19 @@ public class ShadowMap implements Texture2D {
         glClear(GL_DEPTH_BUFFER_BIT);
     }
 
+    /**
+     * binds the frame buffer of this map, such that only the given rectangle is cleared and rendered to
+     */
+    public void bindFrameBuffer(int x, int y, int width, int height) {
+        glViewport(x, y, width, height);
+        glBindFramebuffer(GL_FRAMEBUFFER, depthMapFBO);
+
+        glEnable(GL_SCISSOR_TEST);
+        glScissor(x, y, width, height);
+        glClear(GL_DEPTH_BUFFER_BIT);
+        glDisable(GL_SCISSOR_TEST);
+    }
+
     @Override
     public void setClamp(ClampMethod p){
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, p.glValue);
@@ -0,0 +1,176 @@
+package NG.Replay;
+
+import NG.Entities.State;
+import NG.GameEvent.Event;
+import NG.Storable;
+import NG.Tools.Logger;
+import org.joml.Vector3f;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A binary log of a play session, to be replayed by a {@link ReplayDriver}. The journal holds the spawned boats, the
+ * game time of every simulation tick, every change of the state of a controller and the type and time of every
+ * scheduled event.
+ * <p>
+ * Controllers are identified by a channel number, assigned by the caller. Events can not be stored, as they refer to
+ * live objects; they are recreated by the replayed simulation, and the journal only holds their type and time to
+ * verify that the replay matches the recording.
+ * <p>
+ * Every method may be called from any thread. After an I/O error, the error is reported once and the journal stops
+ * recording.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class InputJournal implements AutoCloseable {
+    static final int MAGIC = 0x424A524E; // BJRN
+    static final short FORMAT_VERSION = 1;
+
+    static final byte END = 0;
+    static final byte SPAWN = 1;
+    static final byte TICK = 2;
+    static final byte CONTROL = 3;
+    static final byte EVENT = 4;
+    static final byte TYPE = 5;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream out;
+    private final Path file;
+    private final Map<Class<?>, Short> typeIds = new HashMap<>();
+    private boolean isOpen = true;
+    private int nrOfRecords = 0;
+
+    /**
+     * creates a journal at the given file, overwriting any existing file
+     * @param file    the file to write to
+     * @param mapName the name of the map file in the maps directory, or null if the game has no map
+     */
+    public InputJournal(Path file, String mapName) throws IOException {
+        this.file = file;
+        OutputStream stream = Files.newOutputStream(file);
+        out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeUTF(mapName == null ? "" : mapName);
+    }
+
+    /**
+     * records the spawning of a boat
+     * @param channel      the channel of the controller of the boat
+     * @param construction the construction file of the boat in the constructions directory
+     * @param state        the initial state of the boat
+     */
+    public synchronized void spawn(int channel, String construction, State state) {
+        if (!isOpen) return;
+
+        try {
+            out.writeByte(SPAWN);
+            out.writeShort(channel);
+            out.writeUTF(construction);
+            out.writeFloat(state.time());
+            Storable.writeVector3f(out, state.position().toVector3f(new Vector3f()));
+            Storable.writeQuaternionf(out, state.orientation());
+            nrOfRecords++;
+
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * records the start of a simulation tick
+     * @param gameTime  the game time of the tick
+     * @param deltaTime the real time since the previous tick, as given to the game state
+     */
+    public synchronized void tick(float gameTime, float deltaTime) {
+        if (!isOpen) return;
+
+        try {
+            out.writeByte(TICK);
+            out.writeFloat(gameTime);
+            out.writeFloat(deltaTime);
+            nrOfRecords++;
+
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * records the state of a controller, from the given game time on
+     * @param channel the channel of the controller
+     */
+    public synchronized void control(int channel, float gameTime, float throttle, float steering, boolean fire) {
+        if (!isOpen) return;
+
+        try {
+            out.writeByte(CONTROL);
+            out.writeShort(channel);
+            out.writeFloat(gameTime);
+            out.writeFloat(throttle);
+            out.writeFloat(steering);
+            out.writeBoolean(fire);
+            nrOfRecords++;
+
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * records the scheduling of an event
+     * @param event the event that is added to the event loop
+     */
+    public synchronized void event(Event event) {
+        if (!isOpen) return;
+
+        try {
+            Class<? extends Event> type = event.getClass();
+            Short id = typeIds.get(type);
+            if (id == null) {
+                id = (short) typeIds.size();
+                typeIds.put(type, id);
+                out.writeByte(TYPE);
+                out.writeShort(id);
+                out.writeUTF(type.getName());
+            }
+
+            out.writeByte(EVENT);
+            out.writeFloat(event.getTime());
+            out.writeShort(id);
+            nrOfRecords++;
+
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    private void fail(IOException ex) {
+        Logger.ERROR.print("Could not write to journal " + file + ", stopped recording", ex);
+        isOpen = false;
+    }
+
+    /** ends the journal and closes the file. Further records are ignored. */
+    @Override
+    public synchronized void close() {
+        if (!isOpen) return;
+        isOpen = false;
+
+        try (out) {
+            out.writeByte(END);
+
+        } catch (IOException ex) {
+            Logger.ERROR.print("Could not close journal " + file, ex);
+        }
+
+        Logger.INFO.printf("Written %d records to journal %s", nrOfRecords, file);
+    }
+}
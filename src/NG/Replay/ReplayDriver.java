@@ -0,0 +1,195 @@
+package NG.Replay;
+
+import NG.Blocks.BlocksConstruction;
+import NG.Core.HeadlessServer;
+import NG.DataStructures.Vector3fx;
+import NG.InputHandling.Controllers.ReplayBoatController;
+import NG.Storable;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replays an {@link InputJournal} on a {@link HeadlessServer}. The recorded ticks are executed one after another
+ * without waiting, using the recorded game time and delta time of each tick, such that the replay runs as fast as the
+ * simulation allows.
+ * <p>
+ * Before a tick is executed, all controller states recorded during that tick are read, such that each controller
+ * returns the recorded state regardless of the time it is queried. The events scheduled by the replay are counted and
+ * compared to the recorded events, as a check on the determinism of the simulation.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ReplayDriver {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path file;
+    private final Map<Integer, ReplayBoatController> controllers = new HashMap<>();
+    private final Map<Short, String> typeNames = new HashMap<>();
+    private final Map<String, Integer> recordedEvents = new HashMap<>();
+
+    private HeadlessServer server;
+    private int nrOfTicks = 0;
+    private int nrOfRecordedEvents = 0;
+
+    /**
+     * @param file the journal to replay
+     */
+    public ReplayDriver(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * replays the entire journal, and reports the throughput and whether the replay diverged from the recording.
+     * @return true if the replay scheduled the same number of events as the recording
+     */
+    public boolean replay() throws Exception {
+        int nrOfReplayedEvents;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            int magic = in.readInt();
+            short version = in.readShort();
+            if (magic != InputJournal.MAGIC || version != InputJournal.FORMAT_VERSION) {
+                throw new IOException(String.format(
+                        "%s is not a journal of version %d (magic %08x, version %d)",
+                        file, InputJournal.FORMAT_VERSION, magic, version
+                ));
+            }
+
+            String mapName = in.readUTF();
+            Path map = mapName.isEmpty() ? null : Directory.maps.getPath(mapName);
+            server = new HeadlessServer(map);
+            server.init();
+
+            Logger.INFO.print("Replaying " + file + "...");
+            long start = System.nanoTime();
+            float firstTick = Float.NaN;
+            float lastTick = Float.NaN;
+
+            // the tick that is read, but not yet executed
+            boolean hasTick = false;
+            float tickTime = 0;
+            float tickDelta = 0;
+
+            byte record;
+            do {
+                record = readRecord(in);
+
+                if (record == InputJournal.TICK || record == InputJournal.END) {
+                    if (hasTick) {
+                        server.step(tickTime, tickDelta);
+                        nrOfTicks++;
+                        if (Float.isNaN(firstTick)) firstTick = tickTime;
+                        lastTick = tickTime;
+                    }
+
+                    if (record == InputJournal.TICK) {
+                        tickTime = in.readFloat();
+                        tickDelta = in.readFloat();
+                        hasTick = true;
+                    }
+                }
+            } while (record != InputJournal.END);
+
+            float wallSeconds = (System.nanoTime() - start) / 1e9f;
+            float simulatedSeconds = nrOfTicks > 0 ? lastTick - firstTick : 0;
+            Logger.INFO.printf("Replayed %d ticks (%1.02f simulated seconds) in %1.02f seconds: %1.01f simulated s/s",
+                    nrOfTicks, simulatedSeconds, wallSeconds, simulatedSeconds / wallSeconds
+            );
+
+            nrOfReplayedEvents = server.getNrOfEvents();
+
+        } finally {
+            if (server != null) server.cleanup();
+        }
+
+        if (nrOfReplayedEvents != nrOfRecordedEvents) {
+            Logger.WARN.printf("Replay diverged: recorded %d events, replayed %d events. Recorded per type: %s",
+                    nrOfRecordedEvents, nrOfReplayedEvents, recordedEvents
+            );
+            return false;
+        }
+
+        Logger.INFO.printf("Replay matches recording: %d events", nrOfReplayedEvents);
+        return true;
+    }
+
+    /**
+     * reads records and processes every record other than a tick
+     * @return the type of the first record that is a tick or the end of the journal. In case of a tick, the data of
+     * the tick is not yet read.
+     */
+    private byte readRecord(DataInputStream in) throws IOException, ClassNotFoundException {
+        while (true) {
+            byte record;
+            try {
+                record = in.readByte();
+
+            } catch (EOFException ex) {
+                Logger.WARN.print("Journal " + file + " ended unexpectedly, the recording may have crashed");
+                return InputJournal.END;
+            }
+
+            switch (record) {
+                case InputJournal.END:
+                case InputJournal.TICK:
+                    return record;
+
+                case InputJournal.SPAWN:
+                    readSpawn(in);
+                    break;
+
+                case InputJournal.CONTROL:
+                    int channel = in.readShort();
+                    float gameTime = in.readFloat();
+                    float throttle = in.readFloat();
+                    float steering = in.readFloat();
+                    boolean fire = in.readBoolean();
+
+                    ReplayBoatController controller = controllers.get(channel);
+                    if (controller == null) throw new IOException("Control of unknown channel " + channel);
+                    controller.add(gameTime, throttle, steering, fire);
+                    break;
+
+                case InputJournal.TYPE:
+                    short id = in.readShort();
+                    typeNames.put(id, in.readUTF());
+                    break;
+
+                case InputJournal.EVENT:
+                    in.readFloat(); // the event time is not verified
+                    String type = typeNames.get(in.readShort());
+                    recordedEvents.merge(type, 1, Integer::sum);
+                    nrOfRecordedEvents++;
+                    break;
+
+                default:
+                    throw new IOException("Unknown record type " + record);
+            }
+        }
+    }
+
+    private void readSpawn(DataInputStream in) throws IOException, ClassNotFoundException {
+        int channel = in.readShort();
+        String construction = in.readUTF();
+        float gameTime = in.readFloat();
+        Vector3f position = Storable.readVector3f(in);
+        Quaternionf orientation = Storable.readQuaternionf(in);
+
+        File file = Directory.constructions.getFile(construction);
+        BlocksConstruction boat = HeadlessServer.loadBoat(file, new Vector3fx(position), orientation, gameTime);
+
+        ReplayBoatController controller = new ReplayBoatController();
+        controllers.put(channel, controller);
+        server.addBoat(boat, controller);
+    }
+}
@@ -0,0 +1,80 @@
+package NG;
+
+import NG.Core.HeadlessServer;
+import NG.Replay.InputJournal;
+import NG.Replay.ReplayDriver;
+import NG.Tools.Directory;
+import NG.Tools.Logger;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots a {@link HeadlessServer}, which simulates a game of bots without window.
+ * <p>
+ * The following flags are accepted:
+ * <dl>
+ * <dt>-debug</dt>
+ * <dd>Allow debug output</dd>
+ * <dt>-map [file]</dt>
+ * <dd>The map file in the maps directory to simulate on. Without this flag, there is no map</dd>
+ * <dt>-bots [n]</dt>
+ * <dd>The number of bots, 8 by default</dd>
+ * <dt>-construction [file]</dt>
+ * <dd>The construction file in the constructions directory of each bot, temp.conbi by default</dd>
+ * <dt>-time [seconds]</dt>
+ * <dd>The number of seconds to run the simulation. Without this flag, the server runs until it is stopped</dd>
+ * <dt>-record [file]</dt>
+ * <dd>Record the simulation to the given file in the replays directory</dd>
+ * <dt>-replay [file]</dt>
+ * <dd>Replay the given file in the replays directory as fast as possible, instead of running a new simulation. Only
+ * the -debug flag applies to a replay</dd>
+ * </dl>
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class ServerBoot {
+    public static void main(String[] argArray) throws Exception {
+        List<String> args = new ArrayList<>(Arrays.asList(argArray));
+
+        if (args.contains("-debug")) {
+            Logger.setLoggingLevel(Logger.DEBUG);
+        } else {
+            Logger.setLoggingLevel(Logger.INFO);
+        }
+
+        String replay = getArgument(args, "-replay", null);
+        if (replay != null) {
+            boolean matches = new ReplayDriver(Directory.replays.getPath(replay)).replay();
+            System.exit(matches ? 0 : 1);
+        }
+
+        String mapName = getArgument(args, "-map", null);
+        int nrOfBots = Integer.parseInt(getArgument(args, "-bots", "8"));
+        String construction = getArgument(args, "-construction", "temp.conbi");
+        float seconds = Float.parseFloat(getArgument(args, "-time", "0"));
+        String record = getArgument(args, "-record", null);
+
+        Path map = (mapName == null) ? null : Directory.maps.getPath(mapName);
+        HeadlessServer server = new HeadlessServer(map);
+        server.init();
+        if (record != null) {
+            server.record(new InputJournal(Directory.replays.getPath(record), mapName));
+        }
+        server.spawnBots(nrOfBots, Directory.constructions.getFile(construction));
+
+        // when the server is interrupted
+        Runtime.getRuntime().addShutdownHook(new Thread(server::cleanup, "Server shutdown"));
+        boolean completed = server.run(seconds);
+        server.cleanup();
+        System.exit(completed ? 0 : 1);
+    }
+
+    /** @return the value following the given flag, or the default value if the flag is absent */
+    private static String getArgument(List<String> args, String flag, String defaultValue) {
+        int index = args.indexOf(flag);
+        if (index < 0 || index + 1 >= args.size()) return defaultValue;
+        return args.get(index + 1);
+    }
+}
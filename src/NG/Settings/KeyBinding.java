@@ -24,6 +24,8 @@ public enum KeyBinding {
     TOGGLE_FULLSCREEN(GLFW_KEY_F11),
     PRINT_SCREEN(GLFW_KEY_PRINT_SCREEN),
     DEBUG_SCREEN(GLFW_KEY_F10),
+    EXPORT_METRICS(GLFW_KEY_F9),
+    PROFILER_TRACE(GLFW_KEY_F8),
 
     BLOCK_MOVE_POS_X(GLFW_KEY_W),
     BLOCK_MOVE_POS_Y(GLFW_KEY_A),
@@ -13,6 +13,7 @@ public class Settings {
     public boolean DEBUG = true;
     public boolean DEBUG_SCREEN = DEBUG;
     public boolean RENDER_HITBOXES = DEBUG;
+    public boolean RECORD_INPUT = false;
 
     // game engine settings
     public int TARGET_TPS = 100;
@@ -26,11 +27,14 @@ public class Settings {
     public int DEFAULT_WINDOW_WIDTH = 1600;
     public int DEFAULT_WINDOW_HEIGHT = 800;
     public boolean V_SYNC = false;
+    public int FRAMES_IN_FLIGHT = 2; // 0 waits for the GPU on every frame
+    public boolean GPU_TIMING = DEBUG;
     public int ANTIALIAS_LEVEL = 1;
     public boolean ISOMETRIC_VIEW = false;
     public float RENDER_DELAY = 1f / TARGET_TPS;
     public float CAMERA_ZOOM_SPEED = 0.1f;
     public int MAX_CAMERA_DIST = (int) Z_FAR;
+    public float MAP_VIEW_DISTANCE = Z_FAR;
     public float MIN_CAMERA_DIST = 0.5f;
     public int STATIC_SHADOW_RESOLUTION = 0;
     public int DYNAMIC_SHADOW_RESOLUTION = 0;
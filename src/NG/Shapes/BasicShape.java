@@ -2,10 +2,16 @@ package NG.Shapes;
 
 import NG.Rendering.MeshLoading.Mesh;
 import NG.Rendering.MeshLoading.MeshFile;
+import NG.Rendering.MeshLoading.PackedMesh;
 import NG.Shapes.Primitives.Plane;
+import NG.Shapes.Primitives.Quad;
+import NG.Shapes.Primitives.Triangle;
+import NG.Tools.Vectors;
 import org.joml.AABBf;
+import org.joml.Vector3f;
 import org.joml.Vector3fc;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -38,6 +44,93 @@ public class BasicShape implements Shape {
                 .collect(AABBf::new, AABBf::union, AABBf::union);
     }
 
+    /**
+     * creates a shape from packed data, with planes as described by the given plane data.
+     * @param data      the vertices and faces of this shape
+     * @param planeData the plane data of the faces, as returned by {@link #computePlaneData(PackedMesh)}
+     */
+    public BasicShape(PackedMesh data, float[] planeData) {
+        List<Vector3fc> vertexList = data.getVertexList();
+        int nrOfFaces = data.nrOfFaces();
+        assert planeData.length == nrOfFaces * 4;
+
+        this.vertices = Collections.unmodifiableList(vertexList);
+        this.triangles = new ArrayList<>(nrOfFaces);
+
+        for (int i = 0; i < nrOfFaces; i++) {
+            int start = data.faceOffsets[i];
+            Vector3fc normal = new Vector3f(planeData[i * 4], planeData[i * 4 + 1], planeData[i * 4 + 2]);
+            boolean isReversed = planeData[i * 4 + 3] < 0;
+
+            Vector3fc[] border = new Vector3fc[data.faceSize(i)];
+            for (int j = 0; j < border.length; j++) {
+                int k = isReversed ? (border.length - 1 - j) : j;
+                border[j] = vertexList.get(data.vertexIndices[start + k]);
+            }
+
+            if (border.length == 3) {
+                triangles.add(new Triangle(border[0], border[1], border[2], normal));
+            } else {
+                triangles.add(new Quad(border[0], border[1], border[2], border[3], normal));
+            }
+        }
+
+        boundingBox = new AABBf();
+        for (Vector3fc v : vertexList) {
+            boundingBox.union(v);
+        }
+    }
+
+    /**
+     * computes for each face the normal and orientation of the plane that {@link Plane#faceToPlane(Mesh.Face, List,
+     * List)} would create from it.
+     * @param data a mesh with only triangles and quads
+     * @return for each face 4 values: the normal of the resulting plane, and -1 if the vertices are reversed or 1
+     * otherwise.
+     */
+    public static float[] computePlaneData(PackedMesh data) {
+        int nrOfFaces = data.nrOfFaces();
+        float[] planeData = new float[nrOfFaces * 4];
+        Vector3f[] corners = {new Vector3f(), new Vector3f(), new Vector3f()};
+        Vector3f direction = new Vector3f();
+
+        for (int i = 0; i < nrOfFaces; i++) {
+            int start = data.faceOffsets[i];
+            int size = data.faceSize(i);
+            if (size != 3 && size != 4) {
+                throw new UnsupportedOperationException("polygons with " + size + " edges are not supported");
+            }
+
+            for (int j = 0; j < 3; j++) {
+                int vi = data.vertexIndices[start + j] * 3;
+                corners[j].set(data.vertices[vi], data.vertices[vi + 1], data.vertices[vi + 2]);
+            }
+
+            direction.zero();
+            for (int j = start; j < start + size; j++) {
+                int ni = data.normalIndices[j] * 3;
+                if (ni >= 0) direction.add(data.normals[ni], data.normals[ni + 1], data.normals[ni + 2]);
+            }
+
+            Vector3f normal = Vectors.getNormalVector(corners[0], corners[1], corners[2]);
+            boolean isReversed = normal.dot(direction) < 0;
+
+            // triangles use the computed normal, quads use the direction
+            if (size == 3) {
+                if (isReversed) normal.negate();
+            } else {
+                normal.set(direction);
+            }
+
+            planeData[i * 4] = normal.x;
+            planeData[i * 4 + 1] = normal.y;
+            planeData[i * 4 + 2] = normal.z;
+            planeData[i * 4 + 3] = isReversed ? -1 : 1;
+        }
+
+        return planeData;
+    }
+
     @Override
     public List<? extends Plane> getPlanes() {
         return Collections.unmodifiableList(triangles);
@@ -4,19 +4,23 @@ import NG.DataStructures.Generic.Color4f;
 import NG.DataStructures.Vector3fx;
 import NG.DataStructures.Vector3fxc;
 import NG.Tools.Logger;
-import NG.Tools.Toolbox;
 import org.joml.*;
 
 import java.io.*;
+import java.lang.Math;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.*;
 
 /**
  * An Object of this type can be written to file using a {@link DataOutputStream} and read from that file using a {@link
  * DataInputStream}. This object must have a public constructor that accepts a {@link DataInputStream} object as only
  * parameter. Implementing classes may not be inner classes (until a workaround has been found)
+ * <p>
+ * Classes that are registered in the {@link StorableRegistry} are read from a {@link StorableInputStream} without
+ * reflection. Files are written with a {@link StorableOutputStream}; files written before are still read by class name.
  * @author Geert van Ieperen. Created on 28-9-2018.
  */
 public interface Storable {
@@ -47,7 +51,13 @@ public interface Storable {
 
         Class<? extends Storable> objClass = object.getClass();
         if (objClass.isAnonymousClass()) throw new IllegalArgumentException("Anonymous classes can't be stored");
-        writeClass(out, objClass);
+
+        if (out instanceof StorableOutputStream) {
+            ((StorableOutputStream) out).writeType(objClass);
+        } else {
+            writeClass(out, objClass);
+        }
+
         object.writeToDataStream(out);
     }
 
@@ -64,8 +74,11 @@ public interface Storable {
      */
     static <T> T read(DataInputStream in, Class<T> expected) throws IOException, ClassNotFoundException {
         if (expected.isEnum()) {
-            //noinspection unchecked
-            return (T) readEnum(in, expected.asSubclass(Enum.class));
+            return expected.cast(readEnumOf(in, expected));
+        }
+
+        if (in instanceof StorableInputStream) {
+            return expected.cast(((StorableInputStream) in).readType(expected).read(in));
         }
 
         Class<? extends T> foundClass = null;
@@ -93,15 +106,44 @@ public interface Storable {
         }
     }
 
+    /**
+     * writes an enum constant to the stream. A {@link StorableOutputStream} writes its ordinal, any other stream writes
+     * its name.
+     * @see #readEnum(DataInputStream, Class)
+     */
     static void writeEnum(DataOutputStream out, Enum object) throws IOException {
-        out.writeUTF(object.toString());
+        if (out instanceof StorableOutputStream) {
+            out.writeShort(object.ordinal());
+        } else {
+            out.writeUTF(object.toString());
+        }
     }
 
-    static <T extends Enum> T readEnum(DataInputStream in, Class<T> expected) throws IOException {
-        String enumName = in.readUTF();
+    /**
+     * reads an enum constant from the stream. From a legacy stream, the name is read, and if no constant has exactly
+     * that name, the constant with the closest name is returned.
+     * @see #writeEnum(DataOutputStream, Enum)
+     */
+    static <T extends Enum<T>> T readEnum(DataInputStream in, Class<T> expected) throws IOException {
         T[] constants = expected.getEnumConstants();
         if (constants == null) throw new IllegalArgumentException(expected + " is not an Enum class");
-        return Toolbox.findClosest(enumName, constants);
+
+        if (in instanceof StorableInputStream) {
+            int ordinal = in.readUnsignedShort();
+            if (ordinal >= constants.length) {
+                throw new IOException("Ordinal " + ordinal + " of " + expected + " is out of range");
+            }
+            return constants[ordinal];
+        }
+
+        String enumName = in.readUTF();
+        return StorableRegistry.enumByName(expected, enumName);
+    }
+
+    /** reads a constant of an enum class that is only known at runtime */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // every enum class E extends Enum<E>
+    private static Enum<?> readEnumOf(DataInputStream in, Class<?> enumClass) throws IOException {
+        return readEnum(in, (Class) enumClass);
     }
 
     /**
@@ -236,6 +278,166 @@ public interface Storable {
         return mat;
     }
 
+    /**
+     * writes the given range of the array. If the stream writes to a {@link BufferWriter}, the values are copied in
+     * bulk to its buffer, otherwise they are converted to bytes in blocks.
+     * @see #readFloats(DataInputStream, float[], int, int)
+     */
+    static void writeFloats(DataOutputStream out, float[] array, int offset, int length) throws IOException {
+        if (out instanceof StorableOutputStream) {
+            BufferWriter writer = ((StorableOutputStream) out).getBufferWriter();
+            if (writer != null) {
+                writer.putFloats(array, offset, length);
+                return;
+            }
+        }
+
+        if (length < BufferWriter.BULK_THRESHOLD) {
+            for (int i = offset; i < offset + length; i++) {
+                out.writeFloat(array[i]);
+            }
+            return;
+        }
+
+        byte[] bytes = new byte[Math.min(length, BufferWriter.BULK_BLOCK_SIZE) * Float.BYTES];
+        while (length > 0) {
+            int n = Math.min(length, BufferWriter.BULK_BLOCK_SIZE);
+            ByteBuffer.wrap(bytes).asFloatBuffer().put(array, offset, n);
+            out.write(bytes, 0, n * Float.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * reads floats into the given range of the array
+     * @see #writeFloats(DataOutputStream, float[], int, int)
+     */
+    static void readFloats(DataInputStream in, float[] dest, int offset, int length) throws IOException {
+        if (in instanceof StorableInputStream) {
+            BufferReader reader = ((StorableInputStream) in).getBufferReader();
+            if (reader != null) {
+                reader.getFloats(dest, offset, length);
+                return;
+            }
+        }
+
+        if (length < BufferWriter.BULK_THRESHOLD) {
+            for (int i = offset; i < offset + length; i++) {
+                dest[i] = in.readFloat();
+            }
+            return;
+        }
+
+        byte[] bytes = new byte[Math.min(length, BufferWriter.BULK_BLOCK_SIZE) * Float.BYTES];
+        while (length > 0) {
+            int n = Math.min(length, BufferWriter.BULK_BLOCK_SIZE);
+            in.readFully(bytes, 0, n * Float.BYTES);
+            ByteBuffer.wrap(bytes).asFloatBuffer().get(dest, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * writes the given range of the array. If the stream writes to a {@link BufferWriter}, the values are copied in
+     * bulk to its buffer, otherwise they are converted to bytes in blocks.
+     * @see #readInts(DataInputStream, int[], int, int)
+     */
+    static void writeInts(DataOutputStream out, int[] array, int offset, int length) throws IOException {
+        if (out instanceof StorableOutputStream) {
+            BufferWriter writer = ((StorableOutputStream) out).getBufferWriter();
+            if (writer != null) {
+                writer.putInts(array, offset, length);
+                return;
+            }
+        }
+
+        if (length < BufferWriter.BULK_THRESHOLD) {
+            for (int i = offset; i < offset + length; i++) {
+                out.writeInt(array[i]);
+            }
+            return;
+        }
+
+        byte[] bytes = new byte[Math.min(length, BufferWriter.BULK_BLOCK_SIZE) * Integer.BYTES];
+        while (length > 0) {
+            int n = Math.min(length, BufferWriter.BULK_BLOCK_SIZE);
+            ByteBuffer.wrap(bytes).asIntBuffer().put(array, offset, n);
+            out.write(bytes, 0, n * Integer.BYTES);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * reads ints into the given range of the array
+     * @see #writeInts(DataOutputStream, int[], int, int)
+     */
+    static void readInts(DataInputStream in, int[] dest, int offset, int length) throws IOException {
+        if (in instanceof StorableInputStream) {
+            BufferReader reader = ((StorableInputStream) in).getBufferReader();
+            if (reader != null) {
+                reader.getInts(dest, offset, length);
+                return;
+            }
+        }
+
+        if (length < BufferWriter.BULK_THRESHOLD) {
+            for (int i = offset; i < offset + length; i++) {
+                dest[i] = in.readInt();
+            }
+            return;
+        }
+
+        byte[] bytes = new byte[Math.min(length, BufferWriter.BULK_BLOCK_SIZE) * Integer.BYTES];
+        while (length > 0) {
+            int n = Math.min(length, BufferWriter.BULK_BLOCK_SIZE);
+            in.readFully(bytes, 0, n * Integer.BYTES);
+            ByteBuffer.wrap(bytes).asIntBuffer().get(dest, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * writes the remaining bytes of the given buffer, preceded by their number
+     * @see #readBuffer(DataInputStream)
+     */
+    static void writeBuffer(DataOutputStream out, ByteBuffer data) throws IOException {
+        out.writeInt(data.remaining());
+
+        if (out instanceof StorableOutputStream) {
+            BufferWriter writer = ((StorableOutputStream) out).getBufferWriter();
+            if (writer != null) {
+                writer.put(data);
+                return;
+            }
+        }
+
+        Channels.newChannel(out).write(data);
+    }
+
+    /**
+     * reads bytes written by {@link #writeBuffer(DataOutputStream, ByteBuffer)}. If the stream reads from a {@link
+     * BufferReader} that holds all data, such as a memory-mapped file, the bytes are not copied.
+     * @return a buffer with the bytes between position and limit
+     */
+    static ByteBuffer readBuffer(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (in instanceof StorableInputStream) {
+            BufferReader reader = ((StorableInputStream) in).getBufferReader();
+            if (reader != null) {
+                return reader.getSlice(length);
+            }
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return ByteBuffer.wrap(data);
+    }
+
     static <K extends Storable, V extends Storable> void writeMap(DataOutputStream out, Map<K, V> map)
             throws IOException {
         out.writeInt(map.size());
@@ -292,11 +494,9 @@ public interface Storable {
      * @param file the file to write to, existing or not.
      */
     default void writeToFile(File file) {
-        try (
-                OutputStream fileStream = new FileOutputStream(file);
-                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream, 512))
-        ) {
+        try (DataOutputStream out = new StorableOutputStream(BufferWriter.toFile(file.toPath()))) {
             Logger.DEBUG.print("Writing " + file, this.getClass(), this);
+            out.writeInt(StorableOutputStream.FILE_MAGIC);
             write(out, this);
 
         } catch (IOException ex) {
@@ -314,8 +514,17 @@ public interface Storable {
      * @see #readFromFileRequired(File, Class)
      */
     static <T> T readFromFile(File file, Class<T> expected) throws IOException, ClassNotFoundException {
-        try (InputStream fileStream = new FileInputStream(file)) {
+        try (BufferReader fileStream = BufferReader.open(file.toPath())) {
+            fileStream.mark(Integer.BYTES);
             DataInputStream in = new DataInputStream(fileStream);
+
+            if (in.readInt() == StorableOutputStream.FILE_MAGIC) {
+                in = new StorableInputStream(fileStream);
+            } else {
+                // a file written before the type table was introduced
+                fileStream.reset();
+            }
+
             return read(in, expected);
         }
     }
@@ -339,7 +548,9 @@ public interface Storable {
      */
     static void writeSafe(DataOutputStream out, Storable element) throws IOException {
         ByteArrayOutputStream buffer = new ByteArrayOutputStream(64); // increases if necessary
-        DataOutputStream wrapOut = new DataOutputStream(buffer);
+        // the box has its own type table, such that it can be skipped
+        DataOutputStream wrapOut = (out instanceof StorableOutputStream) ?
+                new StorableOutputStream(buffer) : new DataOutputStream(buffer);
 
         write(wrapOut, element);
         wrapOut.close();
@@ -360,7 +571,17 @@ public interface Storable {
     static <T> T readSafe(DataInputStream in, Class<T> expected) throws IOException {
         int bits = in.readInt();
 
-        if (in.markSupported()) {
+        if (in instanceof StorableInputStream) {
+            byte[] buffer = new byte[bits];
+            in.readFully(buffer);
+
+            try {
+                return read(new StorableInputStream(new ByteArrayInputStream(buffer)), expected);
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                return null;
+            }
+
+        } else if (in.markSupported()) {
             in.mark(bits);
 
             try {
@@ -386,12 +607,20 @@ public interface Storable {
         }
     }
 
-    static DataOutputStream getOutputStream(File file) throws FileNotFoundException {
-        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    /**
+     * @return a stream that writes to the given file through a {@link BufferWriter}. Objects and arrays are written as
+     * by a {@link StorableOutputStream}.
+     */
+    static DataOutputStream getOutputStream(File file) throws IOException {
+        return new StorableOutputStream(BufferWriter.toFile(file.toPath()));
     }
 
-    static DataInputStream getInputStream(File file) throws FileNotFoundException {
-        return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    /**
+     * @return a stream that reads the given file through a {@link BufferReader}, for files written by {@link
+     * #getOutputStream(File)}
+     */
+    static DataInputStream getInputStream(File file) throws IOException {
+        return new StorableInputStream(BufferReader.open(file.toPath()));
     }
 
     static void writeColor(DataOutputStream out, Color4f color) throws IOException {
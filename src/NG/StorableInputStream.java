@@ -0,0 +1,56 @@
+package NG;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A data input stream that reads the type table of a {@link StorableOutputStream}, such that {@link
+ * Storable#read(DataInputStream, Class)} calls the factory of the {@link StorableRegistry} instead of looking up
+ * classes and constructors.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class StorableInputStream extends DataInputStream {
+    private final List<StorableRegistry.Entry<?>> typeTable = new ArrayList<>();
+
+    public StorableInputStream(InputStream in) {
+        super(in);
+    }
+
+    /** @return the reader this stream reads from, or null if it reads from another kind of stream */
+    BufferReader getBufferReader() {
+        return (in instanceof BufferReader) ? (BufferReader) in : null;
+    }
+
+    /**
+     * reads a reference to a class, and reads its definition if this is the first reference in this stream
+     * @param expected a superclass of the expected class
+     * @return the entry of the class, which reads instances of the expected class
+     * @throws ClassCastException if the class is not a subclass of the expected class
+     * @see StorableOutputStream#writeType(Class)
+     */
+    StorableRegistry.Entry<?> readType(Class<?> expected) throws IOException, ClassNotFoundException {
+        int index = readUnsignedShort();
+        StorableRegistry.Entry<?> entry;
+
+        if (index < typeTable.size()) {
+            entry = typeTable.get(index);
+
+        } else if (index == typeTable.size()) {
+            int id = readInt();
+            entry = (id == StorableRegistry.UNREGISTERED) ? StorableRegistry.forName(readUTF()) : StorableRegistry.forId(id);
+            typeTable.add(entry);
+
+        } else {
+            throw new IOException("Type index " + index + " was never defined, " + typeTable.size() + " types are known");
+        }
+
+        if (!expected.isAssignableFrom(entry.type)) {
+            throw new ClassCastException("Found " + entry.type + " which does not implement or override " + expected);
+        }
+
+        return entry;
+    }
+}
@@ -0,0 +1,57 @@
+package NG;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A data output stream that writes {@link Storable} objects with a type table. The first object of a class defines an
+ * entry of the table, holding its type id from the {@link StorableRegistry} or its name if it is not registered. Every
+ * following object of the same class only writes the index of that entry. Enums are written as their ordinal.
+ * <p>
+ * Streams written with this class must be read with a {@link StorableInputStream}.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public class StorableOutputStream extends DataOutputStream {
+    /**
+     * the first int of a file written with this stream. Legacy files start with the length of a class name, which is
+     * never this large.
+     */
+    public static final int FILE_MAGIC = 0xFFFE_4E47;
+
+    private final Map<Class<?>, Integer> typeTable = new HashMap<>();
+
+    public StorableOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /** @return the writer this stream writes to, or null if it writes to another kind of stream */
+    BufferWriter getBufferWriter() {
+        return (out instanceof BufferWriter) ? (BufferWriter) out : null;
+    }
+
+    /**
+     * writes a reference to the given class, and defines it if this is the first reference in this stream
+     * @see StorableInputStream#readType(Class)
+     */
+    void writeType(Class<?> type) throws IOException {
+        Integer index = typeTable.get(type);
+        if (index != null) {
+            writeShort(index);
+            return;
+        }
+
+        index = typeTable.size();
+        if (index > Short.MAX_VALUE) throw new IOException("Too many types in one stream");
+        typeTable.put(type, index);
+        writeShort(index);
+
+        int id = StorableRegistry.idOf(type);
+        writeInt(id);
+        if (id == StorableRegistry.UNREGISTERED) {
+            writeUTF(type.getName());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package NG;
+
+import NG.Blocks.BlocksConstruction;
+import NG.CollisionDetection.PhysicsEngine;
+import NG.Core.Version;
+import NG.Entities.FixedState;
+import NG.Entities.MutableState;
+import NG.GameMap.EmptyMap;
+import NG.Rendering.MeshLoading.MeshFile;
+import NG.Tools.Logger;
+import NG.Tools.Toolbox;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds {@link Storable} classes to a compact numeric type id and a factory that reads an instance from a stream. A
+ * {@link StorableOutputStream} writes the type id of a class only once, and refers to it with a short index
+ * afterwards; a {@link StorableInputStream} reads objects by calling the factory directly, without reflection or
+ * string lookups.
+ * <p>
+ * Classes that are not registered can still be stored: they are written by name, and read with a factory that is bound
+ * to their {@link DataInputStream} constructor on first use.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public final class StorableRegistry {
+    /** the type id of classes that are written by name */
+    public static final int UNREGISTERED = -1;
+    /** the first type id that is not used by the game itself, for mods to use */
+    public static final int FIRST_FREE_ID = 1024;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, DataInputStream.class);
+
+    private static final Map<Class<?>, Entry<?>> byClass = new ConcurrentHashMap<>();
+    private static final Map<Integer, Entry<?>> byId = new ConcurrentHashMap<>();
+    private static final ClassValue<Map<String, Enum<?>>> enumNames = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> names = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                names.put(constant.toString(), (Enum<?>) constant);
+            }
+            return names;
+        }
+    };
+
+    static {
+        // these ids are written to file, and may never be changed or reused
+        register(1, FixedState.class, FixedState::new);
+        register(2, MutableState.class, MutableState::new);
+        register(3, BlocksConstruction.class, BlocksConstruction::new);
+        register(4, Version.class, Version::new);
+        register(5, PhysicsEngine.class, PhysicsEngine::new);
+        register(6, EmptyMap.class, EmptyMap::new);
+        register(7, MeshFile.class, MeshFile::new);
+    }
+
+    private StorableRegistry() {
+    }
+
+    /**
+     * registers a class with a fixed type id. Type ids are written to file, and must not change between versions of the
+     * game.
+     * @param id      a non-negative id, unique among all registered classes
+     * @param type    the class to register
+     * @param factory a function that reads an instance of the given class, as written by {@link
+     *                Storable#writeToDataStream(java.io.DataOutputStream)}
+     * @throws IllegalArgumentException if the id or the class is already registered
+     */
+    public static synchronized <T extends Storable> void register(int id, Class<T> type, Factory<? extends T> factory) {
+        if (id < 0) throw new IllegalArgumentException("Type id of " + type + " is negative: " + id);
+
+        Entry<?> existing = byClass.get(type);
+        if (existing != null && existing.id != UNREGISTERED) {
+            throw new IllegalArgumentException(type + " is already registered with id " + existing.id);
+        }
+
+        Entry<T> entry = new Entry<>(id, type, factory);
+        existing = byId.putIfAbsent(id, entry);
+        if (existing != null) {
+            throw new IllegalArgumentException("Type id " + id + " of " + type + " is already used by " + existing.type);
+        }
+
+        byClass.put(type, entry);
+    }
+
+    /** @return the type id of the given class, or {@link #UNREGISTERED} if the class is not registered */
+    static int idOf(Class<?> type) {
+        Entry<?> entry = byClass.get(type);
+        return entry == null ? UNREGISTERED : entry.id;
+    }
+
+    /**
+     * @return the entry of the given class. If the class is not registered, an entry is created that reads the class
+     * with its {@link DataInputStream} constructor.
+     */
+    static Entry<?> forClass(Class<?> type) throws IOException {
+        Entry<?> entry = byClass.get(type);
+        if (entry != null) return entry;
+
+        entry = unregistered(type);
+        Entry<?> existing = byClass.putIfAbsent(type, entry);
+        return existing == null ? entry : existing;
+    }
+
+    /**
+     * @return the entry of the given class name
+     * @see #forClass(Class)
+     */
+    static Entry<?> forName(String className) throws IOException, ClassNotFoundException {
+        return forClass(Class.forName(className));
+    }
+
+    /**
+     * @return the entry registered with the given type id
+     * @throws IOException if no class is registered with the given id
+     */
+    static Entry<?> forId(int id) throws IOException {
+        Entry<?> entry = byId.get(id);
+        if (entry == null) throw new IOException("No class is registered with type id " + id);
+        return entry;
+    }
+
+    /**
+     * finds the constant of the given enum by name. If no constant has exactly this name, the constant with the closest
+     * name is returned.
+     * @param type the class of the enum
+     * @param name the name as written by a legacy stream
+     */
+    static <T extends Enum<T>> T enumByName(Class<T> type, String name) {
+        Enum<?> constant = enumNames.get(type).get(name);
+        if (constant != null) return type.cast(constant);
+
+        T closest = Toolbox.findClosest(name, type.getEnumConstants());
+        Logger.DEBUG.printf("No constant %s in %s, using %s", name, type.getSimpleName(), closest);
+        return closest;
+    }
+
+    private static <T> Entry<T> unregistered(Class<T> type) throws IOException {
+        return new Entry<>(UNREGISTERED, type, bindConstructor(type));
+    }
+
+    private static <T> Factory<T> bindConstructor(Class<T> type) throws IOException {
+        if (type.isAnonymousClass()) throw new IOException("Anonymous classes can't be stored");
+
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(type, CONSTRUCTOR_TYPE);
+
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IOException(type + " has no public constructor that accepts as argument a DataInputStream class", ex);
+        }
+
+        return in -> {
+            try {
+                return type.cast(constructor.invoke(in));
+
+            } catch (IOException | ClassNotFoundException | RuntimeException | Error ex) {
+                throw ex;
+
+            } catch (Throwable ex) {
+                String exception = ex.getClass().getSimpleName();
+                throw new IOException("Initializer of " + type + " caused an " + exception, ex);
+            }
+        };
+    }
+
+    /**
+     * reads an object from a stream
+     * @param <T> the type of the object
+     */
+    @FunctionalInterface
+    public interface Factory<T> {
+        T read(DataInputStream in) throws IOException, ClassNotFoundException;
+    }
+
+    /** a class bound to its type id and factory */
+    static final class Entry<T> {
+        final int id;
+        final Class<T> type;
+        private final Factory<? extends T> factory;
+
+        private Entry(int id, Class<T> type, Factory<? extends T> factory) {
+            this.id = id;
+            this.type = type;
+            this.factory = factory;
+        }
+
+        T read(DataInputStream in) throws IOException, ClassNotFoundException {
+            return factory.read(in);
+        }
+    }
+}
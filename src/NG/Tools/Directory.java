@@ -23,7 +23,10 @@ public enum Directory {
 
     mods(false, "Mods"),
     blocks(true, "res", "blocks"),
-    constructions(false, "Constructions");
+    constructions(false, "Constructions"),
+    metrics(false, "Metrics"),
+    replays(false, "Replays"),
+    cache(false, "Cache");
 
     private static Path workingDirectory = null;
     private final Path directory; // relative path
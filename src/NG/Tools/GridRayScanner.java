@@ -1,36 +1,55 @@
 package NG.Tools;
 
 import NG.CollisionDetection.Collision;
-import org.joml.*;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
 
-import java.lang.Math;
 import java.util.function.Function;
 
 /**
+ * Finds the first intersection of a ray with the elements of a grid, by visiting the cells of the grid in the order
+ * in which they are crossed by the ray (a 3D-DDA traversal after Amanatides and Woo). The traversal keeps its state in
+ * local primitives, such that a single scanner can be reused for any number of rays, also from multiple threads if the
+ * target allows it.
  * @author Geert van Ieperen created on 15-8-2019.
  */
 public class GridRayScanner {
-    private final Vector3fc maxCoord;
-    private Function<Vector3f, Vector3f> coordMap;
-    private final Vector3fc minCoord;
-    private Intersectable target;
+    private final Function<Vector3f, Vector3f> coordMap;
+    private final Intersectable target;
+    private final int xMin, yMin, zMin;
+    private final int xMax, yMax, zMax;
 
     public GridRayScanner(Vector3ic gridSize, Function<Vector3f, Vector3f> toCoordinate, Intersectable target) {
         this(new Vector3i(), gridSize, toCoordinate, target);
     }
 
+    /**
+     * @param minCoord     the lowest coordinate of the grid
+     * @param maxCoord     the coordinate just beyond the highest coordinate of the grid, such that the cells in [min,
+     *                     max) are scanned
+     * @param toCoordinate maps a position to its exact coordinate. Must be an affine mapping, such as a scaling
+     *                     followed by a translation. The given vector may be modified and returned.
+     * @param target       the default target of {@link #getIntersection(Vector3fc, Vector3fc, boolean)}, or null if
+     *                     the target is always supplied with the ray.
+     */
     public GridRayScanner(
             Vector3ic minCoord, Vector3ic maxCoord, Function<Vector3f, Vector3f> toCoordinate, Intersectable target
     ) {
-        this.minCoord = new Vector3f(minCoord);
-        this.maxCoord = new Vector3f(maxCoord);
+        this.xMin = minCoord.x();
+        this.yMin = minCoord.y();
+        this.zMin = minCoord.z();
+        this.xMax = maxCoord.x();
+        this.yMax = maxCoord.y();
+        this.zMax = maxCoord.z();
         this.coordMap = toCoordinate;
         this.target = target;
     }
 
     /**
-     * calculates the collision of the given ray with this map. if no such collision exists, it returns the empty
-     * collision.
+     * calculates the collision of the given ray with the target of this scanner. if no such collision exists, it
+     * returns the empty collision.
      * @param origin     the origin of the ray
      * @param direction  the direction of the ray
      * @param isInfinite if false, only the line piece of origin to (origin + direction) is considered. If true, the ray
@@ -38,100 +57,142 @@ public class GridRayScanner {
      * @return the resulting collision, or {@link Collision#NONE} if no collision occurs
      */
     public Collision getIntersection(Vector3fc origin, Vector3fc direction, boolean isInfinite) {
+        assert target != null : "scanner has no default target";
+        return getIntersection(origin, direction, isInfinite, target);
+    }
+
+    /**
+     * calculates the collision of the given ray with the given target. if no such collision exists, it returns the
+     * empty collision.
+     * @param origin     the origin of the ray
+     * @param direction  the direction of the ray
+     * @param isInfinite if false, only the line piece of origin to (origin + direction) is considered. If true, the ray
+     *                   from origin to infinity in the given direction is considered.
+     * @param target     the grid elements to intersect, in the coordinates of this scanner
+     * @return the resulting collision, or {@link Collision#NONE} if no collision occurs
+     */
+    public Collision getIntersection(
+            Vector3fc origin, Vector3fc direction, boolean isInfinite, Intersectable target
+    ) {
         if (!Vectors.isScalable(direction)) return Collision.NONE;
 
+        // ray in coordinate space, with the same parameter t as the given ray
         Vector3f coordPos = coordMap.apply(new Vector3f(origin));
-        Vector3f coordDir = coordMap.apply(new Vector3f(origin).add(direction)).sub(coordPos);
+        float px = coordPos.x;
+        float py = coordPos.y;
+        float pz = coordPos.z;
+        Vector3f coordEnd = coordMap.apply(coordPos.set(origin).add(direction));
 
-        Vector2f worldClip = new Vector2f();
-        boolean isOnWorld = Intersectionf.intersectRayAab(
-                coordPos, coordDir,
-                minCoord, maxCoord,
-                worldClip
+        return getIntersection(
+                origin, direction, px, py, pz, coordEnd.x - px, coordEnd.y - py, coordEnd.z - pz, isInfinite, target
         );
-        if (!isOnWorld) return Collision.NONE;
-        if (!isInfinite && worldClip.x > 1) return Collision.NONE;
-
-        float adjMin = Math.max(worldClip.x, 0);
-        float adjMax = isInfinite ? worldClip.y : Math.min(worldClip.y, 1);
-
-        // transform coordPos + coordDir to the entire region to be checked
-        coordPos.add(new Vector3f(coordDir).mul(adjMin));
-        if (isInfinite) {
-            coordDir.mul(adjMax - adjMin);
-        } else {
-            coordDir.mul(1 - adjMin);
+    }
+
+    /**
+     * calculates the collision of the given ray with the given target, where the ray has already been mapped to
+     * coordinate space. This allows callers to share the mapping of rays with equal directions.
+     * @param origin     the origin of the ray
+     * @param direction  the direction of the ray, not zero
+     * @param px         the x coordinate of the origin in coordinate space
+     * @param py         the y coordinate of the origin in coordinate space
+     * @param pz         the z coordinate of the origin in coordinate space
+     * @param dx         the x component of the direction in coordinate space
+     * @param dy         the y component of the direction in coordinate space
+     * @param dz         the z component of the direction in coordinate space
+     * @param isInfinite if false, only the line piece of origin to (origin + direction) is considered.
+     * @param target     the grid elements to intersect
+     * @return the resulting collision, or {@link Collision#NONE} if no collision occurs
+     */
+    public Collision getIntersection(
+            Vector3fc origin, Vector3fc direction, float px, float py, float pz, float dx, float dy, float dz,
+            boolean isInfinite, Intersectable target
+    ) {
+        // clip the ray to the grid
+        float tEnter = 0;
+        float tExit = isInfinite ? Float.POSITIVE_INFINITY : 1;
+
+        if (dx != 0) {
+            float ta = (xMin - px) / dx;
+            float tb = (xMax - px) / dx;
+            tEnter = Math.max(tEnter, Math.min(ta, tb));
+            tExit = Math.min(tExit, Math.max(ta, tb));
+        } else if (px < xMin || px >= xMax) {
+            return Collision.NONE;
         }
-        if (!Vectors.isScalable(coordDir)) return Collision.NONE;
 
-        Vector3i lineTraverse = new Vector3i((int) coordPos.x, (int) coordPos.y, (int) coordPos.z);
-        while (lineTraverse != null) {
-            int xCoord = lineTraverse.x;
-            int yCoord = lineTraverse.y;
-            int zCoord = lineTraverse.z;
+        if (dy != 0) {
+            float ta = (yMin - py) / dy;
+            float tb = (yMax - py) / dy;
+            tEnter = Math.max(tEnter, Math.min(ta, tb));
+            tExit = Math.min(tExit, Math.max(ta, tb));
+        } else if (py < yMin || py >= yMax) {
+            return Collision.NONE;
+        }
 
-            Collision coll = target.getIntersection(origin, direction, xCoord, yCoord, zCoord);
+        if (dz != 0) {
+            float ta = (zMin - pz) / dz;
+            float tb = (zMax - pz) / dz;
+            tEnter = Math.max(tEnter, Math.min(ta, tb));
+            tExit = Math.min(tExit, Math.max(ta, tb));
+        } else if (pz < zMin || pz >= zMax) {
+            return Collision.NONE;
+        }
 
-            if (coll.isCollision() && (isInfinite || coll.getCollisionTime() < 1)) {
-                coll.convertToGlobal(Vectors.Matrix.IDENTITY);
-                return coll;
-            }
+        if (tEnter > tExit) return Collision.NONE;
 
-            // no luck, try next coordinate
-            lineTraverse = nextCoordinate(xCoord, yCoord, zCoord, coordPos, coordDir);
-        }
+        // first cell, clamped against rounding at the border of the grid
+        int x = clamp((int) Math.floor(px + dx * tEnter), xMin, xMax - 1);
+        int y = clamp((int) Math.floor(py + dy * tEnter), yMin, yMax - 1);
+        int z = clamp((int) Math.floor(pz + dz * tEnter), zMin, zMax - 1);
 
-        return Collision.NONE;
-    }
+        int xStep = dx > 0 ? 1 : -1;
+        int yStep = dy > 0 ? 1 : -1;
+        int zStep = dz > 0 ? 1 : -1;
 
-    /**
-     * assuming you are at (xCoord, yCoord, zCoord), computes the next coordinate hit by the given ray
-     * @param xCoord    the current x coordinate
-     * @param yCoord    the current y coordinate
-     * @param zCoord    the current z coordiante
-     * @param origin    the origin of the ray
-     * @param direction the direction of the ray, may not be zero
-     * @return the next coordinate hit by the ray. If the previous coordinate was not hit by the ray, return a
-     * coordinate closer to the ray than this one (will eventually return coordinates on the ray)
-     */
-    public static Vector3i nextCoordinate(
-            int xCoord, int yCoord, int zCoord, Vector3fc origin, Vector3fc direction
-    ) {
-        boolean xIsPos = direction.x() > 0;
-        boolean yIsPos = direction.y() > 0;
-        boolean zIsPos = direction.z() > 0;
-
-        float xIntersect = Intersectionf.intersectRayPlane(
-                origin.x(), origin.y(), origin.z(), direction.x(), direction.y(), direction.z(),
-                (xIsPos ? xCoord + 1 : xCoord), yCoord, zCoord, (xIsPos ? -1 : 1), 0, 0,
-                1e-3f
-        );
-        float yIntersect = Intersectionf.intersectRayPlane(
-                origin.x(), origin.y(), origin.z(), direction.x(), direction.y(), direction.z(),
-                xCoord, (yIsPos ? yCoord + 1 : yCoord), zCoord, 0, (yIsPos ? -1 : 1), 0,
-                1e-3f
-        );
-        float zIntersect = Intersectionf.intersectRayPlane(
-                origin.x(), origin.y(), origin.z(), direction.x(), direction.y(), direction.z(),
-                xCoord, yCoord, (zIsPos ? zCoord + 1 : zCoord), 0, 0, (zIsPos ? -1 : 1),
-                1e-3f
-        );
-        Logger.WARN.print(origin, direction, xIntersect, yIntersect, zIntersect);
+        // value of t where the ray crosses the next cell border, and the increase of t per cell
+        float xNext = dx == 0 ? Float.POSITIVE_INFINITY : ((dx > 0 ? x + 1 : x) - px) / dx;
+        float yNext = dy == 0 ? Float.POSITIVE_INFINITY : ((dy > 0 ? y + 1 : y) - py) / dy;
+        float zNext = dz == 0 ? Float.POSITIVE_INFINITY : ((dz > 0 ? z + 1 : z) - pz) / dz;
+        float xDelta = dx == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dx);
+        float yDelta = dy == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dy);
+        float zDelta = dz == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dz);
+
+        Collision best = Collision.NONE;
+
+        while (true) {
+            Collision coll = target.getIntersection(origin, direction, x, y, z);
+
+            if (coll.isCollision() && (isInfinite || coll.getCollisionTime() < 1) && coll.isEarlierThan(best)) {
+                best = coll;
+            }
 
-        if (xIntersect >= 1 && yIntersect >= 1 && zIntersect >= 1) return null;
+            // elements may extend over multiple cells, so only accept a hit once no later cell can hit earlier
+            float tCellExit = Math.min(xNext, Math.min(yNext, zNext));
+            if (best.getCollisionTime() <= tCellExit || tCellExit > tExit) break;
 
-        // in case of parallel
-        if (xIntersect < 0) xIntersect = 1;
-        if (yIntersect < 0) yIntersect = 1;
-        if (zIntersect < 0) zIntersect = 1;
+            if (xNext == tCellExit) {
+                x += xStep;
+                if (x < xMin || x >= xMax) break;
+                xNext += xDelta;
 
-        Vector3i next = new Vector3i(xCoord, yCoord, zCoord);
+            } else if (yNext == tCellExit) {
+                y += yStep;
+                if (y < yMin || y >= yMax) break;
+                yNext += yDelta;
 
-        if (xIntersect <= yIntersect && xIntersect <= zIntersect) next.add((xIsPos ? 1 : -1), 0, 0);
-        if (yIntersect <= xIntersect && yIntersect <= zIntersect) next.add(0, (yIsPos ? 1 : -1), 0);
-        if (zIntersect <= xIntersect && zIntersect <= yIntersect) next.add(0, 0, (zIsPos ? 1 : -1));
+            } else {
+                z += zStep;
+                if (z < zMin || z >= zMax) break;
+                zNext += zDelta;
+            }
+        }
+
+        best.convertToGlobal(Vectors.Matrix.IDENTITY);
+        return best;
+    }
 
-        return next;
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
     }
 
     public interface Intersectable {
@@ -142,8 +203,7 @@ public class GridRayScanner {
          * @param xCoord    the x coordinate
          * @param yCoord    the y coordinate
          * @param zCoord    the z coordinate
-         * @return the first intersection of the ray with this tile, {@link Float#POSITIVE_INFINITY} if it does not hit
-         * and null if the given coordinate is not on the map.
+         * @return the first intersection of the ray with this tile, or {@link Collision#NONE} if it does not hit
          */
         Collision getIntersection(Vector3fc origin, Vector3fc direction, int xCoord, int yCoord, int zCoord);
     }
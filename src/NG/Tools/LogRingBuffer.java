@@ -0,0 +1,142 @@
+package NG.Tools;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue of log records, written by any number of threads and formatted by a single background thread. The
+ * slots of the queue are preallocated; a record holds its level, template, arguments and call site, and is only
+ * formatted on the background thread.
+ * <p>
+ * A writer claims a sequence number with a single atomic increment, fills the slot of that number and publishes it.
+ * When the queue is full, the writer waits until the background thread has freed a slot.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+final class LogRingBuffer {
+    private static final int CAPACITY = 1 << 12; // must be a power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Logger[] levels = new Logger[CAPACITY];
+    private final String[] templates = new String[CAPACITY];
+    private final Object[][] arguments = new Object[CAPACITY][];
+    private final StackWalker.StackFrame[] callsites = new StackWalker.StackFrame[CAPACITY];
+    /** for each slot, the sequence number of the record it holds, or -1 if it was never published */
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+    private final AtomicLong claimed = new AtomicLong();
+    /** the number of records taken from the queue, of which the slots are free */
+    private volatile long consumed = 0;
+    /** the number of records that are completely written */
+    private volatile long written = 0;
+
+    private final RecordWriter writer;
+    private final Thread writerThread;
+
+    /**
+     * creates a ring buffer and starts its background thread
+     * @param writer formats and writes every record, called on the background thread
+     */
+    LogRingBuffer(RecordWriter writer) {
+        this.writer = writer;
+
+        for (int i = 0; i < CAPACITY; i++) {
+            published.set(i, -1);
+        }
+
+        writerThread = new Thread(this::run, "Logger");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * adds a record to the queue. The arguments are not copied, and are formatted later.
+     */
+    void add(Logger level, String template, Object[] args, StackWalker.StackFrame callsite) {
+        long sequence = claimed.getAndIncrement();
+
+        while (sequence - consumed >= CAPACITY) {
+            Thread.onSpinWait();
+        }
+
+        int i = (int) (sequence & MASK);
+        levels[i] = level;
+        templates[i] = template;
+        arguments[i] = args;
+        callsites[i] = callsite;
+        published.set(i, sequence); // publishes the fields above
+    }
+
+    /**
+     * waits until all records added before this call are written, or until the timeout expires
+     * @param timeoutNanos the maximum time to wait
+     */
+    void flush(long timeoutNanos) {
+        if (isWriterThread()) return;
+
+        long target = claimed.get();
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        while (written < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writerThread);
+            Thread.yield();
+        }
+    }
+
+    /** @return true iff the calling thread is the background thread, which may not wait on this queue */
+    boolean isWriterThread() {
+        return Thread.currentThread() == writerThread;
+    }
+
+    /** @return the number of records waiting to be written */
+    int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    private void run() {
+        int idleCount = 0;
+
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            long next = consumed;
+            int i = (int) (next & MASK);
+
+            if (published.get(i) != next) {
+                if (++idleCount < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idleCount = 0;
+
+            Logger level = levels[i];
+            String template = templates[i];
+            Object[] args = arguments[i];
+            StackWalker.StackFrame callsite = callsites[i];
+            templates[i] = null;
+            arguments[i] = null;
+            callsites[i] = null;
+            consumed = next + 1; // frees the slot
+
+            try {
+                writer.write(level, template, args, callsite);
+
+            } catch (Exception ex) {
+                // the logger can not report its own errors
+                ex.printStackTrace();
+            }
+
+            written = next + 1;
+        }
+    }
+
+    /** formats and writes one record */
+    interface RecordWriter {
+        void write(Logger level, String template, Object[] args, StackWalker.StackFrame callsite);
+    }
+}
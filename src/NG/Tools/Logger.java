@@ -3,11 +3,12 @@ package NG.Tools;
 import org.joml.*;
 
 import java.io.PrintStream;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -30,9 +31,17 @@ public enum Logger {
     ERROR;
 
     public static boolean doPrintCallsites = true;
+    /**
+     * if true, messages are formatted and written on a background thread. Messages of {@link #ERROR} are always written
+     * before the print call returns.
+     */
+    public static boolean doAsyncLogging = true;
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final long FLUSH_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
 
     /** prevents spamming the chat */
-    protected static Set<String> callerBlacklist = new HashSet<>();
+    protected static Set<String> callerBlacklist = ConcurrentHashMap.newKeySet();
     private static List<Supplier<String>> onlinePrints = new CopyOnWriteArrayList<>();
     private static Consumer<String> out = null;
     private static Consumer<String> err = null;
@@ -40,8 +49,12 @@ public enum Logger {
     private boolean enabled = true;
     private String codeName = String.format("[%-5s]", this);
 
+    private static final LogRingBuffer queue;
+
     static {
         setOutputReceiver(null, null);
+        queue = new LogRingBuffer(Logger::write);
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::flush));
     }
 
     private static String concatenate(Object[] x) {
@@ -123,14 +136,25 @@ public enum Logger {
      * If DEBUG == false, return an empty string
      */
     public static String getCallingMethod(int level) {
-        // the better way of getting the top of the stack
-        StackWalker.StackFrame frame = StackWalker.getInstance()
-                .walk(s -> s.skip(level + 1)
-                        .findFirst()
-                        .orElseThrow()
-                );
+        return String.format("%-80s ", getCallsite(level + 1));
+    }
 
-        return String.format("%-80s ", frame);
+    /**
+     * @param level the stack depth to receive. 0 = the method calling this method, 1 = the caller of that method
+     * @return the stack frame of the given depth
+     */
+    private static StackWalker.StackFrame getCallsite(int level) {
+        return WALKER.walk(s -> s.skip(level + 1)
+                .findFirst()
+                .orElseThrow()
+        );
+    }
+
+    /**
+     * waits until all messages printed before this call are written to the output, or at most one second
+     */
+    public static void flush() {
+        queue.flush(FLUSH_TIMEOUT);
     }
 
     /**
@@ -168,10 +192,11 @@ public enum Logger {
      * @param identifier the string that identifies this call as unique
      * @param s          the strings to print
      */
-    public synchronized void printSpamless(String identifier, Object... s) {
-        if (!callerBlacklist.contains(identifier)) {
+    public void printSpamless(String identifier, Object... s) {
+        if (!enabled) return;
+
+        if (callerBlacklist.add(identifier)) {
             printFrom(2, s);
-            callerBlacklist.add(identifier);
         }
     }
 
@@ -180,26 +205,52 @@ public enum Logger {
      * the given call depth
      * @param depth 0 = this method, 1 = the calling method (yourself)
      */
-    public synchronized void printFrom(int depth, Object... s) {
+    public void printFrom(int depth, Object... s) {
         if (!enabled) return;
 
-        String prefix = codeName;
-        if (doPrintCallsites) prefix = getCallingMethod(depth) + prefix;
+        StackWalker.StackFrame callsite = doPrintCallsites ? getCallsite(depth) : null;
+        submit(null, s, callsite);
+    }
+
+    /**
+     * writes the message on the background thread if asynchronous logging is enabled, or immediately otherwise
+     * @param template the format of the arguments, or null to concatenate the arguments
+     */
+    private void submit(String template, Object[] args, StackWalker.StackFrame callsite) {
+        if (doAsyncLogging && !queue.isWriterThread()) {
+            queue.add(this, template, args, callsite);
+            if (this == ERROR) flush();
+
+        } else {
+            write(this, template, args, callsite);
+        }
+    }
+
+    /** formats and writes one message */
+    private static void write(Logger level, String template, Object[] args, StackWalker.StackFrame callsite) {
+        if (template == null && args == null) { // newLine()
+            out.accept("");
+            return;
+        }
 
-        switch (this) {
+        String message = (template == null) ? concatenate(args) : String.format(Locale.US, template, args);
+        String prefix = level.codeName;
+        if (callsite != null) prefix = String.format("%-80s ", callsite) + prefix;
+
+        switch (level) {
             case DEBUG:
             case INFO:
-                out.accept(prefix + ": " + concatenate(s));
+                out.accept(prefix + ": " + message);
                 break;
             case ASSERT:
             case WARN:
             case ERROR:
-                err.accept(prefix + ": " + concatenate(s));
+                err.accept(prefix + ": " + message);
 
-                if (this == ERROR) {
-                    for (Object elt : s) {
+                if (level == ERROR) {
+                    for (Object elt : args) {
                         if (elt instanceof Throwable) {
-                            dumpException((Throwable) elt, err);
+                            level.dumpException((Throwable) elt, err);
                         }
                     }
                 }
@@ -235,14 +286,25 @@ public enum Logger {
      * @see String#format(String, Object...)
      */
     public void printf(String format, Object... arguments) {
-        printFrom(2, String.format(Locale.US, format, arguments));
+        if (!enabled) return;
+
+        StackWalker.StackFrame callsite = doPrintCallsites ? getCallsite(1) : null;
+        submit(format, arguments, callsite);
     }
 
     /**
      * adds a newline if this logger is enabled
      */
     public void newLine() {
-        if (enabled) out.accept("");
+        if (enabled) submit(null, null, null);
+    }
+
+    /**
+     * @return true iff messages of this logger are printed. Callers can use this to skip computing expensive
+     * arguments.
+     */
+    public boolean isEnabled() {
+        return enabled;
     }
 
     /**
@@ -0,0 +1,338 @@
+package NG.Tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A registry of named measurements: counters, gauges and histograms. A measurement is created on the first request of
+ * its name, and every later request returns the same object. Updating a measurement does not allocate and does not
+ * lock, such that it can be done from any thread in every frame or tick.
+ * <p>
+ * All measurements can be written to a CSV or JSON file with {@link #exportCsv(Path)} and {@link #exportJson(Path)}.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public final class Metrics {
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private Metrics() {
+    }
+
+    /**
+     * returns the counter of the given name. Code that updates a measurement often should keep the returned object,
+     * instead of requesting it for every update.
+     * @return the counter of the given name
+     */
+    public static Counter counter(String name) {
+        return get(name, Counter.class);
+    }
+
+    /** @return the gauge of the given name */
+    public static Gauge gauge(String name) {
+        return get(name, Gauge.class);
+    }
+
+    /** @return the histogram of the given name */
+    public static Histogram histogram(String name) {
+        return get(name, Histogram.class);
+    }
+
+    private static <M extends Metric> M get(String name, Class<M> type) {
+        Metric metric = metrics.get(name);
+        if (metric == null) metric = metrics.computeIfAbsent(name, n -> {
+            if (type == Counter.class) return new Counter(n);
+            if (type == Gauge.class) return new Gauge(n);
+            return new Histogram(n);
+        });
+
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(String.format(
+                    "Metric %s is a %s, not a %s", name, metric.getClass().getSimpleName(), type.getSimpleName()
+            ));
+        }
+
+        return type.cast(metric);
+    }
+
+    /** sets all measurements to their initial value, for example at the start of a soak test */
+    public static void resetAll() {
+        metrics.values().forEach(Metric::reset);
+    }
+
+    /** @return all measurements, sorted on name */
+    public static List<Metric> getAll() {
+        List<Metric> all = new ArrayList<>(metrics.values());
+        all.sort(Comparator.comparing(m -> m.name));
+        return all;
+    }
+
+    /**
+     * writes the current value of every measurement to a CSV file, one line per measurement. Counters and gauges only
+     * fill the value column; histograms fill the count and distribution columns.
+     * @param file the file to write to. An existing file is overwritten.
+     */
+    public static void exportCsv(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.print("name,type,value,count,min,mean,max");
+            for (double p : PERCENTILES) {
+                out.print(",p" + percentileName(p));
+            }
+            out.println();
+
+            for (Metric metric : getAll()) {
+                out.printf(Locale.US, "%s,%s", metric.name, metric.getClass().getSimpleName().toLowerCase());
+
+                if (metric instanceof Histogram) {
+                    Histogram h = (Histogram) metric;
+                    out.printf(Locale.US, ",,%d,%d,%.1f,%d", h.getCount(), h.getMin(), h.getMean(), h.getMax());
+                    for (double p : PERCENTILES) {
+                        out.printf(Locale.US, ",%d", h.getValueAtPercentile(p));
+                    }
+
+                } else {
+                    out.printf(Locale.US, ",%s,,,,", metric.getValue());
+                    for (int i = 0; i < PERCENTILES.length; i++) {
+                        out.print(",");
+                    }
+                }
+                out.println();
+            }
+        }
+
+        Logger.INFO.print("Written " + metrics.size() + " metrics to " + file);
+    }
+
+    /**
+     * writes the current value of every measurement to a JSON file, as an array of objects with a name, a type and the
+     * values of the measurement.
+     * @param file the file to write to. An existing file is overwritten.
+     */
+    public static void exportJson(Path file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode root = mapper.createArrayNode();
+
+        for (Metric metric : getAll()) {
+            ObjectNode node = root.addObject();
+            node.put("name", metric.name);
+            node.put("type", metric.getClass().getSimpleName().toLowerCase());
+
+            if (metric instanceof Histogram) {
+                Histogram h = (Histogram) metric;
+                node.put("count", h.getCount());
+                node.put("min", h.getMin());
+                node.put("mean", h.getMean());
+                node.put("max", h.getMax());
+                ObjectNode percentiles = node.putObject("percentiles");
+                for (double p : PERCENTILES) {
+                    percentiles.put(percentileName(p), h.getValueAtPercentile(p));
+                }
+
+            } else {
+                node.put("value", metric.getValue());
+            }
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+        Logger.INFO.print("Written " + metrics.size() + " metrics to " + file);
+    }
+
+    private static String percentileName(double p) {
+        return (p == Math.floor(p)) ? String.valueOf((int) p) : String.valueOf(p).replace('.', '_');
+    }
+
+    /** a named measurement */
+    public abstract static class Metric {
+        public final String name;
+
+        Metric(String name) {
+            this.name = name;
+        }
+
+        /** @return the current value of this measurement */
+        public abstract double getValue();
+
+        abstract void reset();
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s = %s", name, getValue());
+        }
+    }
+
+    /** a number that only increases, such as the number of ticks */
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        Counter(String name) {
+            super(name);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        @Override
+        public double getValue() {
+            return count.sum();
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+        }
+    }
+
+    /** the last value of a quantity, such as the number of entities */
+    public static class Gauge extends Metric {
+        private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+        Gauge(String name) {
+            super(name);
+        }
+
+        public void set(double value) {
+            bits.set(Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public double getValue() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        @Override
+        void reset() {
+            set(0);
+        }
+    }
+
+    /**
+     * the distribution of a non-negative quantity, such as the duration of a tick in nanoseconds. Values are counted
+     * in buckets of which the width grows with the value, such that every recorded value is within 1/32 (about 3%) of
+     * the value reported for its bucket. Recording takes constant time, independent of the number of values.
+     */
+    public static class Histogram extends Metric {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        /** values below this are counted exactly */
+        private static final int LINEAR_LIMIT = 2 * SUB_COUNT;
+        private static final int NR_OF_BUCKETS = LINEAR_LIMIT + (Long.SIZE - 2 - SUB_BITS) * SUB_COUNT;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(NR_OF_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        Histogram(String name) {
+            super(name);
+        }
+
+        /**
+         * adds a value to this histogram
+         * @param value a value, at least 0. Negative values are counted as 0.
+         */
+        public void record(long value) {
+            if (value < 0) value = 0;
+
+            buckets.incrementAndGet(bucketOf(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        private static int bucketOf(long value) {
+            if (value < LINEAR_LIMIT) return (int) value;
+
+            int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+            int mantissa = (int) (value >>> shift); // in [SUB_COUNT, 2 * SUB_COUNT)
+            return LINEAR_LIMIT + (shift - 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+        }
+
+        /** @return the middle of the range of values counted in the given bucket */
+        private static long valueOf(int bucket) {
+            if (bucket < LINEAR_LIMIT) return bucket;
+
+            int shift = (bucket - LINEAR_LIMIT) / SUB_COUNT + 1;
+            long mantissa = (bucket - LINEAR_LIMIT) % SUB_COUNT + SUB_COUNT;
+            return (mantissa << shift) + ((1L << shift) - 1) / 2;
+        }
+
+        /**
+         * @param percentile a percentage in [0, 100]
+         * @return the value below which the given percentage of the recorded values lie, or 0 if no value was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = count.get();
+            if (total == 0) return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < NR_OF_BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(Math.max(valueOf(i), getMin()), getMax());
+                }
+            }
+
+            return getMax();
+        }
+
+        /** @return the number of recorded values */
+        public long getCount() {
+            return count.get();
+        }
+
+        /** @return the smallest recorded value, or 0 if no value was recorded */
+        public long getMin() {
+            return count.get() == 0 ? 0 : min.get();
+        }
+
+        /** @return the largest recorded value, or 0 if no value was recorded */
+        public long getMax() {
+            return count.get() == 0 ? 0 : max.get();
+        }
+
+        /** @return the average of the recorded values, or 0 if no value was recorded */
+        public double getMean() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        /** @return the median */
+        @Override
+        public double getValue() {
+            return getValueAtPercentile(50);
+        }
+
+        @Override
+        void reset() {
+            for (int i = 0; i < NR_OF_BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            min.set(Long.MAX_VALUE);
+            max.set(Long.MIN_VALUE);
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package NG.Tools;
+
+import NG.DataStructures.Generic.AveragingQueue;
+import NG.DataStructures.Generic.PairList;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A profiler of nested zones on any number of threads. A zone is a section of code identified by an integer, obtained
+ * once with {@link #register(String)}. Entering and leaving a zone with {@link #begin(int)} and {@link #end(int)}
+ * writes a timestamped event to a buffer of the calling thread, without locking or allocating. Every thread marks the
+ * end of its loop with {@link #frame()}.
+ * <p>
+ * The events of all threads are aggregated by {@link #collect()} into a tree of zones per thread, averaged over the
+ * last frames of that thread. While recording, the events are also kept to be written as a Chrome trace file with
+ * {@link #writeTrace(Path)}, which can be opened in chrome://tracing or other flame graph viewers.
+ * @author Geert van Ieperen created on 19-10-2026.
+ */
+public final class Profiler {
+    /** if false, {@link #begin(int)}, {@link #end(int)} and {@link #frame()} have no effect */
+    public static boolean doProfile = true;
+
+    private static final int BUFFER_CAPACITY = 1 << 15; // events, must be a power of two
+    private static final int MAX_DEPTH = 64;
+    private static final int AVERAGE_FRAMES = 30;
+    private static final int MAX_TRACE_EVENTS = 1 << 22;
+
+    private static final long BEGIN = 0;
+    private static final long END = 1L << 32;
+    private static final long FRAME = 2L << 32;
+
+    private static final Map<String, Integer> zoneIds = new ConcurrentHashMap<>();
+    private static final List<String> zoneNames = new CopyOnWriteArrayList<>();
+    private static final List<EventBuffer> buffers = new CopyOnWriteArrayList<>();
+    /** the index of the next thread that profiles, only accessed while holding the lock on the buffers */
+    private static int nextThreadIndex = 0;
+    private static final ThreadLocal<EventBuffer> localBuffer = ThreadLocal.withInitial(() -> {
+        synchronized (buffers) {
+            EventBuffer buffer = new EventBuffer(Thread.currentThread(), nextThreadIndex++);
+            buffers.add(buffer);
+            return buffer;
+        }
+    });
+
+    // trace recording, only accessed while holding the lock on the buffers
+    private static boolean isRecording = false;
+    private static long[] trace = new long[0];
+    private static int traceSize = 0;
+
+    private Profiler() {
+    }
+
+    /**
+     * returns the id of the zone with the given name, creating the zone if it does not exist yet. Ids are small
+     * non-negative numbers, and equal names always result in the same id.
+     * @param name the name of the zone as displayed in the results
+     * @return the id of the zone
+     */
+    public static int register(String name) {
+        Integer id = zoneIds.get(name);
+        if (id != null) return id;
+
+        synchronized (zoneNames) {
+            return zoneIds.computeIfAbsent(name, n -> {
+                zoneNames.add(n);
+                return zoneNames.size() - 1;
+            });
+        }
+    }
+
+    /** @return the name of the zone with the given id */
+    public static String getName(int zone) {
+        return zoneNames.get(zone);
+    }
+
+    /** enters the given zone on the calling thread. Must be followed by a call to {@link #end(int)} */
+    public static void begin(int zone) {
+        if (doProfile) localBuffer.get().add(BEGIN | zone);
+    }
+
+    /** leaves the given zone on the calling thread, which must be the last zone entered and not left */
+    public static void end(int zone) {
+        if (doProfile) localBuffer.get().add(END | zone);
+    }
+
+    /** marks the end of a loop of the calling thread. The results of this thread are averaged over these frames. */
+    public static void frame() {
+        if (doProfile) localBuffer.get().add(FRAME);
+    }
+
+    /**
+     * processes the events of all threads since the last call. This should be called regularly, for example once per
+     * frame; events are lost if a thread writes more than the capacity of its buffer between two calls.
+     * <p>
+     * The buffers of threads that have stopped are removed on the next call, such that their results remain available
+     * until then. While tracing, no buffers are removed.
+     */
+    public static void collect() {
+        synchronized (buffers) {
+            if (!isRecording) buffers.removeIf(b -> b.isStopped);
+
+            for (EventBuffer buffer : buffers) {
+                // checked before draining, such that a stopped buffer has no events left
+                boolean isStopped = !buffer.thread.isAlive();
+                buffer.drain();
+                buffer.isStopped = isStopped;
+            }
+        }
+    }
+
+    /** starts keeping all events for {@link #writeTrace(Path)}, discarding previously kept events */
+    public static void startTrace() {
+        synchronized (buffers) {
+            collect(); // events before this call are not part of the trace
+            traceSize = 0;
+            isRecording = true;
+        }
+    }
+
+    /** @return true iff events are kept for a trace */
+    public static boolean isTracing() {
+        return isRecording;
+    }
+
+    /**
+     * stops keeping events, and writes the events since {@link #startTrace()} to the given file in the Chrome trace
+     * event format. Each zone is written as a begin and end event on the thread that executed it.
+     * @param file the file to write to. An existing file is overwritten.
+     */
+    public static void writeTrace(Path file) throws IOException {
+        synchronized (buffers) {
+            collect();
+            isRecording = false;
+
+            try (JsonGenerator json = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+                json.writeStartObject();
+                json.writeArrayFieldStart("traceEvents");
+
+                for (EventBuffer buffer : buffers) {
+                    json.writeStartObject();
+                    json.writeStringField("name", "thread_name");
+                    json.writeStringField("ph", "M");
+                    json.writeNumberField("pid", 0);
+                    json.writeNumberField("tid", buffer.index);
+                    json.writeObjectFieldStart("args");
+                    json.writeStringField("name", buffer.threadName);
+                    json.writeEndObject();
+                    json.writeEndObject();
+                }
+
+                long origin = traceSize > 0 ? trace[1] : 0;
+                for (int i = 0; i < traceSize; i += 3) {
+                    long code = trace[i + 2];
+                    long type = code & ~0xFFFF_FFFFL;
+                    if (type == FRAME) continue;
+
+                    json.writeStartObject();
+                    json.writeStringField("name", getName((int) code));
+                    json.writeStringField("ph", type == BEGIN ? "B" : "E");
+                    json.writeNumberField("ts", (trace[i + 1] - origin) / 1000.0);
+                    json.writeNumberField("pid", 0);
+                    json.writeNumberField("tid", trace[i]);
+                    json.writeEndObject();
+                }
+
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+
+            Logger.INFO.printf("Written %d trace events to %s", traceSize / 3, file);
+            traceSize = 0;
+        }
+    }
+
+    private static void addTraceEvent(int thread, long time, long code) {
+        if (traceSize + 3 > trace.length) {
+            if (trace.length >= 3 * MAX_TRACE_EVENTS) {
+                Logger.WARN.print("Trace is full, stopped recording");
+                isRecording = false;
+                return;
+            }
+            trace = Arrays.copyOf(trace, Math.max(3 * 1024, trace.length * 2));
+        }
+
+        trace[traceSize++] = thread;
+        trace[traceSize++] = time;
+        trace[traceSize++] = code;
+    }
+
+    /**
+     * @param thread the thread to query
+     * @return the average time per frame of each top-level zone of the given thread, as a fraction of the frame time.
+     * If the thread never profiled, the list is empty.
+     */
+    public static PairList<String, Float> results(Thread thread) {
+        collect();
+        PairList<String, Float> results = new PairList<>();
+
+        synchronized (buffers) {
+            for (EventBuffer buffer : buffers) {
+                if (buffer.thread != thread) continue;
+
+                float frameTime = buffer.frameTimes.average();
+                for (Node node : buffer.root.children) {
+                    results.add(getName(node.zone), node.average.average() / frameTime);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /** @return a table of the average time of every zone of every thread */
+    public static String resultsTable() {
+        collect();
+        StringBuilder builder = new StringBuilder();
+
+        synchronized (buffers) {
+            for (EventBuffer buffer : buffers) {
+                float frameTime = buffer.frameTimes.average();
+                if (frameTime == 0) continue;
+
+                builder.append(String.format(Locale.US,
+                        "%s: %1.02f ms per frame%s\n",
+                        buffer.threadName, frameTime / 1e6f,
+                        buffer.nrOfDropped > 0 ? ", " + buffer.nrOfDropped + " events dropped" : ""
+                ));
+                appendNodes(builder, buffer.root, frameTime, 1);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static void appendNodes(StringBuilder builder, Node parent, float frameTime, int depth) {
+        for (Node node : parent.children) {
+            float nanos = node.average.average();
+            String indent = String.format("%" + (2 * depth) + "s", "");
+            builder.append(String.format(Locale.US,
+                    "| %-40s | %7.03f ms | %5.01f%% |\n", indent + getName(node.zone), nanos / 1e6f, 100 * nanos / frameTime
+            ));
+            appendNodes(builder, node, frameTime, depth + 1);
+        }
+    }
+
+    /**
+     * The events of a single thread. Only the owning thread writes events; the index of the last written event is
+     * published through a volatile field, and read by {@link #collect()}. Events that the writer may have overwritten
+     * while they were read are dropped.
+     */
+    private static class EventBuffer {
+        final Thread thread;
+        final String threadName;
+        final long[] events = new long[2 * BUFFER_CAPACITY];
+        volatile long written = 0;
+
+        // state of the reader, only accessed while holding the lock on the buffers
+        final int index;
+        boolean isStopped = false;
+        long read = 0;
+        int nrOfDropped = 0;
+        final Node root = new Node(-1);
+        final Node[] stack = new Node[MAX_DEPTH];
+        final long[] startTimes = new long[MAX_DEPTH];
+        int depth = 0;
+        long lastFrameTime = -1;
+        final AveragingQueue frameTimes = new AveragingQueue(AVERAGE_FRAMES);
+
+        EventBuffer(Thread thread, int index) {
+            this.thread = thread;
+            this.threadName = thread.getName();
+            this.index = index;
+        }
+
+        void add(long code) {
+            long w = written;
+            int i = (int) (w & (BUFFER_CAPACITY - 1)) * 2;
+            events[i] = System.nanoTime();
+            events[i + 1] = code;
+            written = w + 1;
+        }
+
+        void drain() {
+            long end = written;
+            if (end - read > BUFFER_CAPACITY) {
+                // the writer has overwritten unread events
+                nrOfDropped += end - read - BUFFER_CAPACITY;
+                read = end - BUFFER_CAPACITY;
+                depth = 0;
+            }
+
+            for (; read < end; read++) {
+                int i = (int) (read & (BUFFER_CAPACITY - 1)) * 2;
+                long time = events[i];
+                long code = events[i + 1];
+
+                // the writer starts overwriting this slot when it writes the event one capacity later
+                VarHandle.loadLoadFence();
+                if (written - read >= BUFFER_CAPACITY) {
+                    nrOfDropped++;
+                    depth = 0;
+                    continue;
+                }
+
+                process(time, code);
+                if (isRecording) addTraceEvent(index, time, code);
+            }
+        }
+
+        private void process(long time, long code) {
+            long type = code & ~0xFFFF_FFFFL;
+            int zone = (int) code;
+
+            if (type == BEGIN) {
+                if (depth == MAX_DEPTH) return;
+                Node parent = depth == 0 ? root : stack[depth - 1];
+                stack[depth] = parent.child(zone);
+                startTimes[depth] = time;
+                depth++;
+
+            } else if (type == END) {
+                // unwind to the matching zone, ignoring unmatched ends
+                for (int d = depth - 1; d >= 0; d--) {
+                    if (stack[d].zone == zone) {
+                        stack[d].frameNanos += time - startTimes[d];
+                        depth = d;
+                        break;
+                    }
+                }
+
+            } else if (type == FRAME) {
+                if (lastFrameTime >= 0) {
+                    frameTimes.add(time - lastFrameTime);
+                    root.endFrame();
+                }
+                lastFrameTime = time;
+            }
+        }
+    }
+
+    /** a zone at a specific position in the hierarchy of a thread */
+    private static class Node {
+        final int zone;
+        final List<Node> children = new ArrayList<>();
+        final AveragingQueue average = new AveragingQueue(AVERAGE_FRAMES);
+        long frameNanos = 0;
+
+        Node(int zone) {
+            this.zone = zone;
+        }
+
+        Node child(int zone) {
+            for (Node child : children) {
+                if (child.zone == zone) return child;
+            }
+
+            Node child = new Node(zone);
+            children.add(child);
+            return child;
+        }
+
+        /** adds the time of this frame to the averages, recursively */
+        void endFrame() {
+            for (Node child : children) {
+                child.average.add(child.frameNanos);
+                child.frameNanos = 0;
+                child.endFrame();
+            }
+        }
+    }
+
+    /**
+     * A {@link TimeObserver} that records its timings as zones of the profiler, nested in the zone that is active on
+     * the calling thread. Zones are registered on first use, such that existing timing code can be profiled without
+     * changes.
+     */
+    public static class Observer implements TimeObserver {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        @Override
+        public void startNewLoop() {
+            collect();
+        }
+
+        @Override
+        public void startTiming(String identifier) {
+            begin(ids.computeIfAbsent(identifier, Profiler::register));
+        }
+
+        @Override
+        public void endTiming(String identifier) {
+            end(ids.computeIfAbsent(identifier, Profiler::register));
+        }
+
+        @Override
+        public PairList<String, Float> results() {
+            return Profiler.results(Thread.currentThread());
+        }
+
+        @Override
+        public String resultsTable() {
+            return Profiler.resultsTable();
+        }
+    }
+}
@@ -3,8 +3,6 @@ package NG.Tools;
 import NG.DataStructures.Generic.Color4f;
 import NG.Rendering.Material;
 import NG.Rendering.MatrixStack.SGL;
-import NG.Rendering.Shaders.MaterialShader;
-import NG.Rendering.Shaders.ShaderProgram;
 import NG.Shapes.GenericShapes;
 import org.joml.AABBf;
 import org.joml.Quaternionf;
@@ -61,40 +59,28 @@ public final class Toolbox {
         }
 
         Material mat = Material.ROUGH;
-        ShaderProgram shader = gl.getShader();
-        MaterialShader matShader = (diffuse, specular, reflectance) -> {};
-
-        if (shader instanceof MaterialShader) {
-            matShader = (MaterialShader) shader;
-        }
 
         gl.pushMatrix();
         {
-            matShader.setMaterial(mat, Color4f.BLUE);
+            gl.setMaterial(mat, Color4f.BLUE);
             gl.render(GenericShapes.ARROW, null);
 
             gl.rotate((float) Math.toRadians(90), 0f, 1f, 0f);
-            matShader.setMaterial(mat, Color4f.RED);
+            gl.setMaterial(mat, Color4f.RED);
             gl.render(GenericShapes.ARROW, null);
             gl.rotate((float) Math.toRadians(-90), 1f, 0f, 0f);
-            matShader.setMaterial(mat, Color4f.GREEN);
+            gl.setMaterial(mat, Color4f.GREEN);
             gl.render(GenericShapes.ARROW, null);
 
-            matShader.setMaterial(Material.ROUGH, Color4f.WHITE);
+            gl.setMaterial(Material.ROUGH, Color4f.WHITE);
         }
         gl.popMatrix();
     }
 
     public static void draw3DPointer(SGL gl) {
         Material mat = Material.ROUGH;
-        ShaderProgram shader = gl.getShader();
-        MaterialShader matShader = (diffuse, specular, reflectance) -> {};
-
-        if (shader instanceof MaterialShader) {
-            matShader = (MaterialShader) shader;
-        }
 
-        matShader.setMaterial(mat, Color4f.BLUE);
+        gl.setMaterial(mat, Color4f.BLUE);
         gl.pushMatrix();
         {
             gl.scale(1, CURSOR_SIZE, CURSOR_SIZE);
@@ -102,7 +88,7 @@ public final class Toolbox {
         }
         gl.popMatrix();
 
-        matShader.setMaterial(mat, Color4f.RED);
+        gl.setMaterial(mat, Color4f.RED);
         gl.pushMatrix();
         {
             gl.scale(CURSOR_SIZE, 1, CURSOR_SIZE);
@@ -110,17 +96,18 @@ public final class Toolbox {
         }
         gl.popMatrix();
 
-        matShader.setMaterial(mat, Color4f.GREEN);
+        gl.setMaterial(mat, Color4f.GREEN);
         gl.pushMatrix();
         {
             gl.scale(CURSOR_SIZE, CURSOR_SIZE, 1);
             gl.render(GenericShapes.CUBE, null);
         }
-        matShader.setMaterial(Material.ROUGH, Color4f.WHITE);
+        gl.setMaterial(Material.ROUGH, Color4f.WHITE);
         gl.popMatrix();
     }
 
     public static void drawHitboxes(SGL gl, Collection<? extends AABBf> targets) {
+        gl.flush();
         glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);
 
         for (AABBf h : targets) {
@@ -134,6 +121,7 @@ public final class Toolbox {
 
         }
 
+        gl.flush();
         glPolygonMode(GL_FRONT_AND_BACK, GL_FILL);
     }
 
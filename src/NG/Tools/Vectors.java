@@ -8,6 +8,7 @@ import org.joml.*;
 
 import java.lang.Math;
 import java.util.Locale;
+import java.util.Random;
 
 import static java.lang.Float.isNaN;
 
@@ -76,11 +77,20 @@ public final class Vectors {
      * @return a vector with length < 1 that is universally distributed. Would form a solid sphere when created points
      */
     public static Vector3f randomOrb() {
-        float phi = Toolbox.random.nextFloat() * 6.2832f;
-        float costheta = (Toolbox.random.nextFloat() * 2) - 1;
+        return randomOrb(Toolbox.random);
+    }
+
+    /**
+     * @param random the source of randomness, for example {@link java.util.concurrent.ThreadLocalRandom#current()}
+     * @return a vector with length < 1 that is universally distributed.
+     * @see #randomOrb()
+     */
+    public static Vector3f randomOrb(Random random) {
+        float phi = random.nextFloat() * 6.2832f;
+        float costheta = (random.nextFloat() * 2) - 1;
 
         float theta = (float) Math.acos(costheta);
-        float r = (float) java.lang.Math.cbrt(Toolbox.random.nextFloat());
+        float r = (float) java.lang.Math.cbrt(random.nextFloat());
 
         float x = (r * sin(theta) * cos(phi));
         float y = (r * sin(theta) * sin(phi));